@@ -2,12 +2,15 @@ package com.example.jobbot;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
 public class Application {
   public static void main(String[] args) {
-    SpringApplication.run(Application.class, args);
+    ConfigurableApplicationContext ctx = SpringApplication.run(Application.class, args);
+    // the image build starts the app once to record its CDS archive (see backend/Dockerfile)
+    if(Boolean.getBoolean("jobbot.cds.training-run")) System.exit(SpringApplication.exit(ctx));
   }
 }
@@ -1,15 +1,30 @@
 package com.example.jobbot;
 import com.example.jobbot.model.JobSource;
 import com.example.jobbot.repository.JobSourceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+/** Seeds the demo sources into an empty database, on its own thread so it stays off the startup path. */
 @Component
 public class SourceSeeder implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(SourceSeeder.class);
     private final JobSourceRepository repo;
     public SourceSeeder(JobSourceRepository repo) {
         this.repo = repo;
     }
-    @Override public void run(String... args) throws Exception {
+    @Override public void run(String... args) {
+        Thread t = new Thread(() -> {
+            try {
+                seed();
+            } catch(Exception e) {
+                log.warn("source_seed_failed error=\"{}\"", e.getMessage());
+            }
+        }, "source-seeder");
+        t.setDaemon(true);
+        t.start();
+    }
+    private void seed() {
         if(repo.count() == 0) {
             JobSource s1 = new JobSource();
             s1.setName("WeWorkRemotely - Remote Jobs RSS");
@@ -26,9 +41,9 @@ public class SourceSeeder implements CommandLineRunner {
             s3.setUrl("https://api.lever.co/v0/postings/leverdemo?mode=json");
             s3.setType("jsonld");
             repo.save(s3);
-            System.out.println("Seeded job sources: weworkremotely, greenhouse (airtable), lever demo");
+            log.info("sources_seeded sources=weworkremotely,greenhouse-airtable,lever-demo");
         } else {
-            System.out.println("Sources exist; skipping seeding");
+            log.info("source_seed_skipped reason=sources_exist");
         }
     }
 }
@@ -1,12 +1,15 @@
 package com.example.jobbot.controller;
 import com.example.jobbot.model.User; import com.example.jobbot.repository.UserRepository;
+import com.example.jobbot.service.AuthCache;
 import org.springframework.web.bind.annotation.*;
 import java.util.Map; import java.util.Optional; import java.util.UUID;
 @RestController @RequestMapping("/api/auth")
 public class AuthController {
     private final UserRepository userRepo;
-    public AuthController(UserRepository userRepo) {
+    private final AuthCache authCache;
+    public AuthController(UserRepository userRepo, AuthCache authCache) {
         this.userRepo = userRepo;
+        this.authCache = authCache;
     }
     @PostMapping("/register")
     public Map<String,Object> register(@RequestBody Map<String,String> body) {
@@ -31,6 +34,7 @@ public class AuthController {
         Optional<User> uo = userRepo.findByUsername(username);
         if(uo.isEmpty()||!uo.get().getPassword().equals(password)) return Map.of("error","invalid credentials");
         User u = uo.get();
+        authCache.invalidateToken(u.getToken());
         if(u.getToken()==null||u.getToken().isBlank()) {
             u.setToken(UUID.randomUUID().toString());
             userRepo.save(u);
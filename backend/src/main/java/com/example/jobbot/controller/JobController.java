@@ -1,24 +1,117 @@
 package com.example.jobbot.controller;
 import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.JobSummary;
 import com.example.jobbot.repository.JobPostingRepository;
+import com.example.jobbot.service.JobQueryService;
+import com.example.jobbot.service.JobSearchIndex;
+import com.example.jobbot.service.PostingDedupIndex;
+import com.example.jobbot.service.PostingDescriptions;
+import com.example.jobbot.service.PostingEventBus;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity; import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 @RestController @RequestMapping("/api/jobs")
 public class JobController {
+    private static final int MAX_PAGE = 500;
     private final JobPostingRepository repo;
-    public JobController(JobPostingRepository repo) {
+    private final JobQueryService query;
+    private final JobSearchIndex searchIndex;
+    private final PostingEventBus events;
+    private final PostingDescriptions descriptions;
+    public JobController(JobPostingRepository repo, JobQueryService query, JobSearchIndex searchIndex, PostingEventBus events,
+                         PostingDescriptions descriptions) {
         this.repo = repo;
+        this.descriptions = descriptions;
+        this.query = query;
+        this.searchIndex = searchIndex;
+        this.events = events;
     }
     @GetMapping
-    public List<JobPosting> list() {
-        return repo.findAll();
+    public Map<String,Object> list(@RequestParam(required=false) Long before,
+                                   @RequestParam(defaultValue="50") int limit,
+                                   @RequestParam(required=false) String source,
+                                   @RequestParam(required=false) String company,
+                                   @RequestParam(required=false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                   @RequestParam(required=false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                   @RequestParam(defaultValue="false") boolean description,
+                                   @RequestParam(defaultValue="false") boolean includeClosed,
+                                   @RequestParam(defaultValue="false") boolean collapse) {
+        JobQueryService.Filter f = filter(before, source, company, from, to, includeClosed);
+        f.collapse = collapse;
+        int size = Math.max(1, Math.min(limit, MAX_PAGE));
+        List<?> items = description ? query.postings(f, size) : query.summaries(f, size);
+        Object lastItem = items.isEmpty() ? null : items.get(items.size()-1);
+        Long last = lastItem instanceof JobPosting j ? j.getId() : lastItem instanceof JobSummary js ? js.getId() : null;
+        Map<String,Object> page = new LinkedHashMap<>();
+        page.put("items", items);
+        page.put("nextCursor", items.size() < size ? null : last);
+        return page;
+    }
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required=false) String source,
+                                                       @RequestParam(required=false) String company,
+                                                       @RequestParam(required=false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                       @RequestParam(required=false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                       @RequestParam(defaultValue="false") boolean description,
+                                                       @RequestParam(defaultValue="false") boolean includeClosed,
+                                                       @RequestParam(defaultValue="false") boolean collapse) {
+        JobQueryService.Filter f = filter(null, source, company, from, to, includeClosed);
+        f.collapse = collapse;
+        StreamingResponseBody body = out -> query.exportNdjson(f, description, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+    /**
+     * New postings as Server-Sent Events ({@code posting}, or {@code reset} when the client should
+     * reload the list). Starts after posting {@code after}, typically the newest id the client
+     * listed. Event ids are stream positions rather than posting ids; browsers reconnect with the
+     * last one as Last-Event-ID, which takes precedence.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                             @RequestParam(required = false) Long after) throws IOException {
+        SseEmitter emitter = events.subscribe(lastEventId, after);
+        if(emitter==null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        // nginx would otherwise buffer the stream
+        return ResponseEntity.ok().header("Cache-Control", "no-cache").header("X-Accel-Buffering", "no").body(emitter);
+    }
+    @GetMapping("/search")
+    public Map<String,Object> search(@RequestParam String q, @RequestParam(defaultValue="20") int limit) throws IOException {
+        return searchIndex.search(q, Math.max(1, Math.min(limit, 100)));
     }
     @GetMapping("/{id}")
     public ResponseEntity<JobPosting> get(@PathVariable Long id) {
-        return repo.findById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        return repo.findById(id).map(j -> {
+            j.setDescription(descriptions.load(id));
+            return ResponseEntity.ok(j);
+        }).orElse(ResponseEntity.notFound().build());
+    }
+    /** The open postings clustered with this one as near-duplicates, canonical first. */
+    @GetMapping("/{id}/duplicates")
+    public ResponseEntity<List<JobSummary>> duplicates(@PathVariable Long id) {
+        return repo.findById(id)
+                .map(j -> ResponseEntity.ok(repo.findCluster(j.getCanonicalId()!=null ? j.getCanonicalId() : j.getId())))
+                .orElse(ResponseEntity.notFound().build());
     }
     @PostMapping
     public JobPosting create(@RequestBody JobPosting job) {
-        return repo.save(job);
+        if(job.getUrl()!=null && !job.getUrl().isBlank()) job.setUrlKey(PostingDedupIndex.urlKey(job.getUrl()));
+        // the change feed is what indexes it, on this node as on the others
+        job.setChangedAt(Instant.now());
+        JobPosting saved = repo.save(job);
+        descriptions.store(saved);
+        return saved;
+    }
+    private static JobQueryService.Filter filter(Long before, String source, String company, Instant from, Instant to, boolean includeClosed) {
+        JobQueryService.Filter f = new JobQueryService.Filter();
+        f.before = before; f.source = source; f.company = company; f.from = from; f.to = to; f.includeClosed = includeClosed;
+        return f;
     }
 }
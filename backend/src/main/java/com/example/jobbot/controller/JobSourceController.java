@@ -1,12 +1,17 @@
 package com.example.jobbot.controller;
-import com.example.jobbot.model.JobSource; import com.example.jobbot.repository.JobSourceRepository; import com.example.jobbot.service.ScraperService;
-import org.springframework.web.bind.annotation.*; import java.util.List;
+import com.example.jobbot.model.JobSource; import com.example.jobbot.model.ScrapeRequest; import com.example.jobbot.repository.JobSourceRepository; import com.example.jobbot.service.ScrapeQueue;
+import com.example.jobbot.repository.SourceFetchStateRepository; import com.example.jobbot.service.ScrapeMetrics; import com.example.jobbot.service.ScrapeRun;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*; import java.net.URI; import java.util.LinkedHashMap; import java.util.List; import java.util.Map;
 @RestController @RequestMapping("/api/sources")
 public class JobSourceController {
-    private final JobSourceRepository repo; private final ScraperService scraper;
-    public JobSourceController(JobSourceRepository repo, ScraperService scraper) {
+    private final JobSourceRepository repo; private final ScrapeQueue queue;
+    private final ScrapeMetrics metrics; private final SourceFetchStateRepository fetchStates;
+    public JobSourceController(JobSourceRepository repo, ScrapeQueue queue, ScrapeMetrics metrics, SourceFetchStateRepository fetchStates) {
         this.repo = repo;
-        this.scraper = scraper;
+        this.queue = queue;
+        this.metrics = metrics;
+        this.fetchStates = fetchStates;
     }
     @GetMapping public List<JobSource> list() {
         return repo.findAll();
@@ -14,14 +19,51 @@ public class JobSourceController {
     @PostMapping public JobSource create(@RequestBody JobSource s) {
         return repo.save(s);
     }
-    @PostMapping("/scrape/{id}") public String scrape(@PathVariable Long id) {
-        return repo.findById(id).map(s->{
-            try {
-                scraper.scrapeSource(s);
-                return "ok";
-        } catch(Exception e) {
-                return "error: " + e.getMessage();
-            }
-        }).orElse("not found");
+    /** Recent runs of one source (since startup, newest first) with a summary and its conditional-fetch state. */
+    @GetMapping("/{id}/stats") public ResponseEntity<Map<String, Object>> stats(@PathVariable Long id) {
+        return repo.findById(id).map(s -> {
+            List<ScrapeRun> runs = metrics.recentRuns(id);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("source", s);
+            body.put("summary", metrics.summary(runs));
+            fetchStates.findBySourceId(id).ifPresent(st -> {
+                Map<String, Object> fetch = new LinkedHashMap<>();
+                fetch.put("lastStatus", st.getLastStatus());
+                fetch.put("lastFetchedAt", st.getLastFetchedAt());
+                fetch.put("lastChangedAt", st.getLastChangedAt());
+                fetch.put("etag", st.getEtag());
+                fetch.put("lastModified", st.getLastModified());
+                body.put("fetchState", fetch);
+            });
+            body.put("runs", runs);
+            return ResponseEntity.ok(body);
+        }).orElse(ResponseEntity.notFound().build());
+    }
+    /** Queues a scrape and answers 202 right away; poll the Location for the outcome. */
+    @PostMapping("/scrape/{id}") public ResponseEntity<Map<String, Object>> scrape(@PathVariable Long id) {
+        if(!repo.existsById(id)) return ResponseEntity.notFound().build();
+        ScrapeQueue.Enqueued e = queue.enqueue(id);
+        Map<String, Object> body = job(e.request());
+        body.put("coalesced", e.coalesced());
+        return ResponseEntity.accepted().location(URI.create("/api/sources/scrape-jobs/" + e.request().getId())).body(body);
+    }
+    @GetMapping("/scrape-jobs/{jobId}") public ResponseEntity<Map<String, Object>> scrapeJob(@PathVariable Long jobId) {
+        return queue.get(jobId).map(r -> ResponseEntity.ok(job(r))).orElse(ResponseEntity.notFound().build());
+    }
+    private Map<String, Object> job(ScrapeRequest r) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("jobId", r.getId());
+        m.put("sourceId", r.getSourceId());
+        m.put("status", r.getStatus());
+        m.put("queuePosition", queue.position(r));
+        m.put("requestedAt", r.getRequestedAt());
+        m.put("startedAt", r.getStartedAt());
+        m.put("finishedAt", r.getFinishedAt());
+        m.put("inserted", r.getInserted());
+        m.put("skipped", r.getSkipped());
+        m.put("updated", r.getUpdated());
+        m.put("closed", r.getClosed());
+        m.put("error", r.getError());
+        return m;
     }
 }
@@ -1,43 +1,48 @@
 package com.example.jobbot.controller;
-import com.example.jobbot.model.Profile; import com.example.jobbot.model.User;
-import com.example.jobbot.repository.ProfileRepository; import com.example.jobbot.repository.UserRepository;
-import com.fasterxml.jackson.databind.ObjectMapper; import org.springframework.web.bind.annotation.*;
+import com.example.jobbot.model.Profile;
+import com.example.jobbot.model.JobSummary;
+import com.example.jobbot.repository.JobPostingRepository;
+import com.example.jobbot.repository.ProfileRepository;
+import com.example.jobbot.service.AuthCache; import com.example.jobbot.service.ProfilePayloads; import com.example.jobbot.service.TtlLruCache;
+import com.example.jobbot.service.PostingVectorIndex; import com.example.jobbot.service.TopK;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus; import org.springframework.http.MediaType; import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
 import java.util.*;
 @RestController
 @RequestMapping("/api/profiles")
 public class ProfileController {
     private final ProfileRepository profileRepo;
-    private final UserRepository userRepo;
+    private final AuthCache authCache;
+    private final JobPostingRepository jobRepo;
+    private final PostingVectorIndex matchIndex;
     private final ObjectMapper mapper = new ObjectMapper();
-    public ProfileController(ProfileRepository profileRepo, UserRepository userRepo) {
-        this.profileRepo = profileRepo; this.userRepo = userRepo;
+    private final ProfilePayloads payloads;
+    private final TtlLruCache<Long, ProfilePayloads.Payload> currentByUser;
+    public ProfileController(ProfileRepository profileRepo, AuthCache authCache, JobPostingRepository jobRepo, PostingVectorIndex matchIndex,
+                             ProfilePayloads payloads,
+                             @Value("${jobbot.profile.cache.max-entries:10000}") int cacheEntries,
+                             @Value("${jobbot.profile.cache.ttl-seconds:600}") long cacheTtlSeconds) {
+        this.profileRepo = profileRepo; this.authCache = authCache;
+        this.jobRepo = jobRepo; this.matchIndex = matchIndex; this.payloads = payloads;
+        this.currentByUser = new TtlLruCache<>(cacheEntries, cacheTtlSeconds * 1000);
     }
-    private Optional<User> userForToken(String auth) {
-        if(auth==null||!auth.startsWith("Bearer ")) return Optional.empty();
-        String token = auth.substring(7); return userRepo.findByToken(token);
+    private Optional<Long> userForToken(String auth) {
+        return authCache.userIdForHeader(auth);
     }
     @GetMapping
-    public Object list(@RequestHeader(value="Authorization", required=false) String auth) {
-        Optional<User> u = userForToken(auth);
-        if(u.isEmpty()) return Map.of("error","unauthorized");
-        List<Profile> profiles = profileRepo.findByUserId(u.get().getId());
-        List<Map<String,Object>> out = new ArrayList<>();
-        for(Profile p : profiles) {
-            Map<String,Object> m = new HashMap<>(); m.put("id", p.getId()); m.put("name", p.getName()); m.put("email", p.getEmail()); m.put("phone", p.getPhone()); m.put("location", p.getLocation());
-            try {
-                m.put("links", p.getLinksJson()==null? Map.of() : mapper.readValue(p.getLinksJson(), Map.class));
-            } catch(Exception e) {
-                m.put("links", Map.of());
-            }
-            m.put("resumeText", p.getResumeText()); out.add(m);
-        }
-        return out;
+    public ResponseEntity<?> list(@RequestHeader(value="Authorization", required=false) String auth,
+                                  @RequestHeader(value="If-None-Match", required=false) String ifNoneMatch) {
+        Optional<Long> u = userForToken(auth);
+        if(u.isEmpty()) return ResponseEntity.ok(Map.of("error","unauthorized"));
+        return respond(payloads.arrayOf(profileRepo.findByUserId(u.get())), ifNoneMatch);
     }
     @PostMapping
     public Object create(@RequestHeader(value="Authorization", required=false) String auth, @RequestBody Map<String,Object> body) {
-        Optional<User> u = userForToken(auth);
+        Optional<Long> u = userForToken(auth);
         if(u.isEmpty()) return Map.of("error","unauthorized");
-        Profile p = new Profile(); p.setUserId(u.get().getId());
+        Profile p = new Profile(); p.setUserId(u.get());
         p.setName((String)body.getOrDefault("name",""));
         p.setEmail((String)body.getOrDefault("email",""));
         p.setPhone((String)body.getOrDefault("phone",""));
@@ -49,16 +54,19 @@ public class ProfileController {
         }
         p.setResumeText((String)body.getOrDefault("resumeText",""));
         profileRepo.save(p);
+        payloads.render(p);
+        profileRepo.save(p);
+        currentByUser.invalidate(u.get());
         return Map.of("ok", true, "id", p.getId());
     }
     @PutMapping("/{id}")
     public Object update(@RequestHeader(value="Authorization", required=false) String auth, @PathVariable Long id, @RequestBody Map<String,Object> body) {
-        Optional<User> u = userForToken(auth);
+        Optional<Long> u = userForToken(auth);
         if(u.isEmpty()) return Map.of("error","unauthorized");
         Optional<Profile> po = profileRepo.findById(id);
         if(po.isEmpty()) return Map.of("error","not found");
         Profile p = po.get();
-        if(!p.getUserId().equals(u.get().getId())) return Map.of("error","forbidden");
+        if(!p.getUserId().equals(u.get())) return Map.of("error","forbidden");
         p.setName((String)body.getOrDefault("name",p.getName()));
         p.setEmail((String)body.getOrDefault("email",p.getEmail()));
         p.setPhone((String)body.getOrDefault("phone",p.getPhone()));
@@ -67,35 +75,59 @@ public class ProfileController {
             p.setLinksJson(mapper.writeValueAsString(body.getOrDefault("links", Map.of())));
         } catch(Exception e) {}
         p.setResumeText((String)body.getOrDefault("resumeText",p.getResumeText()));
-        profileRepo.save(p); return Map.of("ok", true);
+        payloads.render(p);
+        profileRepo.save(p); currentByUser.invalidate(u.get()); return Map.of("ok", true);
     }
     @DeleteMapping("/{id}")
     public Object delete(@RequestHeader(value="Authorization", required=false) String auth, @PathVariable Long id) {
-        Optional<User> u = userForToken(auth);
+        Optional<Long> u = userForToken(auth);
         if(u.isEmpty()) return Map.of("error","unauthorized");
         Optional<Profile> po = profileRepo.findById(id);
         if(po.isEmpty()) return Map.of("error","not found");
         Profile p = po.get();
-        if(!p.getUserId().equals(u.get().getId())) return Map.of("error","forbidden");
-        profileRepo.delete(p); return Map.of("ok", true);
+        if(!p.getUserId().equals(u.get())) return Map.of("error","forbidden");
+        profileRepo.delete(p); currentByUser.invalidate(u.get()); matchIndex.evictProfile(id); return Map.of("ok", true);
     }
-    @GetMapping("/current")
-    public Object current(@RequestHeader(value="Authorization", required=false) String auth) {
-        Optional<User> u = userForToken(auth);
+    @GetMapping("/{id}/matches")
+    public Object matches(@RequestHeader(value="Authorization", required=false) String auth, @PathVariable Long id,
+                          @RequestParam(defaultValue="50") int limit) {
+        Optional<Long> u = userForToken(auth);
         if(u.isEmpty()) return Map.of("error","unauthorized");
-        List<Profile> profiles = profileRepo.findByUserId(u.get().getId());
-        if(profiles.isEmpty()) return Map.of(); Profile p = profiles.get(0);
-        Map<String,Object> m = new HashMap<>();
-        m.put("name", p.getName());
-        m.put("email", p.getEmail());
-        m.put("phone", p.getPhone());
-        m.put("location", p.getLocation());
-        try {
-            m.put("links", p.getLinksJson()==null? Map.of() : mapper.readValue(p.getLinksJson(), Map.class));
-        } catch(Exception e) {
-            m.put("links", Map.of());
+        Optional<Profile> po = profileRepo.findById(id);
+        if(po.isEmpty()) return Map.of("error","not found");
+        Profile p = po.get();
+        if(!p.getUserId().equals(u.get())) return Map.of("error","forbidden");
+        TopK top = matchIndex.topMatches(p.getId(), p.getResumeText(), Math.max(1, Math.min(limit, 200)));
+        long[] ids = top.ids(); float[] scores = top.scores();
+        Map<Long, JobSummary> byId = new HashMap<>();
+        List<Long> idList = new ArrayList<>();
+        for(long jid : ids) idList.add(jid);
+        for(JobSummary js : jobRepo.findSummariesByIdIn(idList)) byId.put(js.getId(), js);
+        List<Map<String,Object>> out = new ArrayList<>();
+        for(int i = 0; i < ids.length; i++) {
+            JobSummary js = byId.get(ids[i]);
+            if(js==null) continue;
+            Map<String,Object> m = new LinkedHashMap<>();
+            m.put("id", js.getId()); m.put("title", js.getTitle()); m.put("company", js.getCompany()); m.put("url", js.getUrl()); m.put("score", scores[i]);
+            out.add(m);
+        }
+        return out;
+    }
+    @GetMapping("/current")
+    public ResponseEntity<?> current(@RequestHeader(value="Authorization", required=false) String auth,
+                                     @RequestHeader(value="If-None-Match", required=false) String ifNoneMatch) {
+        Optional<Long> u = userForToken(auth);
+        if(u.isEmpty()) return ResponseEntity.ok(Map.of("error","unauthorized"));
+        return respond(currentByUser.computeIfAbsent(u.get(), this::loadCurrent), ifNoneMatch);
+    }
+    private ProfilePayloads.Payload loadCurrent(Long userId) {
+        List<Profile> profiles = profileRepo.findByUserId(userId);
+        return profiles.isEmpty() ? ProfilePayloads.EMPTY : payloads.of(profiles.get(0));
+    }
+    private static ResponseEntity<?> respond(ProfilePayloads.Payload payload, String ifNoneMatch) {
+        if(ifNoneMatch!=null && ifNoneMatch.contains(payload.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(payload.getEtag()).build();
         }
-        m.put("resumeText", p.getResumeText());
-        return m;
+        return ResponseEntity.ok().eTag(payload.getEtag()).contentType(MediaType.APPLICATION_JSON).body(payload.getBody());
     }
 }
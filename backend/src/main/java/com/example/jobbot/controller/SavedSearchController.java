@@ -0,0 +1,104 @@
+package com.example.jobbot.controller;
+import com.example.jobbot.model.JobSummary;
+import com.example.jobbot.model.Profile;
+import com.example.jobbot.model.SavedSearch;
+import com.example.jobbot.model.SearchAlert;
+import com.example.jobbot.repository.JobPostingRepository;
+import com.example.jobbot.repository.ProfileRepository;
+import com.example.jobbot.repository.SavedSearchRepository;
+import com.example.jobbot.repository.SearchAlertRepository;
+import com.example.jobbot.service.AuthCache;
+import com.example.jobbot.service.SavedSearchAlerts;
+import com.example.jobbot.service.SearchMatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.bind.annotation.*;
+import java.time.Instant;
+import java.util.*;
+/**
+ * Saved searches and the alert queue they feed. Alerts come back oldest first and stay pending
+ * until acknowledged with the id of the last one handled.
+ */
+@RestController
+@RequestMapping("/api/searches")
+public class SavedSearchController {
+    private final SavedSearchRepository searches;
+    private final SearchAlertRepository alerts;
+    private final ProfileRepository profiles;
+    private final JobPostingRepository jobRepo;
+    private final SavedSearchAlerts alertService;
+    private final AuthCache authCache;
+    private final int maxPerUser;
+    private final int maxKeywords;
+    public SavedSearchController(SavedSearchRepository searches, SearchAlertRepository alerts, ProfileRepository profiles,
+                                 JobPostingRepository jobRepo, SavedSearchAlerts alertService, AuthCache authCache,
+                                 @Value("${jobbot.alerts.max-searches-per-user:50}") int maxPerUser,
+                                 @Value("${jobbot.alerts.max-keywords:10}") int maxKeywords) {
+        this.searches = searches; this.alerts = alerts; this.profiles = profiles; this.jobRepo = jobRepo;
+        this.alertService = alertService; this.authCache = authCache;
+        this.maxPerUser = maxPerUser; this.maxKeywords = maxKeywords;
+    }
+    @GetMapping
+    public Object list(@RequestHeader(value="Authorization", required=false) String auth) {
+        Optional<Long> u = authCache.userIdForHeader(auth);
+        if(u.isEmpty()) return Map.of("error","unauthorized");
+        return searches.findByUserIdOrderByIdDesc(u.get());
+    }
+    @PostMapping
+    public Object create(@RequestHeader(value="Authorization", required=false) String auth, @RequestBody Map<String,Object> body) {
+        Optional<Long> u = authCache.userIdForHeader(auth);
+        if(u.isEmpty()) return Map.of("error","unauthorized");
+        String query = blankToNull(body.get("query")), source = blankToNull(body.get("source")), company = blankToNull(body.get("company"));
+        int keywords = SearchMatcher.keywords(query).size();
+        if(keywords==0 && source==null && company==null) return Map.of("error","query, source or company required");
+        if(keywords > maxKeywords) return Map.of("error","at most " + maxKeywords + " keywords");
+        if(searches.countByUserId(u.get()) >= maxPerUser) return Map.of("error","at most " + maxPerUser + " saved searches");
+        SavedSearch s = new SavedSearch();
+        s.setUserId(u.get());
+        if(body.get("profileId") instanceof Number n) {
+            Optional<Profile> p = profiles.findById(n.longValue());
+            if(p.isEmpty() || !p.get().getUserId().equals(u.get())) return Map.of("error","profile not found");
+            s.setProfileId(n.longValue());
+        }
+        s.setName(Objects.requireNonNullElse(blankToNull(body.get("name")), Objects.requireNonNullElse(query, "")));
+        s.setQuery(query); s.setSource(source); s.setCompany(company);
+        s.setCreatedAt(Instant.now());
+        alertService.save(s);
+        return Map.of("ok", true, "id", s.getId());
+    }
+    @DeleteMapping("/{id}")
+    public Object delete(@RequestHeader(value="Authorization", required=false) String auth, @PathVariable Long id) {
+        Optional<Long> u = authCache.userIdForHeader(auth);
+        if(u.isEmpty()) return Map.of("error","unauthorized");
+        Optional<SavedSearch> so = searches.findById(id);
+        if(so.isEmpty()) return Map.of("error","not found");
+        if(!so.get().getUserId().equals(u.get())) return Map.of("error","forbidden");
+        alertService.delete(so.get());
+        return Map.of("ok", true);
+    }
+    @GetMapping("/alerts")
+    public Object pending(@RequestHeader(value="Authorization", required=false) String auth, @RequestParam(defaultValue="50") int limit) {
+        Optional<Long> u = authCache.userIdForHeader(auth);
+        if(u.isEmpty()) return Map.of("error","unauthorized");
+        List<SearchAlert> page = alerts.findPending(u.get(), PageRequest.of(0, Math.max(1, Math.min(limit, 200))));
+        Map<Long, JobSummary> jobs = new HashMap<>();
+        for(JobSummary js : jobRepo.findSummariesByIdIn(page.stream().map(SearchAlert::getPostingId).toList())) jobs.put(js.getId(), js);
+        List<Map<String,Object>> items = new ArrayList<>();
+        for(SearchAlert a : page) {
+            Map<String,Object> m = new LinkedHashMap<>();
+            m.put("id", a.getId()); m.put("searchId", a.getSearchId()); m.put("createdAt", a.getCreatedAt());
+            m.put("job", jobs.get(a.getPostingId()));
+            items.add(m);
+        }
+        return Map.of("items", items, "pending", alerts.countByUserIdAndDeliveredAtIsNull(u.get()));
+    }
+    @PostMapping("/alerts/ack")
+    public Object acknowledge(@RequestHeader(value="Authorization", required=false) String auth, @RequestParam Long upTo) {
+        Optional<Long> u = authCache.userIdForHeader(auth);
+        if(u.isEmpty()) return Map.of("error","unauthorized");
+        return Map.of("ok", true, "acknowledged", alertService.acknowledge(u.get(), upTo));
+    }
+    private static String blankToNull(Object value) {
+        return value instanceof String s && !s.isBlank() ? s.trim() : null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.jobbot.model;
+import jakarta.persistence.*;
+import java.time.Instant;
+/**
+ * Which node syncs a host's sources, plus the host's politeness state shared by every node;
+ * managed by {@code HostLeases}.
+ */
+@Entity
+@Table(indexes = @Index(name = "ix_host_lease_owner", columnList = "owner"))
+public class HostLease {
+    @Id @Column(length = 255)
+    private String host;
+    @Column(length = 128) private String owner;
+    private Instant expiresAt;
+    /** When the scheduler last finished syncing the host, on whichever node. */
+    private Instant lastRunAt;
+    /** Epoch ms from which the next request to the host may start; moved on under the row lock. */
+    private long nextSlotMillis;
+    /** robots.txt Crawl-delay in ms, or -1 when the host has none. */
+    private long crawlDelayMs = -1;
+    public HostLease() {}
+    public HostLease(String host) { this.host = host; }
+    public String getHost() { return host;} public void setHost(String host) { this.host = host;}
+    public String getOwner() { return owner;} public void setOwner(String owner) { this.owner = owner;}
+    public Instant getExpiresAt() { return expiresAt;} public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt;}
+    public Instant getLastRunAt() { return lastRunAt;} public void setLastRunAt(Instant lastRunAt) { this.lastRunAt = lastRunAt;}
+    public long getNextSlotMillis() { return nextSlotMillis;} public void setNextSlotMillis(long nextSlotMillis) { this.nextSlotMillis = nextSlotMillis;}
+    public long getCrawlDelayMs() { return crawlDelayMs;} public void setCrawlDelayMs(long crawlDelayMs) { this.crawlDelayMs = crawlDelayMs;}
+}
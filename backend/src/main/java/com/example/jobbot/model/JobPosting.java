@@ -2,14 +2,40 @@ package com.example.jobbot.model;
 import jakarta.persistence.*;
 import java.time.Instant;
 @Entity
+@Table(indexes = {
+        @Index(name = "ux_job_posting_url_key", columnList = "urlKey", unique = true),
+        @Index(name = "ix_job_posting_id_desc", columnList = "id desc"),
+        @Index(name = "ix_job_posting_source", columnList = "source, id desc"),
+        @Index(name = "ix_job_posting_fetched_at", columnList = "fetchedAt desc, id desc"),
+        @Index(name = "ix_job_posting_company_key", columnList = "companyKey, id desc"),
+        @Index(name = "ix_job_posting_source_id", columnList = "sourceId, closedAt"),
+        @Index(name = "ix_job_posting_canonical", columnList = "canonicalId"),
+        @Index(name = "ix_job_posting_changed_at", columnList = "changedAt")
+})
 public class JobPosting {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_posting_seq")
+    @SequenceGenerator(name = "job_posting_seq", sequenceName = "job_posting_seq", allocationSize = 50)
     private Long id;
-    private String source; private String title; private String company; private String location;
-    @Column(columnDefinition = "text") private String description;
+    private String source; private String title; private String company; private String location; private String department;
+    /** {@code lower(company)}, generated by the database for the company filter's index; never written. */
+    @Column(insertable = false, updatable = false) private String companyKey;
+    /** Stored compressed in {@code posting_description} and only loaded when asked for; see {@code PostingDescriptions}. */
+    @Transient private String description;
     private String url;
+    @Column(length = 2048) private String urlKey;
     private Instant postedAt;
     private Instant fetchedAt;
+    private Long sourceId;
+    /** Fingerprint of title, company, location, department and description; see {@code PostingBatch}. */
+    private Long contentHash;
+    private Instant lastSeenAt;
+    /** Set when the posting drops out of its source's full listing; cleared if it comes back. */
+    private Instant closedAt;
+    /** Last insert, content change, close or reopen; unlike {@code lastSeenAt} it stays put while the posting does. */
+    private Instant changedAt;
+    /** Lowest id of the near-duplicate cluster this posting belongs to; null when it is that posting or has none. */
+    private Long canonicalId;
     public Long getId() { return id;}
     public void setId(Long id) { this.id = id;}
     public String getSource() { return source;}
@@ -20,12 +46,28 @@ public class JobPosting {
     public void setCompany(String company) { this.company = company;}
     public String getLocation() { return location;}
     public void setLocation(String location) { this.location = location;}
+    public String getDepartment() { return department;}
+    public void setDepartment(String department) { this.department = department;}
     public String getDescription() { return description;}
     public void setDescription(String description) { this.description = description;}
     public String getUrl() { return url;}
     public void setUrl(String url) { this.url = url;}
+    public String getUrlKey() { return urlKey;}
+    public void setUrlKey(String urlKey) { this.urlKey = urlKey;}
     public Instant getPostedAt() { return postedAt;}
     public void setPostedAt(Instant postedAt) { this.postedAt = postedAt;}
     public Instant getFetchedAt() { return fetchedAt;}
     public void setFetchedAt(Instant fetchedAt) { this.fetchedAt = fetchedAt;}
+    public Long getSourceId() { return sourceId;}
+    public void setSourceId(Long sourceId) { this.sourceId = sourceId;}
+    public Long getContentHash() { return contentHash;}
+    public void setContentHash(Long contentHash) { this.contentHash = contentHash;}
+    public Instant getLastSeenAt() { return lastSeenAt;}
+    public void setLastSeenAt(Instant lastSeenAt) { this.lastSeenAt = lastSeenAt;}
+    public Instant getClosedAt() { return closedAt;}
+    public void setClosedAt(Instant closedAt) { this.closedAt = closedAt;}
+    public Instant getChangedAt() { return changedAt;}
+    public void setChangedAt(Instant changedAt) { this.changedAt = changedAt;}
+    public Long getCanonicalId() { return canonicalId;}
+    public void setCanonicalId(Long canonicalId) { this.canonicalId = canonicalId;}
 }
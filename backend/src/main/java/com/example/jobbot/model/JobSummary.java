@@ -0,0 +1,22 @@
+package com.example.jobbot.model;
+import java.time.Instant;
+/** List-view projection of {@link JobPosting} without the description column. */
+public class JobSummary {
+    private final Long id;
+    private final String source; private final String title; private final String company; private final String location;
+    private final String url;
+    private final Instant postedAt;
+    private final Instant fetchedAt;
+    public JobSummary(Long id, String source, String title, String company, String location, String url, Instant postedAt, Instant fetchedAt) {
+        this.id = id; this.source = source; this.title = title; this.company = company; this.location = location;
+        this.url = url; this.postedAt = postedAt; this.fetchedAt = fetchedAt;
+    }
+    public Long getId() { return id;}
+    public String getSource() { return source;}
+    public String getTitle() { return title;}
+    public String getCompany() { return company;}
+    public String getLocation() { return location;}
+    public String getUrl() { return url;}
+    public Instant getPostedAt() { return postedAt;}
+    public Instant getFetchedAt() { return fetchedAt;}
+}
@@ -0,0 +1,20 @@
+package com.example.jobbot.model;
+import jakarta.persistence.*;
+/**
+ * A posting's description, kept out of the {@code job_posting} row that list views and scans
+ * read. The body is raw Deflate of the UTF-8 text; see {@code PostingDescriptions}.
+ */
+@Entity
+public class PostingDescription {
+    @Id
+    private Long postingId;
+    @Column(columnDefinition = "varbinary")
+    private byte[] body;
+    public PostingDescription() {}
+    public PostingDescription(Long postingId, byte[] body) {
+        this.postingId = postingId;
+        this.body = body;
+    }
+    public Long getPostingId() { return postingId;} public void setPostingId(Long postingId) { this.postingId = postingId;}
+    public byte[] getBody() { return body;} public void setBody(byte[] body) { this.body = body;}
+}
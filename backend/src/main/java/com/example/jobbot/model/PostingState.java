@@ -0,0 +1,4 @@
+package com.example.jobbot.model;
+import java.time.Instant;
+/** What the writer needs to know about a stored posting to decide between skip, touch and update. */
+public record PostingState(Long id, String urlKey, Long sourceId, Long contentHash, Instant lastSeenAt, Instant closedAt) {}
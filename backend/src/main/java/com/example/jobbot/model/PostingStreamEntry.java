@@ -0,0 +1,20 @@
+package com.example.jobbot.model;
+import jakarta.persistence.*;
+/**
+ * A posting's position in the new-postings stream. Positions follow commit order, which posting
+ * ids don't; see {@code PostingEventBus}.
+ */
+@Entity
+@Table(indexes = @Index(name = "ux_posting_stream_entry_posting", columnList = "postingId", unique = true))
+public class PostingStreamEntry {
+    @Id
+    private Long seq;
+    private Long postingId;
+    public PostingStreamEntry() {}
+    public PostingStreamEntry(Long seq, Long postingId) {
+        this.seq = seq;
+        this.postingId = postingId;
+    }
+    public Long getSeq() { return seq;} public void setSeq(Long seq) { this.seq = seq;}
+    public Long getPostingId() { return postingId;} public void setPostingId(Long postingId) { this.postingId = postingId;}
+}
@@ -13,6 +13,9 @@ public class Profile {
     private String linksJson;
     @Column(columnDefinition = "text")
     private String resumeText;
+    @Column(columnDefinition = "text")
+    private String payloadJson;
+    private String payloadEtag;
     public Long getId() {
         return id;
     } 
@@ -60,4 +63,16 @@ public class Profile {
     public void setResumeText(String resumeText) {
         this.resumeText = resumeText;
     }
+    public String getPayloadJson() {
+        return payloadJson;
+    }
+    public void setPayloadJson(String payloadJson) {
+        this.payloadJson = payloadJson;
+    }
+    public String getPayloadEtag() {
+        return payloadEtag;
+    }
+    public void setPayloadEtag(String payloadEtag) {
+        this.payloadEtag = payloadEtag;
+    }
 }
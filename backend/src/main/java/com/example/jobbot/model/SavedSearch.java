@@ -0,0 +1,34 @@
+package com.example.jobbot.model;
+import jakarta.persistence.*;
+import java.time.Instant;
+/**
+ * A user's standing query: every keyword (or quoted phrase) must appear as whole words in a new
+ * posting's title, company, location or department, and source/company must match when set.
+ */
+@Entity
+@Table(indexes = @Index(name = "ix_saved_search_user", columnList = "userId"))
+public class SavedSearch {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long userId;
+    /** Optional profile the search was saved from. */
+    private Long profileId;
+    private String name;
+    @Column(length = 512) private String query;
+    private String source;
+    private String company;
+    private Instant createdAt;
+    /** Set on every insert and update, so nodes can tell that their compiled matcher is stale. */
+    private Instant updatedAt;
+    @PrePersist @PreUpdate
+    void touch() { updatedAt = Instant.now(); }
+    public Long getId() { return id;} public void setId(Long id) { this.id = id;}
+    public Long getUserId() { return userId;} public void setUserId(Long userId) { this.userId = userId;}
+    public Long getProfileId() { return profileId;} public void setProfileId(Long profileId) { this.profileId = profileId;}
+    public String getName() { return name;} public void setName(String name) { this.name = name;}
+    public String getQuery() { return query;} public void setQuery(String query) { this.query = query;}
+    public String getSource() { return source;} public void setSource(String source) { this.source = source;}
+    public String getCompany() { return company;} public void setCompany(String company) { this.company = company;}
+    public Instant getCreatedAt() { return createdAt;} public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt;}
+    public Instant getUpdatedAt() { return updatedAt;} public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt;}
+}
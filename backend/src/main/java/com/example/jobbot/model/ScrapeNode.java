@@ -0,0 +1,17 @@
+package com.example.jobbot.model;
+import jakarta.persistence.*;
+import java.time.Instant;
+/** A running backend replica; alive while its heartbeat is younger than the lease TTL. */
+@Entity
+public class ScrapeNode {
+    @Id @Column(length = 128)
+    private String nodeId;
+    private Instant heartbeatAt;
+    public ScrapeNode() {}
+    public ScrapeNode(String nodeId, Instant heartbeatAt) {
+        this.nodeId = nodeId;
+        this.heartbeatAt = heartbeatAt;
+    }
+    public String getNodeId() { return nodeId;} public void setNodeId(String nodeId) { this.nodeId = nodeId;}
+    public Instant getHeartbeatAt() { return heartbeatAt;} public void setHeartbeatAt(Instant heartbeatAt) { this.heartbeatAt = heartbeatAt;}
+}
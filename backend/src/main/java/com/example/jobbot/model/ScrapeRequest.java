@@ -0,0 +1,41 @@
+package com.example.jobbot.model;
+import jakarta.persistence.*;
+import java.time.Instant;
+/** A queued or finished on-demand scrape of one source; drained by {@code ScrapeQueue}. */
+@Entity
+@Table(indexes = {
+        @Index(name = "ix_scrape_request_status", columnList = "status"),
+        @Index(name = "ix_scrape_request_source", columnList = "sourceId")
+})
+public class ScrapeRequest {
+    public static final String QUEUED = "QUEUED", RUNNING = "RUNNING", DONE = "DONE", FAILED = "FAILED";
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long sourceId;
+    @Column(length = 16) private String status;
+    /** How many later requests for the same source were folded into this one. */
+    private int coalesced;
+    private Instant requestedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Integer inserted;
+    private Integer skipped;
+    private Integer updated;
+    private Integer closed;
+    @Column(length = 1000) private String error;
+    /** Node that claimed the request; see {@code HostLeases}. */
+    @Column(length = 128) private String claimedBy;
+    public Long getId() { return id;} public void setId(Long id) { this.id = id;}
+    public Long getSourceId() { return sourceId;} public void setSourceId(Long sourceId) { this.sourceId = sourceId;}
+    public String getStatus() { return status;} public void setStatus(String status) { this.status = status;}
+    public int getCoalesced() { return coalesced;} public void setCoalesced(int coalesced) { this.coalesced = coalesced;}
+    public Instant getRequestedAt() { return requestedAt;} public void setRequestedAt(Instant requestedAt) { this.requestedAt = requestedAt;}
+    public Instant getStartedAt() { return startedAt;} public void setStartedAt(Instant startedAt) { this.startedAt = startedAt;}
+    public Instant getFinishedAt() { return finishedAt;} public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt;}
+    public Integer getInserted() { return inserted;} public void setInserted(Integer inserted) { this.inserted = inserted;}
+    public Integer getSkipped() { return skipped;} public void setSkipped(Integer skipped) { this.skipped = skipped;}
+    public Integer getUpdated() { return updated;} public void setUpdated(Integer updated) { this.updated = updated;}
+    public Integer getClosed() { return closed;} public void setClosed(Integer closed) { this.closed = closed;}
+    public String getError() { return error;} public void setError(String error) { this.error = error;}
+    public String getClaimedBy() { return claimedBy;} public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy;}
+}
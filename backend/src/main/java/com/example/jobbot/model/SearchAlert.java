@@ -0,0 +1,31 @@
+package com.example.jobbot.model;
+import jakarta.persistence.*;
+import java.time.Instant;
+/** A new posting that matched a saved search; pending until the user acknowledges it. */
+@Entity
+@Table(indexes = {
+        @Index(name = "ux_search_alert_search_posting", columnList = "searchId, postingId", unique = true),
+        @Index(name = "ix_search_alert_user", columnList = "userId, deliveredAt")
+})
+public class SearchAlert {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long searchId;
+    private Long userId;
+    private Long postingId;
+    private Instant createdAt;
+    private Instant deliveredAt;
+    public SearchAlert() {}
+    public SearchAlert(Long searchId, Long userId, Long postingId, Instant createdAt) {
+        this.searchId = searchId;
+        this.userId = userId;
+        this.postingId = postingId;
+        this.createdAt = createdAt;
+    }
+    public Long getId() { return id;} public void setId(Long id) { this.id = id;}
+    public Long getSearchId() { return searchId;} public void setSearchId(Long searchId) { this.searchId = searchId;}
+    public Long getUserId() { return userId;} public void setUserId(Long userId) { this.userId = userId;}
+    public Long getPostingId() { return postingId;} public void setPostingId(Long postingId) { this.postingId = postingId;}
+    public Instant getCreatedAt() { return createdAt;} public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt;}
+    public Instant getDeliveredAt() { return deliveredAt;} public void setDeliveredAt(Instant deliveredAt) { this.deliveredAt = deliveredAt;}
+}
@@ -0,0 +1,27 @@
+package com.example.jobbot.model;
+import jakarta.persistence.*;
+import java.time.Instant;
+@Entity
+public class SourceFetchState {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(unique = true)
+    private Long sourceId;
+    @Column(length = 512) private String etag;
+    private String lastModified;
+    private String contentHash;
+    private Integer lastStatus;
+    private Instant lastFetchedAt;
+    private Instant lastChangedAt;
+    /** JSON object of external posting id to version, as of the last successful API sync. */
+    @Column(columnDefinition = "text") private String seenPostings;
+    public Long getId() { return id;} public void setId(Long id) { this.id = id;}
+    public Long getSourceId() { return sourceId;} public void setSourceId(Long sourceId) { this.sourceId = sourceId;}
+    public String getEtag() { return etag;} public void setEtag(String etag) { this.etag = etag;}
+    public String getLastModified() { return lastModified;} public void setLastModified(String lastModified) { this.lastModified = lastModified;}
+    public String getContentHash() { return contentHash;} public void setContentHash(String contentHash) { this.contentHash = contentHash;}
+    public Integer getLastStatus() { return lastStatus;} public void setLastStatus(Integer lastStatus) { this.lastStatus = lastStatus;}
+    public Instant getLastFetchedAt() { return lastFetchedAt;} public void setLastFetchedAt(Instant lastFetchedAt) { this.lastFetchedAt = lastFetchedAt;}
+    public String getSeenPostings() { return seenPostings;} public void setSeenPostings(String seenPostings) { this.seenPostings = seenPostings;}
+    public Instant getLastChangedAt() { return lastChangedAt;} public void setLastChangedAt(Instant lastChangedAt) { this.lastChangedAt = lastChangedAt;}
+}
@@ -0,0 +1,47 @@
+package com.example.jobbot.repository;
+import com.example.jobbot.model.HostLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+@Repository
+public interface HostLeaseRepository extends JpaRepository<HostLease, String> {
+    List<HostLease> findByOwner(String owner);
+    @Query("select l.host from HostLease l where l.owner is null or l.expiresAt < :now")
+    List<String> findFreeHosts(@Param("now") Instant now);
+    /** Takes the lease if it is free or expired; 0 when another node holds it. */
+    @Modifying
+    @Query("update HostLease l set l.owner = :owner, l.expiresAt = :expires where l.host = :host and (l.owner is null or l.owner = :owner or l.expiresAt < :now)")
+    int claim(@Param("host") String host, @Param("owner") String owner, @Param("now") Instant now, @Param("expires") Instant expires);
+    @Modifying
+    @Query("update HostLease l set l.expiresAt = :expires where l.owner = :owner")
+    int renew(@Param("owner") String owner, @Param("expires") Instant expires);
+    @Modifying
+    @Query("update HostLease l set l.owner = null, l.expiresAt = null where l.owner = :owner and l.host in :hosts")
+    int release(@Param("owner") String owner, @Param("hosts") Collection<String> hosts);
+    @Modifying
+    @Query("update HostLease l set l.owner = null, l.expiresAt = null where l.owner = :owner")
+    int releaseAll(@Param("owner") String owner);
+    @Modifying
+    @Query("update HostLease l set l.lastRunAt = :now where l.host = :host")
+    int markRun(@Param("host") String host, @Param("now") Instant now);
+    /**
+     * Pushes the host's next slot one gap (the larger of {@code delay} and its Crawl-delay) past
+     * the later of the current slot and {@code now}. Unconditional, so it waits for the row lock
+     * instead of failing; read the new slot back with {@link #findSlot} in the same transaction.
+     */
+    @Modifying
+    @Query("update HostLease l set l.nextSlotMillis = (case when l.nextSlotMillis > :now then l.nextSlotMillis else :now end)"
+            + " + (case when l.crawlDelayMs > :delay then l.crawlDelayMs else :delay end) where l.host = :host")
+    int reserveSlot(@Param("host") String host, @Param("now") long now, @Param("delay") long delayMs);
+    /** The host's next slot and Crawl-delay, as {@code [nextSlotMillis, crawlDelayMs]}. */
+    @Query("select l.nextSlotMillis, l.crawlDelayMs from HostLease l where l.host = :host")
+    List<Object[]> findSlot(@Param("host") String host);
+    @Modifying
+    @Query("update HostLease l set l.crawlDelayMs = :delay where l.host = :host")
+    int setCrawlDelay(@Param("host") String host, @Param("delay") long delayMs);
+}
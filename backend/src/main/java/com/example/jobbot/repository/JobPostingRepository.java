@@ -1,7 +1,68 @@
 package com.example.jobbot.repository;
 import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.JobSummary;
+import com.example.jobbot.model.PostingState;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 @Repository
 public interface JobPostingRepository extends JpaRepository<JobPosting, Long> {
+    List<JobPosting> findByUrlKeyIsNull();
+    @Query("select j.urlKey from JobPosting j where j.urlKey in :keys")
+    List<String> findExistingUrlKeys(@Param("keys") Collection<String> keys);
+    @Query("select new com.example.jobbot.model.PostingState(j.id, j.urlKey, j.sourceId, j.contentHash, j.lastSeenAt, j.closedAt) from JobPosting j where j.urlKey in :keys")
+    List<PostingState> findStatesByUrlKeyIn(@Param("keys") Collection<String> keys);
+    @Query("select j.id, j.urlKey from JobPosting j where j.sourceId = :sourceId and j.closedAt is null")
+    List<Object[]> findOpenKeysBySourceId(@Param("sourceId") Long sourceId);
+    @Modifying
+    @Query("update JobPosting j set j.lastSeenAt = :now where j.id in :ids")
+    int touch(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+    @Modifying
+    @Query("update JobPosting j set j.lastSeenAt = :now where j.sourceId = :sourceId and j.closedAt is null and (j.lastSeenAt is null or j.lastSeenAt < :staleBefore)")
+    int touchOpen(@Param("sourceId") Long sourceId, @Param("now") Instant now, @Param("staleBefore") Instant staleBefore);
+    @Modifying
+    @Query("update JobPosting j set j.sourceId = (select min(s.id) from JobSource s where s.name = j.source or (s.name is null and s.url = j.source)) where j.sourceId is null")
+    int backfillSourceIds();
+    @Modifying
+    @Query("update JobPosting j set j.closedAt = :now, j.changedAt = :now where j.id in :ids")
+    int close(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+    @Query("select new com.example.jobbot.model.JobSummary(j.id, j.source, j.title, j.company, j.location, j.url, j.postedAt, j.fetchedAt) from JobPosting j where j.id in :ids")
+    List<JobSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    @Query("select j.id from JobPosting j where j.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    @Query("select max(j.id) from JobPosting j")
+    Long findMaxId();
+    /** Every posting with its compressed description body; see {@code PostingDescriptions.attach}. */
+    @Query("select j, d.body from JobPosting j left join PostingDescription d on d.postingId = j.id")
+    Stream<Object[]> streamAllWithDescription();
+    @Query("select j, d.body from JobPosting j left join PostingDescription d on d.postingId = j.id where j.closedAt is null order by j.id")
+    Stream<Object[]> streamOpenWithDescription();
+    /** Postings inserted, updated, closed or reopened since {@code since}, open or not, with descriptions. */
+    @Query("select j, d.body from JobPosting j left join PostingDescription d on d.postingId = j.id where j.changedAt >= :since order by j.id")
+    Stream<Object[]> streamChangedWithDescription(@Param("since") Instant since);
+    @Query("select j, d.body from JobPosting j left join PostingDescription d on d.postingId = j.id where j.id in :ids order by j.id")
+    List<Object[]> findWithDescriptionByIdIn(@Param("ids") Collection<Long> ids);
+    /** Postings closed, or last seen in a listing (fetched, for untracked ones), before {@code cutoff}. */
+    @Query("select j.id from JobPosting j where coalesce(j.closedAt, j.lastSeenAt, j.fetchedAt) < :cutoff order by j.id")
+    List<Long> findArchivable(@Param("cutoff") Instant cutoff, Pageable page);
+    @Modifying
+    @Query("delete from JobPosting j where j.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+    @Modifying
+    @Query("update JobPosting j set j.canonicalId = :canonicalId where j.id in :ids")
+    int setCanonical(@Param("ids") Collection<Long> ids, @Param("canonicalId") Long canonicalId);
+    @Modifying
+    @Query("update JobPosting j set j.canonicalId = null where j.id in :ids")
+    int clearCanonical(@Param("ids") Collection<Long> ids);
+    @Query("select new com.example.jobbot.model.JobSummary(j.id, j.source, j.title, j.company, j.location, j.url, j.postedAt, j.fetchedAt) from JobPosting j where (j.id = :root or j.canonicalId = :root) and j.closedAt is null order by j.id")
+    List<JobSummary> findCluster(@Param("root") Long root);
+    @Query("select j.urlKey from JobPosting j where j.urlKey is not null")
+    Stream<String> streamUrlKeys();
 }
@@ -0,0 +1,14 @@
+package com.example.jobbot.repository;
+import com.example.jobbot.model.PostingDescription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+@Repository
+public interface PostingDescriptionRepository extends JpaRepository<PostingDescription, Long> {
+    @Modifying
+    @Query("delete from PostingDescription d where d.postingId in :ids")
+    int deleteByPostingIds(@Param("ids") Collection<Long> ids);
+}
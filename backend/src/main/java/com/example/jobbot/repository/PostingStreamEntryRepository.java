@@ -0,0 +1,24 @@
+package com.example.jobbot.repository;
+import com.example.jobbot.model.PostingStreamEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+@Repository
+public interface PostingStreamEntryRepository extends JpaRepository<PostingStreamEntry, Long> {
+    /** Position and posting id of the open postings after position {@code after}; replays what a stream subscriber missed. */
+    @Query("select e.seq, e.postingId from PostingStreamEntry e join JobPosting j on j.id = e.postingId where e.seq > :after and j.closedAt is null order by e.seq")
+    List<Object[]> findOpenAfter(@Param("after") Long after, Pageable page);
+    @Query("select e.seq from PostingStreamEntry e where e.postingId = :postingId")
+    Long findSeq(@Param("postingId") Long postingId);
+    /** Postings committed but never numbered, e.g. because the node stopped in between. */
+    @Query("select j.id from JobPosting j where not exists (select e.seq from PostingStreamEntry e where e.postingId = j.id) order by j.id")
+    List<Long> findUnnumberedPostingIds();
+    @Modifying
+    @Query("delete from PostingStreamEntry e where e.postingId in :ids")
+    int deleteByPostingIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,16 @@
+package com.example.jobbot.repository;
+import com.example.jobbot.model.SavedSearch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.List;
+@Repository
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+    List<SavedSearch> findByUserIdOrderByIdDesc(Long userId);
+    long countByUserId(Long userId);
+    @Query("select max(s.id) from SavedSearch s")
+    Long findMaxId();
+    @Query("select max(s.updatedAt) from SavedSearch s")
+    Instant findMaxUpdatedAt();
+}
@@ -0,0 +1,18 @@
+package com.example.jobbot.repository;
+import com.example.jobbot.model.ScrapeNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.Instant;
+@Repository
+public interface ScrapeNodeRepository extends JpaRepository<ScrapeNode, String> {
+    @Modifying
+    @Query("update ScrapeNode n set n.heartbeatAt = :now where n.nodeId = :id")
+    int heartbeat(@Param("id") String nodeId, @Param("now") Instant now);
+    long countByHeartbeatAtAfter(Instant cutoff);
+    @Modifying
+    @Query("delete from ScrapeNode n where n.heartbeatAt < :cutoff")
+    int deleteStale(@Param("cutoff") Instant cutoff);
+}
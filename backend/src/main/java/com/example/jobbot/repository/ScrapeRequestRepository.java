@@ -0,0 +1,47 @@
+package com.example.jobbot.repository;
+import com.example.jobbot.model.ScrapeRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+@Repository
+public interface ScrapeRequestRepository extends JpaRepository<ScrapeRequest, Long> {
+    Optional<ScrapeRequest> findFirstBySourceIdAndStatusInOrderByIdAsc(Long sourceId, Collection<String> statuses);
+    @Query("select r.id from ScrapeRequest r where r.status = 'QUEUED' order by r.id")
+    List<Long> findQueuedIds(Pageable page);
+    /** Claims a queued request; 0 when another worker got it first. */
+    @Modifying
+    @Query("update ScrapeRequest r set r.status = 'RUNNING', r.startedAt = :now, r.claimedBy = :node where r.id = :id and r.status = 'QUEUED'")
+    int claim(@Param("id") Long id, @Param("now") Instant now, @Param("node") String node);
+    long countByStatusAndIdLessThan(String status, Long id);
+    @Modifying
+    @Query("update ScrapeRequest r set r.coalesced = r.coalesced + 1 where r.id = :id")
+    int coalesce(@Param("id") Long id);
+    @Modifying
+    @Query("update ScrapeRequest r set r.status = :status, r.finishedAt = :now, r.inserted = :inserted, r.skipped = :skipped, r.updated = :updated, r.closed = :closed, r.error = :error where r.id = :id")
+    int finish(@Param("id") Long id, @Param("status") String status, @Param("now") Instant now,
+               @Param("inserted") Integer inserted, @Param("skipped") Integer skipped,
+               @Param("updated") Integer updated, @Param("closed") Integer closed, @Param("error") String error);
+    /** Requeues running requests whose node has no heartbeat row any more, or that predate claims. */
+    @Modifying
+    @Query("update ScrapeRequest r set r.status = 'QUEUED', r.startedAt = null, r.claimedBy = null where r.status = 'RUNNING'"
+            + " and (r.claimedBy is null or r.claimedBy not in (select n.nodeId from ScrapeNode n))")
+    int requeueOrphaned();
+    /** Puts a claimed request back in the queue, keeping its place, when its host turned out to be busy. */
+    @Modifying
+    @Query("update ScrapeRequest r set r.status = 'QUEUED', r.startedAt = null, r.claimedBy = null where r.id = :id and r.status = 'RUNNING'")
+    int requeue(@Param("id") Long id);
+    /** Requeues running requests claimed under {@code node}; only safe before this process runs any. */
+    @Modifying
+    @Query("update ScrapeRequest r set r.status = 'QUEUED', r.startedAt = null, r.claimedBy = null where r.status = 'RUNNING' and r.claimedBy = :node")
+    int requeueClaimedBy(@Param("node") String node);
+    @Modifying
+    @Query("delete from ScrapeRequest r where r.finishedAt < :before")
+    int deleteFinishedBefore(@Param("before") Instant before);
+}
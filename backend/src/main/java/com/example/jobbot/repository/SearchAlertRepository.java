@@ -0,0 +1,26 @@
+package com.example.jobbot.repository;
+import com.example.jobbot.model.SearchAlert;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+@Repository
+public interface SearchAlertRepository extends JpaRepository<SearchAlert, Long> {
+    @Query("select a from SearchAlert a where a.userId = :userId and a.deliveredAt is null order by a.id")
+    List<SearchAlert> findPending(@Param("userId") Long userId, Pageable page);
+    long countByUserIdAndDeliveredAtIsNull(Long userId);
+    @Modifying
+    @Query("update SearchAlert a set a.deliveredAt = :now where a.userId = :userId and a.id <= :upTo and a.deliveredAt is null")
+    int acknowledge(@Param("userId") Long userId, @Param("upTo") Long upTo, @Param("now") Instant now);
+    @Modifying
+    @Query("delete from SearchAlert a where a.searchId = :searchId")
+    int deleteBySearch(@Param("searchId") Long searchId);
+    @Modifying
+    @Query("delete from SearchAlert a where a.postingId in :ids")
+    int deleteByPostingIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,9 @@
+package com.example.jobbot.repository;
+import com.example.jobbot.model.SourceFetchState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+@Repository
+public interface SourceFetchStateRepository extends JpaRepository<SourceFetchState, Long> {
+    Optional<SourceFetchState> findBySourceId(Long sourceId);
+}
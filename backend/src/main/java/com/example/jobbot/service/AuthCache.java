@@ -0,0 +1,26 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.User;
+import com.example.jobbot.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Optional;
+/** Resolves bearer tokens to user ids, keeping recent lookups in memory. */
+@Component
+public class AuthCache {
+    private final UserRepository userRepo;
+    private final TtlLruCache<String, Long> tokens;
+    public AuthCache(UserRepository userRepo,
+                     @Value("${jobbot.auth.cache.max-entries:10000}") int maxEntries,
+                     @Value("${jobbot.auth.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepo = userRepo;
+        this.tokens = new TtlLruCache<>(maxEntries, ttlSeconds * 1000);
+    }
+    public Optional<Long> userIdForHeader(String auth) {
+        if(auth==null||!auth.startsWith("Bearer ")) return Optional.empty();
+        String token = auth.substring(7);
+        return Optional.ofNullable(tokens.computeIfAbsent(token, t -> userRepo.findByToken(t).map(User::getId).orElse(null)));
+    }
+    public void invalidateToken(String token) {
+        if(token!=null) tokens.invalidate(token);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobSource;
+import com.example.jobbot.model.SourceFetchState;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+/**
+ * Base for connectors that read a job board's JSON API. The response is streamed through Jackson's
+ * {@link JsonParser}; each posting's external id and version are compared with the last successful
+ * sync, so only new or changed postings are staged, and the id/version map is kept in the source's
+ * {@link SourceFetchState}.
+ */
+public abstract class BoardApiConnector implements SourceConnector {
+    private static final Logger log = LoggerFactory.getLogger(BoardApiConnector.class);
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Long>> SEEN = new TypeReference<>() {};
+    protected final PageFetcher fetcher;
+    protected final JobPostingWriter writer;
+    protected final ScrapeMetrics metrics;
+    protected BoardApiConnector(PageFetcher fetcher, JobPostingWriter writer, ScrapeMetrics metrics) {
+        this.fetcher = fetcher;
+        this.writer = writer;
+        this.metrics = metrics;
+    }
+    /** The API endpoint behind the source, or null if the source URL doesn't identify a board. */
+    protected abstract String apiUrl(JobSource s);
+    /** Reads the whole response, staging the postings {@code delta} reports as new or changed. */
+    protected abstract void read(JsonParser p, JobSource s, Delta delta, PostingBatch out) throws IOException;
+    @Override public boolean supports(JobSource s) {
+        return apiUrl(s)!=null;
+    }
+    @Override public FlushResult sync(JobSource s) throws Exception {
+        String api = apiUrl(s);
+        PageFetcher.FetchResult page = fetcher.fetch(s, api, true);
+        if(page.isUnchanged()) {
+            writer.stillListed(s);
+            return new FlushResult(0, 0);
+        }
+        Delta delta = new Delta(seen(page.getState()));
+        PostingBatch out = writer.newBatch(s);
+        // the API lists every open job, so whatever is missing has closed
+        out.completeListing();
+        try(JsonParser p = JSON.createParser(page.stream())) {
+            metrics.parse(() -> {
+                read(p, s, delta, out);
+                return null;
+            });
+        } catch(Exception e) {
+            fetcher.abandonStream(page);
+            throw e;
+        }
+        if(fetcher.finishStream(page)) {
+            out.discard();
+            writer.stillListed(s);
+            return out.finish();
+        }
+        FlushResult result = out.finish();
+        if(page.getState()!=null) page.getState().setSeenPostings(MAPPER.writeValueAsString(delta.current));
+        fetcher.markProcessed(page);
+        log.info("board_sync source=\"{}\" api={} {}", s.getName(), api, delta);
+        return result;
+    }
+    private static Map<String, Long> seen(SourceFetchState state) {
+        if(state==null || state.getSeenPostings()==null) return Map.of();
+        try {
+            return MAPPER.readValue(state.getSeenPostings(), SEEN);
+        } catch(Exception e) {
+            log.warn("seen_state_discarded source_id={} error=\"{}\"", state.getSourceId(), e.getMessage());
+            return Map.of();
+        }
+    }
+    /** Seen-set bookkeeping for one sync. */
+    protected static final class Delta {
+        private final Map<String, Long> previous;
+        private final Map<String, Long> current = new HashMap<>();
+        private int fresh = 0;
+        Delta(Map<String, Long> previous) {
+            this.previous = previous;
+        }
+        /** True when the posting was in the last sync at the same version, so there is nothing to stage. */
+        public boolean known(String id, long version) {
+            Long v = previous.get(id);
+            return v!=null && v==version;
+        }
+        /** Records the posting as present in this sync; returns whether it is new or changed. */
+        public boolean record(String id, long version) {
+            current.put(id, version);
+            boolean changed = !known(id, version);
+            if(changed) fresh++;
+            return changed;
+        }
+        @Override public String toString() {
+            long gone = previous.keySet().stream().filter(id -> !current.containsKey(id)).count();
+            return "listed=" + current.size() + " changed=" + fresh + " gone=" + gone;
+        }
+    }
+    /** A plain string value, or the {@code name} of an object value; anything else is skipped. */
+    protected static String name(JsonParser p) throws IOException {
+        if(p.currentToken()!=JsonToken.START_OBJECT) {
+            String v = p.currentToken().isScalarValue() ? p.getValueAsString() : null;
+            p.skipChildren();
+            return v;
+        }
+        String name = null;
+        while(p.nextToken()==JsonToken.FIELD_NAME) {
+            String f = p.currentName();
+            p.nextToken();
+            if(f.equals("name")) name = p.getValueAsString();
+            else p.skipChildren();
+        }
+        return name;
+    }
+    /** {@link #name} of the first element of an array value. */
+    protected static String firstName(JsonParser p) throws IOException {
+        if(p.currentToken()!=JsonToken.START_ARRAY) return name(p);
+        String first = null;
+        while(p.nextToken()!=JsonToken.END_ARRAY) {
+            if(first==null) first = name(p);
+            else p.skipChildren();
+        }
+        return first;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobSource;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+/** Stateless extractors that turn a parsed page into candidate postings. */
+@Component
+public class DocumentExtractors {
+    private static final Logger log = LoggerFactory.getLogger(DocumentExtractors.class);
+    private final ObjectMapper mapper = new ObjectMapper();
+    public void extract(Document doc, JobSource s, PostingBatch out) {
+        String host = HostRateLimiter.hostOf(s.getUrl());
+        if (host.contains("greenhouse.io") || host.contains("boards.greenhouse.io") || s.getUrl().contains("greenhouse")) {
+            greenhouse(doc, out);
+        } else if (host.contains("lever.co") || s.getUrl().contains("lever")) {
+            jsonLd(doc, out);
+        } else if("jsonld".equalsIgnoreCase(s.getType())) {
+            jsonLd(doc, out);
+        } else if("links".equalsIgnoreCase(s.getType())) {
+            links(doc, out);
+        } else {
+            if (s.getSelector()!=null && !s.getSelector().isBlank()) {
+                selector(doc, s, out);
+            } else {
+                jsonLd(doc, out);
+            }
+        }
+    }
+    /**
+     * Streams RSS/Atom items straight into the batch; returns the number of items read. Only We Work
+     * Remotely puts the company in the title, so colons in other feeds' titles stay part of the role.
+     */
+    public int rssItems(InputStream in, PostingBatch out) throws XMLStreamException {
+        boolean companyInTitle = HostRateLimiter.hostOf(out.getSource().getUrl()).contains("weworkremotely");
+        return FeedReader.read(in, raw -> {
+            FeedReader.Item item = companyInTitle ? raw.companyFromTitle() : raw;
+            out.add(item.title(), item.company(), item.region(), item.description(), item.url(), item.publishedAt());
+        });
+    }
+    public void links(Document doc, PostingBatch out) {
+        Elements links = doc.select("a[href]");
+        links.forEach(a->{ String href = a.attr("abs:href");
+            String text = a.text(); if(href!=null && (href.toLowerCase().contains("job")||href.toLowerCase().contains("careers")||href.toLowerCase().contains("position"))) {
+                saveJobFromLink(text, href, out); } });
+    }
+    public void selector(Document doc, JobSource s, PostingBatch out) {
+        Elements els = doc.select(s.getSelector());
+        els.forEach(el->{ String title = el.text();
+            String href = el.attr("abs:href");
+            saveJobFromLink(title, href.isEmpty()?s.getUrl():href, out); });
+    }
+    public void greenhouse(Document doc, PostingBatch out) {
+        try {
+            Elements links = doc.select("a[href*='careers'], a[href*='/jobs/'], a[href*='greenhouse.io']");
+            links.forEach(a->{ String href = a.attr("abs:href");
+                String title = a.text();
+                if(href != null && !href.isBlank()) saveJobFromLink(title, href, out);
+            });
+            jsonLd(doc, out);
+        } catch(Exception e) {
+            log.warn("extract_failed extractor=greenhouse error=\"{}\"", e.getMessage());
+        }
+    }
+    public void jsonLd(Document doc, PostingBatch out) {
+        try {
+            Elements scripts = doc.select("script[type=application/ld+json]");
+            scripts.forEach(el->{ String json = el.html();
+                try {
+                    JsonNode node = mapper.readTree(json);
+                    if(node.isArray()) { for(JsonNode item : node) handleJsonLd(item, out);
+                    } else {
+                        handleJsonLd(node, out);
+                    }
+                } catch(Exception ignored) {}
+            });
+        } catch(Exception e) {
+            log.warn("extract_failed extractor=jsonld error=\"{}\"", e.getMessage());
+        }
+    }
+    public void handleJsonLd(JsonNode node, PostingBatch out) {
+        if (node == null) return;
+
+        if(node.has("@graph")) {
+            for(JsonNode sub : node.get("@graph"))
+                handleJsonLd(sub, out);
+            return;
+        }
+        String type = node.has("@type") ? node.get("@type").asText() : null;
+        if (type == null && node.has("type"))
+            type = node.get("type").asText();
+
+        if (type != null && type.toLowerCase().contains("job")) {
+            String title = node.has("title") ? node.get("title").asText() : node.has("name") ? node.get("name").asText():"";
+            String url = node.has("url") ? node.get("url").asText():"";
+            String description = node.has("description") ? node.get("description").asText():"";
+            String company = "";
+            if(node.has("hiringOrganization")) {
+                JsonNode ho = node.get("hiringOrganization");
+                if(ho.isTextual()) company = ho.asText();
+                else if(ho.has("name")) company = ho.get("name").asText();
+            }
+            out.add(title, company, description, url);
+        }
+    }
+    private void saveJobFromLink(String title, String url, PostingBatch out) {
+        out.add(title, "", "", url);
+    }
+}
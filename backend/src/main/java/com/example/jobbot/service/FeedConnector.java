@@ -0,0 +1,45 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobSource;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+/** RSS / Atom feeds, streamed through {@link FeedReader}. */
+@Component
+@Order(30)
+public class FeedConnector implements SourceConnector {
+    private final PageFetcher fetcher;
+    private final DocumentExtractors extractors;
+    private final JobPostingWriter writer;
+    private final ScrapeMetrics metrics;
+    public FeedConnector(PageFetcher fetcher, DocumentExtractors extractors, JobPostingWriter writer, ScrapeMetrics metrics) {
+        this.fetcher = fetcher;
+        this.extractors = extractors;
+        this.writer = writer;
+        this.metrics = metrics;
+    }
+    @Override public boolean supports(JobSource s) {
+        return HostRateLimiter.hostOf(s.getUrl()).contains("weworkremotely") || s.getUrl().endsWith(".rss")
+                || "rss".equalsIgnoreCase(s.getType());
+    }
+    @Override public FlushResult sync(JobSource s) throws Exception {
+        PageFetcher.FetchResult page = fetcher.fetch(s, true);
+        if(page.isUnchanged()) {
+            writer.stillListed(s);
+            return new FlushResult(0, 0);
+        }
+        PostingBatch out = writer.newBatch(s);
+        try {
+            metrics.parse(() -> extractors.rssItems(page.stream(), out));
+        } catch(Exception e) {
+            fetcher.abandonStream(page);
+            throw e;
+        }
+        if(fetcher.finishStream(page)) {
+            out.discard();
+            writer.stillListed(s);
+            return out.finish();
+        }
+        FlushResult result = out.finish();
+        fetcher.markProcessed(page);
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.jobbot.service;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+/**
+ * Streaming RSS 2.0 / Atom reader on StAX. Items are handed to the consumer as soon as their
+ * closing tag is read, so memory stays bounded by the largest single item rather than the feed.
+ */
+public final class FeedReader {
+    public record Item(String title, String link, String guid, String description,
+                       String company, String region, Instant publishedAt) {
+        /** The link, falling back to the guid when a feed only carries a permalink guid. */
+        public String url() {
+            if(link!=null && !link.isBlank()) return link;
+            return guid!=null && guid.startsWith("http") ? guid : null;
+        }
+        /** We Work Remotely style "Company: Role" titles split into company and role; others are left alone. */
+        public Item companyFromTitle() {
+            int colon = title==null || company!=null ? -1 : title.indexOf(": ");
+            if(colon <= 0) return this;
+            return new Item(title.substring(colon + 2).trim(), link, guid, description, title.substring(0, colon).trim(), region, publishedAt);
+        }
+    }
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+    static {
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        FACTORY.setProperty(XMLInputFactory.IS_COALESCING, false);
+    }
+    private FeedReader() {}
+    /** Reads {@code <item>} (RSS) and {@code <entry>} (Atom) elements; returns the number of items seen. */
+    public static int read(InputStream in, Consumer<Item> sink) throws XMLStreamException {
+        XMLStreamReader r = FACTORY.createXMLStreamReader(in);
+        int count = 0;
+        try {
+            while(r.hasNext()) {
+                if(r.next()!=XMLStreamConstants.START_ELEMENT) continue;
+                String name = r.getLocalName();
+                if(name.equals("item") || name.equals("entry")) {
+                    sink.accept(readItem(r));
+                    count++;
+                }
+            }
+        } finally {
+            r.close();
+        }
+        return count;
+    }
+    /** Consumes one item up to its end tag. Only direct children are read, so nested media elements don't leak in. */
+    private static Item readItem(XMLStreamReader r) throws XMLStreamException {
+        String title = null, link = null, guid = null, description = null, company = null, region = null;
+        String published = null, updated = null;
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while(depth > 0 && r.hasNext()) {
+            int ev = r.next();
+            if(ev==XMLStreamConstants.END_ELEMENT) { depth--; continue; }
+            if(ev!=XMLStreamConstants.START_ELEMENT) continue;
+            if(depth > 1) { depth++; continue; }
+            String name = r.getLocalName();
+            boolean plain = r.getPrefix()==null || r.getPrefix().isEmpty();
+            if(name.equals("link") && r.getAttributeValue(null, "href")!=null) {
+                // Atom: <link rel="alternate" href="..."/>; the first alternate (or rel-less) link wins
+                String rel = r.getAttributeValue(null, "rel");
+                if(link==null && (rel==null || rel.equals("alternate"))) link = r.getAttributeValue(null, "href");
+                skip(r);
+                continue;
+            }
+            if(!isField(name) || (!plain && !name.equals("encoded"))) { depth++; continue; }
+            String value = text(r, text);
+            switch(name) {
+                case "title" -> title = value;
+                case "link" -> { if(link==null) link = value; }
+                case "guid", "id" -> guid = value;
+                case "description", "summary" -> { if(description==null) description = value; }
+                case "content", "encoded" -> description = value;
+                case "company" -> company = value;
+                case "region", "location" -> { if(region==null) region = value; }
+                case "pubDate", "published" -> published = value;
+                case "updated" -> updated = value;
+                default -> {}
+            }
+        }
+        Instant when = parseDate(published);
+        if(when==null) when = parseDate(updated);
+        return new Item(title, link, guid, description, company, region, when);
+    }
+    private static boolean isField(String name) {
+        return switch(name) {
+            case "title", "link", "guid", "id", "description", "summary", "content", "encoded",
+                 "company", "region", "location", "pubDate", "published", "updated" -> true;
+            default -> false;
+        };
+    }
+    /** Collects the text of the current element (nested markup is flattened) and leaves the reader on its end tag. */
+    private static String text(XMLStreamReader r, StringBuilder buf) throws XMLStreamException {
+        buf.setLength(0);
+        int depth = 1;
+        while(depth > 0) {
+            int ev = r.next();
+            switch(ev) {
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> depth--;
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                        buf.append(r.getTextCharacters(), r.getTextStart(), r.getTextLength());
+                default -> {}
+            }
+        }
+        return buf.toString().trim();
+    }
+    private static void skip(XMLStreamReader r) throws XMLStreamException {
+        int depth = 1;
+        while(depth > 0) {
+            int ev = r.next();
+            if(ev==XMLStreamConstants.START_ELEMENT) depth++;
+            else if(ev==XMLStreamConstants.END_ELEMENT) depth--;
+        }
+    }
+    /** RFC 822 dates (RSS) or ISO-8601 (Atom). The weekday is ignored since feeds often get it wrong. */
+    static Instant parseDate(String s) {
+        if(s==null || s.isBlank()) return null;
+        String v = s.trim();
+        try {
+            if(Character.isDigit(v.charAt(0)) && v.indexOf('T') > 0) return OffsetDateTime.parse(v).toInstant();
+            int comma = v.indexOf(',');
+            if(comma >= 0) v = v.substring(comma + 1).trim();
+            return ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch(Exception e) {
+            return null;
+        }
+    }
+}
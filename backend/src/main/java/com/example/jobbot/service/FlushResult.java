@@ -0,0 +1,24 @@
+package com.example.jobbot.service;
+public class FlushResult {
+    private final int inserted;
+    private final int skipped;
+    private final int updated;
+    private final int closed;
+    public FlushResult(int inserted, int skipped) {
+        this(inserted, skipped, 0, 0);
+    }
+    /** {@code skipped} counts candidates that matched a stored posting unchanged (or one owned by another source). */
+    public FlushResult(int inserted, int skipped, int updated, int closed) {
+        this.inserted = inserted;
+        this.skipped = skipped;
+        this.updated = updated;
+        this.closed = closed;
+    }
+    public int getInserted() { return inserted; }
+    public int getSkipped() { return skipped; }
+    public int getUpdated() { return updated; }
+    public int getClosed() { return closed; }
+    @Override public String toString() {
+        return "inserted=" + inserted + ", skipped=" + skipped + ", updated=" + updated + ", closed=" + closed;
+    }
+}
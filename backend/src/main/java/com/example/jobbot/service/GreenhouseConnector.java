@@ -0,0 +1,99 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.JobSource;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.jsoup.parser.Parser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+/**
+ * Greenhouse boards (boards.greenhouse.io/{token}, job-boards.greenhouse.io/{token}) read through the
+ * public Job Board API. The {@code content} of unchanged jobs is skipped without being decoded,
+ * since the API lists it after {@code id} and {@code updated_at}.
+ */
+@Component
+@Order(10)
+public class GreenhouseConnector extends BoardApiConnector {
+    private final String apiBase;
+    public GreenhouseConnector(PageFetcher fetcher, JobPostingWriter writer, ScrapeMetrics metrics,
+                               @Value("${jobbot.connectors.greenhouse.api-base:https://boards-api.greenhouse.io}") String apiBase) {
+        super(fetcher, writer, metrics);
+        this.apiBase = apiBase;
+    }
+    static String boardToken(String url) {
+        try {
+            URI u = new URI(url.trim());
+            String host = u.getHost()==null ? "" : u.getHost().toLowerCase();
+            if(!host.endsWith("greenhouse.io")) return null;
+            String[] parts = u.getPath()==null ? new String[0] : u.getPath().split("/");
+            if(host.startsWith("boards-api.")) {
+                // /v1/boards/{token}/...
+                return parts.length > 3 && parts[2].equals("boards") ? parts[3] : null;
+            }
+            if(parts.length > 1 && parts[1].equals("embed") && u.getQuery()!=null) {
+                for(String kv : u.getQuery().split("&")) if(kv.startsWith("for=")) return kv.substring(4);
+                return null;
+            }
+            return parts.length > 1 && !parts[1].isBlank() ? parts[1] : null;
+        } catch(Exception e) {
+            return null;
+        }
+    }
+    @Override protected String apiUrl(JobSource s) {
+        String token = boardToken(s.getUrl());
+        return token==null ? null : apiBase + "/v1/boards/" + token + "/jobs?content=true";
+    }
+    @Override protected void read(JsonParser p, JobSource s, Delta delta, PostingBatch out) throws IOException {
+        if(p.nextToken()!=JsonToken.START_OBJECT) throw new IOException("Unexpected Greenhouse response for " + s.getUrl());
+        while(p.nextToken()==JsonToken.FIELD_NAME) {
+            String f = p.currentName();
+            p.nextToken();
+            if(f.equals("jobs") && p.currentToken()==JsonToken.START_ARRAY) {
+                while(p.nextToken()==JsonToken.START_OBJECT) job(p, s, delta, out);
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+    private void job(JsonParser p, JobSource s, Delta delta, PostingBatch out) throws IOException {
+        JobPosting j = new JobPosting();
+        String id = null, content = null;
+        Long version = null;
+        Instant updated = null, published = null;
+        while(p.nextToken()==JsonToken.FIELD_NAME) {
+            String f = p.currentName();
+            p.nextToken();
+            switch(f) {
+                case "id" -> id = p.getValueAsString();
+                case "title" -> j.setTitle(p.getValueAsString());
+                case "absolute_url" -> j.setUrl(p.getValueAsString());
+                case "company_name" -> j.setCompany(p.getValueAsString());
+                case "updated_at" -> {
+                    updated = FeedReader.parseDate(p.getValueAsString());
+                    version = updated==null ? 0L : updated.toEpochMilli();
+                }
+                case "first_published" -> published = FeedReader.parseDate(p.getValueAsString());
+                case "location" -> j.setLocation(name(p));
+                case "departments" -> j.setDepartment(firstName(p));
+                case "content" -> {
+                    if(id==null || version==null || !delta.known(id, version)) content = p.getValueAsString();
+                }
+                default -> p.skipChildren();
+            }
+        }
+        if(id==null) return;
+        if(!delta.record(id, version==null ? 0L : version)) {
+            out.seen(j.getUrl());
+            return;
+        }
+        if(j.getCompany()==null) j.setCompany(boardToken(s.getUrl()));
+        // the API HTML-escapes content once more
+        if(content!=null) j.setDescription(Parser.unescapeEntities(content, false));
+        j.setPostedAt(published!=null ? published : updated);
+        out.add(j);
+    }
+}
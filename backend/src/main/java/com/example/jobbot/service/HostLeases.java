@@ -0,0 +1,185 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.HostLease;
+import com.example.jobbot.model.ScrapeNode;
+import com.example.jobbot.repository.HostLeaseRepository;
+import com.example.jobbot.repository.ScrapeNodeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+/**
+ * Splits scheduled scraping between backend replicas sharing one database. Each node heartbeats
+ * into {@code scrape_node} and leases hosts in {@code host_lease} for a TTL it keeps renewing.
+ * A node holds at most its fair share (hosts / live nodes), so hosts spread out as nodes join
+ * and move to the survivors when a node stops renewing; a host stays with its owner otherwise.
+ * The lease row also carries the host's next request slot and Crawl-delay, so politeness holds
+ * across nodes, including for on-demand scrapes and robots.txt fetches.
+ */
+@Service
+public class HostLeases {
+    private static final Logger log = LoggerFactory.getLogger(HostLeases.class);
+    private final HostLeaseRepository leases;
+    private final ScrapeNodeRepository nodes;
+    private final TransactionTemplate tx;
+    private final String nodeId;
+    private final Duration ttl;
+    /** Hosts whose row is known to exist. */
+    private final Set<String> known = ConcurrentHashMap.newKeySet();
+    public HostLeases(HostLeaseRepository leases, ScrapeNodeRepository nodes, PlatformTransactionManager txManager,
+                      @Value("${jobbot.cluster.node-id:}") String nodeId,
+                      @Value("${jobbot.cluster.lease-ttl-ms:60000}") long ttlMs) {
+        this.leases = leases;
+        this.nodes = nodes;
+        this.tx = new TransactionTemplate(txManager);
+        // pid@hostname plus a suffix, so a restarted process never inherits its predecessor's claims
+        this.nodeId = nodeId.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "-" + Integer.toHexString(ThreadLocalRandom.current().nextInt(1 << 16))
+                : nodeId;
+        this.ttl = Duration.ofMillis(ttlMs);
+    }
+    public String nodeId() {
+        return nodeId;
+    }
+    @PostConstruct
+    public void register() {
+        heartbeat();
+        log.info("cluster_joined node={}", nodeId);
+    }
+    /** Marks this node alive, renews its leases and forgets nodes that stopped heartbeating. */
+    @Scheduled(fixedDelayString = "${jobbot.cluster.heartbeat-ms:10000}")
+    public void heartbeat() {
+        Instant now = Instant.now();
+        tx.executeWithoutResult(status -> {
+            if(nodes.heartbeat(nodeId, now)==0) nodes.save(new ScrapeNode(nodeId, now));
+            nodes.deleteStale(now.minus(ttl));
+            leases.renew(nodeId, now.plus(ttl));
+        });
+    }
+    /** Hands this node's hosts back so the others pick them up without waiting for the TTL. */
+    @PreDestroy
+    public void leave() {
+        try {
+            tx.executeWithoutResult(status -> {
+                leases.releaseAll(nodeId);
+                nodes.deleteById(nodeId);
+            });
+        } catch(Exception e) {
+            log.warn("cluster_leave_failed node={} error=\"{}\"", nodeId, e.getMessage());
+        }
+    }
+    /**
+     * Claims or gives up leases until this node holds its fair share of {@code hosts}, and returns
+     * the hosts it owns with when each was last synced (null = never). Hosts in {@code busy} are
+     * being synced here and are kept.
+     */
+    public Map<String, Instant> balance(Collection<String> hosts, Set<String> busy) {
+        for(String h : hosts) ensureRow(h);
+        Instant now = Instant.now();
+        long live = Math.max(1, nodes.countByHeartbeatAtAfter(now.minus(ttl)));
+        int share = (int) ((hosts.size() + live - 1) / live);
+        Set<String> wanted = new HashSet<>(hosts);
+        TreeSet<String> owned = new TreeSet<>();
+        for(HostLease l : leases.findByOwner(nodeId)) owned.add(l.getHost());
+        List<String> release = new ArrayList<>();
+        for(String h : owned) if(!wanted.contains(h) && !busy.contains(h)) release.add(h);
+        int excess = owned.size() - release.size() - share;
+        for(Iterator<String> it = owned.descendingIterator(); excess > 0 && it.hasNext(); ) {
+            String h = it.next();
+            if(wanted.contains(h) && !busy.contains(h)) {
+                release.add(h);
+                excess--;
+            }
+        }
+        if(!release.isEmpty()) {
+            tx.executeWithoutResult(status -> leases.release(nodeId, release));
+            release.forEach(owned::remove);
+            log.info("leases_released node={} hosts={} share={}", nodeId, release.size(), share);
+        }
+        if(owned.size() < share) {
+            List<String> free = new ArrayList<>(leases.findFreeHosts(now));
+            free.retainAll(wanted);
+            // nodes polling at the same moment then mostly try different hosts
+            Collections.shuffle(free);
+            int claimed = 0;
+            for(String h : free) {
+                if(owned.size() >= share) break;
+                Integer n = tx.execute(status -> leases.claim(h, nodeId, now, now.plus(ttl)));
+                if(n!=null && n==1) {
+                    owned.add(h);
+                    claimed++;
+                }
+            }
+            if(claimed > 0) log.info("leases_claimed node={} hosts={} share={} live_nodes={}", nodeId, claimed, share, live);
+        }
+        Map<String, Instant> out = new HashMap<>();
+        for(HostLease l : leases.findByOwner(nodeId)) out.put(l.getHost(), l.getLastRunAt());
+        return out;
+    }
+    /**
+     * Takes (or renews) the host's lease for a run outside the schedule, such as an on-demand
+     * scrape; false when another live node holds it and so may be syncing the host right now.
+     */
+    public boolean acquire(String host) {
+        ensureRow(host);
+        Instant now = Instant.now();
+        Integer n = tx.execute(status -> leases.claim(host, nodeId, now, now.plus(ttl)));
+        return n!=null && n==1;
+    }
+    /** Whether another node holds an unexpired lease on the host. */
+    public boolean leasedElsewhere(String host) {
+        Instant now = Instant.now();
+        return leases.findById(host).map(l -> l.getOwner()!=null && !l.getOwner().equals(nodeId)
+                && l.getExpiresAt()!=null && l.getExpiresAt().isAfter(now)).orElse(false);
+    }
+    public void markRun(String host) {
+        tx.executeWithoutResult(status -> leases.markRun(host, Instant.now()));
+    }
+    /** Whether a scheduled sync of the host finished after {@code since}, on any node. */
+    public boolean ranSince(String host, Instant since) {
+        return leases.findById(host).map(l -> l.getLastRunAt()!=null && l.getLastRunAt().isAfter(since)).orElse(false);
+    }
+    /**
+     * Reserves the host's next request slot for the whole cluster and returns its start in epoch
+     * ms. The gap to the following slot is the larger of {@code delayMs} and the shared Crawl-delay.
+     * The slot is moved with one unconditional update, so concurrent callers queue on the row lock
+     * and each comes away with a slot of its own.
+     */
+    public long reserveSlot(String host, long delayMs) {
+        ensureRow(host);
+        Long start = tx.execute(status -> {
+            leases.reserveSlot(host, System.currentTimeMillis(), delayMs);
+            Object[] row = leases.findSlot(host).get(0);
+            long next = ((Number) row[0]).longValue();
+            return next - Math.max(delayMs, ((Number) row[1]).longValue());
+        });
+        return start;
+    }
+    /** Shares the host's Crawl-delay with the other nodes; -1 clears it. */
+    public void setCrawlDelay(String host, long delayMs) {
+        ensureRow(host);
+        tx.executeWithoutResult(status -> leases.setCrawlDelay(host, delayMs));
+    }
+    private void ensureRow(String host) {
+        if(known.contains(host)) return;
+        try {
+            tx.executeWithoutResult(status -> {
+                if(!leases.existsById(host)) leases.saveAndFlush(new HostLease(host));
+            });
+        } catch(DataIntegrityViolationException e) {
+            // another node inserted it first
+        }
+        known.add(host);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.jobbot.service;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * Per-host politeness delay. The next free slot lives in the host's {@link HostLeases} row and is
+ * reserved with one locking update, so every node sharing the database spaces its requests to a
+ * host as one client would, and a caller sleeping for one host never blocks callers for another.
+ * A host's robots.txt Crawl-delay, when longer than the default, replaces it on every node.
+ */
+@Component
+public class HostRateLimiter {
+    private final Map<String, Long> crawlDelayMillis = new ConcurrentHashMap<>();
+    private final long minDelayMs;
+    private final ScrapeMetrics metrics;
+    private final HostLeases leases;
+    public HostRateLimiter(ScrapeMetrics metrics, HostLeases leases, @Value("${jobbot.scrape.per-host-delay-ms:2000}") long minDelayMs) {
+        this.metrics = metrics;
+        this.leases = leases;
+        this.minDelayMs = minDelayMs;
+    }
+    public static String hostOf(String urlStr) {
+        try {
+            String host = new URI(urlStr).getHost();
+            return host==null ? "" : host.toLowerCase(Locale.ROOT);
+        } catch(Exception e) {
+            return "";
+        }
+    }
+    /** Sets the host's Crawl-delay; a negative value clears it. */
+    public void setCrawlDelay(String urlStr, long delayMs) {
+        String host = hostOf(urlStr);
+        if(delayMs > minDelayMs) crawlDelayMillis.put(host, delayMs);
+        else crawlDelayMillis.remove(host);
+        leases.setCrawlDelay(host, delayMs > minDelayMs ? delayMs : -1);
+    }
+    public long delayFor(String host) {
+        return crawlDelayMillis.getOrDefault(host, minDelayMs);
+    }
+    /** Blocks until the host's next slot and returns how long the caller waited, in ms. */
+    public long acquire(String urlStr) {
+        String host = hostOf(urlStr);
+        long start = leases.reserveSlot(host, delayFor(host));
+        long wait = Math.max(0, start - System.currentTimeMillis());
+        if(wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        metrics.rateLimited(host, wait);
+        return wait;
+    }
+}
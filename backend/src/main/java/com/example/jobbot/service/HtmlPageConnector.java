@@ -0,0 +1,38 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobSource;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+/** Fallback for everything else: parse the page and run the type / selector based extractors. */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class HtmlPageConnector implements SourceConnector {
+    private final PageFetcher fetcher;
+    private final DocumentExtractors extractors;
+    private final JobPostingWriter writer;
+    private final ScrapeMetrics metrics;
+    public HtmlPageConnector(PageFetcher fetcher, DocumentExtractors extractors, JobPostingWriter writer, ScrapeMetrics metrics) {
+        this.fetcher = fetcher;
+        this.extractors = extractors;
+        this.writer = writer;
+        this.metrics = metrics;
+    }
+    @Override public boolean supports(JobSource s) {
+        return true;
+    }
+    @Override public FlushResult sync(JobSource s) throws Exception {
+        PageFetcher.FetchResult page = fetcher.fetch(s);
+        if(page.isUnchanged()) {
+            writer.stillListed(s);
+            return new FlushResult(0, 0);
+        }
+        PostingBatch out = writer.newBatch(s);
+        metrics.parse(() -> {
+            extractors.extract(page.document(), s, out);
+            return null;
+        });
+        FlushResult result = out.finish();
+        fetcher.markProcessed(page);
+        return result;
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.jobbot.service;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+/**
+ * The one HTTP client every fetch goes through. A single {@link HttpClient} keeps connections
+ * alive per host (HTTP/2 where the server offers it), asks for gzip/deflate and inflates the body
+ * as it is read, caps its size, and retries connection failures, 429 and 502-504 with jittered
+ * exponential backoff (honouring Retry-After). Bodies are always handed out as streams. Requests
+ * that are not GET or HEAD are retried only when the server cannot have acted on them: the
+ * connection failed, or it answered 429 or 503. The request timeout only covers the wait for the
+ * headers, so a watchdog closes bodies whose server stalls a read for that long, or that are not
+ * done within {@code body-timeout-ms}.
+ */
+@Component
+public class HttpFetcher {
+    static final String USER_AGENT = "JobBot-Scraper/1.0";
+    private final HttpClient client;
+    private final HostRateLimiter rateLimiter;
+    private final ScrapeMetrics metrics;
+    private final Duration requestTimeout;
+    private final long maxBodyBytes;
+    private final int maxRetries;
+    private final long backoffMs;
+    private final long bodyTimeoutNanos;
+    private final Set<DeadlineInputStream> openBodies = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "http-body-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+    public HttpFetcher(HostRateLimiter rateLimiter, ScrapeMetrics metrics,
+                       @Value("${jobbot.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+                       @Value("${jobbot.http.request-timeout-ms:15000}") long requestTimeoutMs,
+                       @Value("${jobbot.http.max-body-bytes:20971520}") long maxBodyBytes,
+                       @Value("${jobbot.http.max-retries:2}") int maxRetries,
+                       @Value("${jobbot.http.backoff-ms:500}") long backoffMs,
+                       @Value("${jobbot.http.body-timeout-ms:300000}") long bodyTimeoutMs) {
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxRetries = maxRetries;
+        this.backoffMs = backoffMs;
+        this.bodyTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(bodyTimeoutMs);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        watchdog.scheduleWithFixedDelay(this::expireStalledBodies, 1, 1, TimeUnit.SECONDS);
+    }
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+    }
+    public static final class Response implements AutoCloseable {
+        private final HttpResponse<InputStream> raw;
+        private final InputStream body;
+        private Response(HttpResponse<InputStream> raw, InputStream body) {
+            this.raw = raw;
+            this.body = body;
+        }
+        public int status() { return raw.statusCode(); }
+        /** Where the body came from, after redirects. */
+        public URI uri() { return raw.uri(); }
+        public String header(String name) { return raw.headers().firstValue(name).orElse(null); }
+        /** Charset named by Content-Type, or null to let the parser sniff it. */
+        public String charset() {
+            String type = header("Content-Type");
+            if(type==null) return null;
+            for(String part : type.split(";")) {
+                String p = part.trim();
+                if(p.regionMatches(true, 0, "charset=", 0, 8)) {
+                    String name = p.substring(8).replace("\"", "").trim();
+                    return Charset.isSupported(name) ? name : null;
+                }
+            }
+            return null;
+        }
+        /** The decoded body; read it at most once. */
+        public InputStream body() { return body; }
+        public byte[] bytes() throws IOException {
+            try(InputStream in = body) {
+                return in.readAllBytes();
+            }
+        }
+        /** Closes the body without reading it; the connection is dropped rather than reused. */
+        @Override public void close() {
+            try {
+                body.close();
+            } catch(IOException ignored) {}
+        }
+    }
+    public Response get(String url) throws IOException {
+        return send(HttpRequest.newBuilder(URI.create(url)).GET(), url);
+    }
+    /**
+     * Sends {@code request}, waiting for {@code politeFor}'s host slot before every attempt (it is
+     * the target site, which differs from the request URL when a proxy such as the renderer is
+     * in between). Answers with any status; only failures worth retrying, and safe to retry for
+     * the request's method, are retried.
+     */
+    public Response send(HttpRequest.Builder request, String politeFor) throws IOException {
+        HttpRequest req = request.copy()
+                .setHeader("User-Agent", USER_AGENT)
+                .setHeader("Accept-Encoding", "gzip, deflate")
+                .build();
+        HttpRequest timed = req.timeout().isPresent() ? req : HttpRequest.newBuilder(req, (k, v) -> true).timeout(requestTimeout).build();
+        String host = HostRateLimiter.hostOf(politeFor);
+        boolean idempotent = req.method().equals("GET") || req.method().equals("HEAD");
+        for(int attempt = 0; ; attempt++) {
+            if(politeFor!=null) rateLimiter.acquire(politeFor);
+            HttpResponse<InputStream> res;
+            try {
+                res = client.send(timed, HttpResponse.BodyHandlers.ofInputStream());
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted fetching " + req.uri(), e);
+            } catch(IOException e) {
+                // a read timeout on a POST may have left it running on the server (a 60 s render)
+                boolean unsent = e instanceof ConnectException || e instanceof HttpConnectTimeoutException;
+                if(attempt >= maxRetries || !(idempotent || unsent)) throw e;
+                metrics.retried(host, "io");
+                backoff(attempt, -1);
+                continue;
+            }
+            int status = res.statusCode();
+            InputStream body = watch(res.body(), res.uri(), timed.timeout().orElse(requestTimeout));
+            if(attempt < maxRetries && (status==429 || status==503 || (idempotent && (status==502 || status==504)))) {
+                long retryAfter = retryAfterMs(res);
+                discard(body);
+                metrics.retried(host, String.valueOf(status));
+                backoff(attempt, retryAfter);
+                continue;
+            }
+            return new Response(res, decode(res, body));
+        }
+    }
+    private InputStream decode(HttpResponse<InputStream> res, InputStream raw) throws IOException {
+        long len = contentLength(res);
+        if(len > maxBodyBytes) {
+            raw.close();
+            throw new IOException("Body of " + res.uri() + " is " + len + " bytes, over the " + maxBodyBytes + " byte cap");
+        }
+        String encoding = res.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+        InputStream body = raw;
+        if(!encoding.isEmpty() && !hasBody(res, len)) {
+            // a 304 may repeat the Content-Encoding of the representation it stands for, and
+            // GZIPInputStream reads the header up front, so an empty body must not reach it
+            body = new PushbackInputStream(raw, 1);
+            int first = body.read();
+            if(first==-1) return body;
+            ((PushbackInputStream) body).unread(first);
+        }
+        InputStream in = switch(encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(body, 8192);
+            // servers disagree on whether "deflate" is zlib-wrapped; most send the wrapper
+            case "deflate" -> new InflaterInputStream(body, new Inflater(), 8192);
+            default -> body;
+        };
+        // the cap applies after inflation so a small compressed body can't blow up in memory
+        return new CappedInputStream(in, maxBodyBytes, res.uri());
+    }
+    /** The declared length, or -1 when it is absent or malformed. */
+    private static long contentLength(HttpResponse<?> res) {
+        String v = res.headers().firstValue("Content-Length").orElse(null);
+        if(v==null) return -1;
+        try {
+            return Long.parseLong(v.trim());
+        } catch(NumberFormatException e) {
+            return -1;
+        }
+    }
+    /** True only when a body certainly follows; HEAD, 204, 304, errors and chunked bodies may all be empty. */
+    private static boolean hasBody(HttpResponse<?> res, long len) {
+        int status = res.statusCode();
+        return len > 0 && status!=204 && status!=304 && status < 400 && !res.request().method().equals("HEAD");
+    }
+    private void backoff(int attempt, long retryAfterMs) throws IOException {
+        long base = backoffMs << attempt;
+        long wait = Math.max(retryAfterMs, base + ThreadLocalRandom.current().nextLong(base / 2 + 1));
+        try {
+            Thread.sleep(Math.min(wait, 30_000));
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while backing off", e);
+        }
+    }
+    private static long retryAfterMs(HttpResponse<?> res) {
+        // only the delta-seconds form; an HTTP date falls back to the normal backoff
+        String v = res.headers().firstValue("Retry-After").orElse(null);
+        if(v==null) return -1;
+        try {
+            return Long.parseLong(v.trim()) * 1000;
+        } catch(NumberFormatException e) {
+            return -1;
+        }
+    }
+    private static void discard(InputStream body) {
+        try(InputStream in = body) {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch(IOException ignored) {}
+    }
+    private InputStream watch(InputStream body, URI uri, Duration stallTimeout) {
+        DeadlineInputStream in = new DeadlineInputStream(body, uri, stallTimeout.toNanos(), System.nanoTime() + bodyTimeoutNanos);
+        openBodies.add(in);
+        return in;
+    }
+    private void expireStalledBodies() {
+        long now = System.nanoTime();
+        for(DeadlineInputStream in : openBodies) in.expireIfDue(now);
+    }
+    /**
+     * Body stream the watchdog can end from its own thread: closing the JDK stream wakes a read
+     * blocked on it, which then fails with the reason rather than a bare "closed".
+     */
+    private final class DeadlineInputStream extends FilterInputStream {
+        private final URI uri;
+        private final long stallNanos;
+        private final long deadline;
+        /** When the read in progress started, or 0 when the caller is not blocked in one. */
+        private volatile long readingSince;
+        private volatile String expired;
+        DeadlineInputStream(InputStream in, URI uri, long stallNanos, long deadline) {
+            super(in);
+            this.uri = uri;
+            this.stallNanos = stallNanos;
+            this.deadline = deadline;
+        }
+        @Override public int read() throws IOException {
+            begin();
+            try {
+                return super.read();
+            } catch(IOException e) {
+                throw expired(e);
+            } finally {
+                readingSince = 0;
+            }
+        }
+        @Override public int read(byte[] buf, int off, int len) throws IOException {
+            begin();
+            try {
+                return super.read(buf, off, len);
+            } catch(IOException e) {
+                throw expired(e);
+            } finally {
+                readingSince = 0;
+            }
+        }
+        @Override public void close() throws IOException {
+            openBodies.remove(this);
+            super.close();
+        }
+        private void begin() throws IOException {
+            if(expired!=null) throw new IOException("Body of " + uri + " " + expired);
+            readingSince = System.nanoTime();
+        }
+        private IOException expired(IOException e) {
+            return expired==null ? e : new IOException("Body of " + uri + " " + expired, e);
+        }
+        void expireIfDue(long now) {
+            long since = readingSince;
+            if(now - deadline > 0) expired = "not read within " + TimeUnit.NANOSECONDS.toMillis(bodyTimeoutNanos) + " ms";
+            else if(since!=0 && now - since > stallNanos) expired = "stalled for " + TimeUnit.NANOSECONDS.toMillis(stallNanos) + " ms";
+            else return;
+            try {
+                close();
+            } catch(IOException ignored) {}
+        }
+    }
+    private static final class CappedInputStream extends FilterInputStream {
+        private final long cap;
+        private final URI uri;
+        private long read;
+        CappedInputStream(InputStream in, long cap, URI uri) {
+            super(in);
+            this.cap = cap;
+            this.uri = uri;
+        }
+        @Override public int read() throws IOException {
+            int b = super.read();
+            if(b >= 0) count(1);
+            return b;
+        }
+        @Override public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if(n > 0) count(n);
+            return n;
+        }
+        private void count(int n) throws IOException {
+            read += n;
+            if(read > cap) throw new IOException("Body of " + uri + " exceeds the " + cap + " byte cap");
+        }
+    }
+}
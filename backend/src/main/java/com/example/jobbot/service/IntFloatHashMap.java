@@ -0,0 +1,53 @@
+package com.example.jobbot.service;
+import java.util.Arrays;
+/** Open-addressing int to float map without boxing; used for sparse term vectors. */
+public class IntFloatHashMap {
+    private static final int EMPTY = -1;
+    private int[] keys;
+    private float[] values;
+    private int size;
+    public IntFloatHashMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new int[cap];
+        values = new float[cap];
+        Arrays.fill(keys, EMPTY);
+    }
+    public int size() { return size; }
+    public float get(int key) {
+        int mask = keys.length - 1;
+        for(int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            int k = keys[i];
+            if(k == key) return values[i];
+            if(k == EMPTY) return 0f;
+        }
+    }
+    public void addTo(int key, float delta) {
+        if(key < 0) throw new IllegalArgumentException("negative key");
+        if((size + 1) * 2 > keys.length) rehash();
+        int mask = keys.length - 1;
+        for(int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            if(keys[i] == key) { values[i] += delta; return; }
+            if(keys[i] == EMPTY) { keys[i] = key; values[i] = delta; size++; return; }
+        }
+    }
+    public void put(int key, float value) {
+        float cur = get(key);
+        addTo(key, value - cur);
+    }
+    public interface Visitor { void visit(int key, float value); }
+    public void forEach(Visitor v) {
+        for(int i = 0; i < keys.length; i++) if(keys[i] != EMPTY) v.visit(keys[i], values[i]);
+    }
+    private void rehash() {
+        int[] oldKeys = keys; float[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new float[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for(int i = 0; i < oldKeys.length; i++) if(oldKeys[i] != EMPTY) addTo(oldKeys[i], oldValues[i]);
+    }
+    private static int mix(int k) {
+        int h = k * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.JobSource;
+import com.example.jobbot.model.PostingState;
+import com.example.jobbot.repository.JobPostingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+/**
+ * Writes staged postings in a single transaction per flush. IDs come from the pooled
+ * {@code job_posting_seq} sequence so Hibernate can group the inserts into JDBC batches.
+ * A posting already stored for the same source is rewritten only when its fingerprint changed;
+ * otherwise just its {@code lastSeenAt} is moved, and at most once per {@code last-seen-granularity}.
+ */
+@Service
+public class JobPostingWriter {
+    private static final Logger log = LoggerFactory.getLogger(JobPostingWriter.class);
+    private static final int UPDATE_CHUNK = 1000;
+    private final JobPostingRepository jobRepo;
+    private final PostingDedupIndex dedup;
+    private final PostingDescriptions descriptions;
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final int flushSize;
+    private final ObjectProvider<PostingIngestListener> listeners;
+    private final ScrapeMetrics metrics;
+    private final Duration lastSeenGranularity;
+    private final double maxCloseFraction;
+    private final PostingBatch.Flusher flusher = new PostingBatch.Flusher() {
+        @Override public FlushResult write(List<JobPosting> staged) {
+            return JobPostingWriter.this.write(staged);
+        }
+        @Override public int closeMissing(JobSource source, Set<String> seenKeys) {
+            return JobPostingWriter.this.closeMissing(source, seenKeys);
+        }
+    };
+    public JobPostingWriter(JobPostingRepository jobRepo, PostingDedupIndex dedup, PostingDescriptions descriptions, EntityManager em,
+                            PlatformTransactionManager txManager, ObjectProvider<PostingIngestListener> listeners, ScrapeMetrics metrics,
+                            @Value("${jobbot.persist.flush-size:500}") int flushSize,
+                            @Value("${jobbot.lifecycle.last-seen-granularity-minutes:360}") long lastSeenGranularityMinutes,
+                            @Value("${jobbot.lifecycle.max-close-fraction:0.5}") double maxCloseFraction) {
+        this.jobRepo = jobRepo;
+        this.dedup = dedup;
+        this.descriptions = descriptions;
+        this.em = em;
+        this.tx = new TransactionTemplate(txManager);
+        this.flushSize = flushSize;
+        this.listeners = listeners;
+        this.metrics = metrics;
+        this.lastSeenGranularity = Duration.ofMinutes(lastSeenGranularityMinutes);
+        this.maxCloseFraction = maxCloseFraction;
+    }
+    /**
+     * Tables created before postings switched from IDENTITY to a sequence already hold ids the
+     * fresh sequence would hand out again, so move the sequence past them before any insert.
+     */
+    @PostConstruct
+    public void alignSequence() {
+        tx.executeWithoutResult(status -> {
+            Long max = jobRepo.findMaxId();
+            if(max==null) return;
+            Number current = (Number) em.createNativeQuery(
+                    "select base_value from information_schema.sequences where lower(sequence_name) = 'job_posting_seq'")
+                    .getResultStream().findFirst().orElse(null);
+            if(current!=null && current.longValue() > max + 50) return;
+            em.createNativeQuery("alter sequence job_posting_seq restart with " + (max + 51)).executeUpdate();
+            log.info("sequence_aligned sequence=job_posting_seq max_id={}", max);
+        });
+    }
+    /**
+     * Postings stored before they carried a source id are matched to their source by the name (or
+     * URL) that {@link PostingBatch} recorded, so lifecycle tracking covers them too.
+     */
+    @PostConstruct
+    public void backfillSourceIds() {
+        tx.executeWithoutResult(status -> {
+            int n = jobRepo.backfillSourceIds();
+            if(n > 0) log.info("source_ids_backfilled postings={}", n);
+        });
+    }
+    public PostingBatch newBatch(JobSource source) {
+        return new PostingBatch(source, flusher, flushSize);
+    }
+    FlushResult write(List<JobPosting> staged) {
+        long start = System.nanoTime();
+        FlushResult r;
+        try {
+            r = apply(staged, true);
+        } catch(DataIntegrityViolationException e) {
+            // another writer, maybe on another node, inserted one of our keys since the lookup; re-read past the filter and try once more
+            r = apply(staged, false);
+        }
+        metrics.persisted(System.nanoTime() - start);
+        return r;
+    }
+    private FlushResult apply(List<JobPosting> staged, boolean filtered) {
+        List<JobPosting> fresh = new ArrayList<>();
+        List<JobPosting> changed = new ArrayList<>();
+        int[] skipped = {0};
+        tx.executeWithoutResult(status -> {
+            fresh.clear();
+            changed.clear();
+            skipped[0] = 0;
+            Instant now = Instant.now();
+            Instant staleBefore = now.minus(lastSeenGranularity);
+            Map<String, PostingState> stored = dedup.lookup(staged.stream().map(JobPosting::getUrlKey).toList(), filtered);
+            Map<Long, JobPosting> updates = new HashMap<>();
+            List<Long> touch = new ArrayList<>();
+            for(JobPosting j : staged) {
+                PostingState st = stored.get(j.getUrlKey());
+                if(st==null) {
+                    j.setId(null);
+                    j.setChangedAt(now);
+                    fresh.add(j);
+                } else if(j.getSourceId()==null || (st.sourceId()!=null && !st.sourceId().equals(j.getSourceId()))) {
+                    // same URL listed by another source: the first one keeps it
+                    skipped[0]++;
+                } else if(st.sourceId()!=null && st.closedAt()==null && j.getContentHash().equals(st.contentHash())) {
+                    skipped[0]++;
+                    if(st.lastSeenAt()==null || st.lastSeenAt().isBefore(staleBefore)) touch.add(st.id());
+                } else {
+                    updates.put(st.id(), j);
+                }
+            }
+            jobRepo.saveAll(fresh);
+            descriptions.insert(fresh);
+            for(int i = 0; i < touch.size(); i += UPDATE_CHUNK) {
+                jobRepo.touch(touch.subList(i, Math.min(touch.size(), i + UPDATE_CHUNK)), now);
+            }
+            if(!updates.isEmpty()) {
+                for(JobPosting row : jobRepo.findAllById(updates.keySet())) {
+                    copyContent(updates.get(row.getId()), row);
+                    row.setChangedAt(now);
+                    descriptions.replace(row);
+                    changed.add(row);
+                }
+            }
+            // through the repository proxy, so a duplicate key surfaces as DataIntegrityViolationException
+            jobRepo.flush();
+        });
+        fresh.forEach(j -> dedup.add(j.getUrlKey()));
+        if(!fresh.isEmpty()) notifyListeners(l -> l.onInserted(fresh));
+        if(!changed.isEmpty()) notifyListeners(l -> l.onUpdated(changed));
+        return new FlushResult(fresh.size(), skipped[0], changed.size(), 0);
+    }
+    /** Takes the staged content over into the stored row; id, URL, first fetch time and publish date stay. */
+    private static void copyContent(JobPosting from, JobPosting row) {
+        row.setTitle(from.getTitle());
+        row.setCompany(from.getCompany());
+        row.setLocation(from.getLocation());
+        row.setDepartment(from.getDepartment());
+        row.setDescription(from.getDescription());
+        row.setContentHash(from.getContentHash());
+        row.setSource(from.getSource());
+        row.setSourceId(from.getSourceId());
+        row.setLastSeenAt(from.getLastSeenAt());
+        row.setClosedAt(null);
+        if(row.getPostedAt()==null) row.setPostedAt(from.getPostedAt());
+    }
+    /**
+     * Set difference of the source's open postings against the URL keys its complete listing
+     * produced. Refuses to close more than {@code max-close-fraction} of them at once, since
+     * that usually means the listing came back truncated rather than that the jobs are gone.
+     */
+    int closeMissing(JobSource source, Set<String> seenKeys) {
+        if(source.getId()==null) return 0;
+        long start = System.nanoTime();
+        List<Long> gone = new ArrayList<>();
+        tx.executeWithoutResult(status -> {
+            gone.clear();
+            List<Object[]> open = jobRepo.findOpenKeysBySourceId(source.getId());
+            List<Long> seen = new ArrayList<>();
+            for(Object[] row : open) (seenKeys.contains((String) row[1]) ? seen : gone).add((Long) row[0]);
+            Instant now = Instant.now();
+            if(gone.size() > 10 && gone.size() > open.size() * maxCloseFraction) {
+                log.warn("close_skipped source=\"{}\" open={} missing={} listed={}", source.getName(), open.size(), gone.size(), seenKeys.size());
+                gone.clear();
+                // the missing postings stay open but unseen, so retention can still age them out
+                for(int i = 0; i < seen.size(); i += UPDATE_CHUNK) {
+                    jobRepo.touch(seen.subList(i, Math.min(seen.size(), i + UPDATE_CHUNK)), now);
+                }
+                return;
+            }
+            for(int i = 0; i < gone.size(); i += UPDATE_CHUNK) {
+                jobRepo.close(gone.subList(i, Math.min(gone.size(), i + UPDATE_CHUNK)), now);
+            }
+            // everything still open was in the listing, including what the connector skipped as known
+            jobRepo.touchOpen(source.getId(), now, now.minus(lastSeenGranularity));
+        });
+        metrics.persisted(System.nanoTime() - start);
+        if(!gone.isEmpty()) notifyListeners(l -> l.onClosed(gone));
+        return gone.size();
+    }
+    /**
+     * For a listing that came back unchanged: its open postings are still there, so their
+     * {@code lastSeenAt} moves on as if it had been parsed, and retention leaves them alone.
+     */
+    public void stillListed(JobSource source) {
+        if(source.getId()==null) return;
+        Instant now = Instant.now();
+        tx.executeWithoutResult(status -> jobRepo.touchOpen(source.getId(), now, now.minus(lastSeenGranularity)));
+    }
+    /** Postings moved out of the database by {@link PostingArchiver}; listeners drop them like closed ones. */
+    public void removed(Collection<Long> postingIds) {
+        if(!postingIds.isEmpty()) notifyListeners(l -> l.onClosed(postingIds));
+    }
+    private void notifyListeners(Consumer<PostingIngestListener> event) {
+        listeners.orderedStream().forEach(l -> {
+            try {
+                event.accept(l);
+            } catch(Exception e) {
+                log.warn("ingest_listener_failed listener={} error=\"{}\"", l.getClass().getSimpleName(), e.getMessage());
+            }
+        });
+    }
+}
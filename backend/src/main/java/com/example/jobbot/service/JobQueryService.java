@@ -0,0 +1,128 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.JobSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+/**
+ * Keyset-paginated, filtered reads over {@link JobPosting}, newest first; the cursor is the last
+ * posting id of the previous page. Each page walks one index that already holds rows in page order,
+ * and the ORDER BY leads with that index's columns, since that is the only way H2 stops after
+ * {@code limit} matches instead of sorting every match. The index is picked by the company filter,
+ * else the source, else a date range (which pages by {@code fetchedAt}, then id), else it is
+ * {@code id} descending. The remaining filters are checked along the walk, so a page reads about
+ * {@code limit} rows divided by the share of rows that pass them.
+ */
+@Service
+public class JobQueryService {
+    private static final String SUMMARY = "select new com.example.jobbot.model.JobSummary(j.id, j.source, j.title, j.company, j.location, j.url, j.postedAt, j.fetchedAt)";
+    private static final String WITH_DESCRIPTION = "select j, d.body from JobPosting j left join PostingDescription d on d.postingId = j.id";
+    private final EntityManager em;
+    private final TransactionTemplate readTx;
+    private final ObjectMapper mapper;
+    private final PostingDescriptions descriptions;
+    public JobQueryService(EntityManager em, PlatformTransactionManager txManager, ObjectMapper mapper, PostingDescriptions descriptions) {
+        this.em = em;
+        this.mapper = mapper;
+        this.descriptions = descriptions;
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+    }
+    public static class Filter {
+        public Long before; public String source; public String company; public Instant from; public Instant to;
+        public boolean includeClosed; public boolean collapse;
+    }
+    public List<JobSummary> summaries(Filter f, int limit) {
+        return query(SUMMARY, JobSummary.class, f).setMaxResults(limit).getResultList();
+    }
+    /** Full postings, descriptions included. */
+    public List<JobPosting> postings(Filter f, int limit) {
+        List<JobPosting> page = query("select j", JobPosting.class, f).setMaxResults(limit).getResultList();
+        descriptions.fill(page);
+        return page;
+    }
+    /** Writes every matching row as one JSON object per line without materializing the result. */
+    public void exportNdjson(Filter f, boolean withDescription, OutputStream out) {
+        readTx.executeWithoutResult(status -> {
+            try(SequenceWriter w = mapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                if(withDescription) {
+                    try(Stream<Object[]> rows = query(WITH_DESCRIPTION, Object[].class, f).setHint("org.hibernate.fetchSize", 500).getResultStream()) {
+                        rows.map(PostingDescriptions::attach).forEach(j -> { write(w, j); em.detach(j); });
+                    }
+                } else {
+                    try(Stream<JobSummary> rows = query(SUMMARY, JobSummary.class, f).setHint("org.hibernate.fetchSize", 500).getResultStream()) {
+                        rows.forEach(j -> write(w, j));
+                    }
+                }
+                w.flush();
+                out.write('\n');
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    private static void write(SequenceWriter w, Object row) {
+        try {
+            w.write(row);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    private <T> TypedQuery<T> query(String select, Class<T> type, Filter f) {
+        StringBuilder jpql = new StringBuilder(select);
+        if(select.indexOf(" from ") < 0) jpql.append(" from JobPosting j");
+        jpql.append(" where 1=1");
+        Map<String, Object> params = new HashMap<>();
+        boolean byCompany = present(f.company), bySource = !byCompany && present(f.source);
+        boolean byFetched = !byCompany && !bySource && (f.from!=null || f.to!=null);
+        Instant cursorAt = null;
+        if(f.before!=null && byFetched) {
+            // the cursor posting's fetch time is where that page stopped; an archived cursor ends the listing
+            cursorAt = em.createQuery("select j.fetchedAt from JobPosting j where j.id = :id", Instant.class).setParameter("id", f.before)
+                    .getResultList().stream().filter(Objects::nonNull).findFirst().orElse(null);
+            if(cursorAt==null) jpql.append(" and 1=0");
+        }
+        conditions(jpql, "j", f, params, cursorAt);
+        if(f.collapse) {
+            // hide a duplicate only when its canonical posting is in the filtered set to stand for it
+            jpql.append(" and (j.canonicalId is null or not exists (select c.id from JobPosting c where c.id = j.canonicalId");
+            conditions(jpql, "c", f, params, null);
+            jpql.append("))");
+        }
+        if(cursorAt!=null) { jpql.append(" and (j.fetchedAt < :cursorAt or j.id < :before)"); params.put("cursorAt", cursorAt); params.put("before", f.before); }
+        else if(f.before!=null && !byFetched) { jpql.append(" and j.id < :before"); params.put("before", f.before); }
+        jpql.append(byCompany ? " order by j.companyKey, j.id desc" : bySource ? " order by j.source, j.id desc" : byFetched ? " order by j.fetchedAt desc, j.id desc" : " order by j.id desc");
+        TypedQuery<T> q = em.createQuery(jpql.toString(), type);
+        params.forEach(q::setParameter);
+        return q;
+    }
+    /**
+     * Filter conditions on alias {@code a}. With a {@code fetchedAt} cursor only the tighter of it and
+     * {@code to} is written: H2 starts the index range at one upper bound and would walk from the other.
+     */
+    private static void conditions(StringBuilder jpql, String a, Filter f, Map<String, Object> params, Instant cursorAt) {
+        if(!f.includeClosed) jpql.append(" and ").append(a).append(".closedAt is null");
+        if(present(f.source)) { jpql.append(" and ").append(a).append(".source = :source"); params.put("source", f.source); }
+        if(present(f.company)) { jpql.append(" and ").append(a).append(".companyKey = :company"); params.put("company", f.company.toLowerCase(Locale.ROOT)); }
+        if(f.from!=null) { jpql.append(" and ").append(a).append(".fetchedAt >= :from"); params.put("from", f.from); }
+        if(cursorAt!=null && (f.to==null || cursorAt.isBefore(f.to))) { jpql.append(" and ").append(a).append(".fetchedAt <= :cursorAt"); params.put("cursorAt", cursorAt); }
+        else if(f.to!=null) { jpql.append(" and ").append(a).append(".fetchedAt < :to"); params.put("to", f.to); }
+    }
+    private static boolean present(String s) {
+        return s!=null && !s.isBlank();
+    }
+}
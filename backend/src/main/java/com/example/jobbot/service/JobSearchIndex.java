@@ -0,0 +1,262 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.repository.JobPostingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.LockObtainFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+/**
+ * Embedded Lucene index over posting title, company and description. Updated incrementally
+ * from {@link JobPostingWriter} flushes and served through a near-real-time searcher; commits
+ * to disk happen on a timer and at shutdown. Each commit records when it was taken, and on
+ * startup the postings changed since then, less {@code catch-up-slack-ms} for flushes that were
+ * still notifying, are indexed again; so a crash loses nothing the database kept. An empty index,
+ * or one written before commits were stamped, is rebuilt in the background instead.
+ */
+@Service
+@Order(0)
+public class JobSearchIndex implements PostingIngestListener {
+    private static final Logger log = LoggerFactory.getLogger(JobSearchIndex.class);
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of("title", 3f, "company", 2f, "description", 1f);
+    /** Commit user data: epoch millis before which every notified change is in the commit. */
+    private static final String INDEXED_THROUGH = "indexed_through";
+    private final JobPostingRepository jobRepo;
+    private final EntityManager em;
+    private final TransactionTemplate readTx;
+    private final String indexDir;
+    private final Duration catchUpSlack;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searchers;
+    /** False while a rebuild runs; until then a commit would be stamped over a partial index. */
+    private volatile boolean complete;
+    public JobSearchIndex(JobPostingRepository jobRepo, EntityManager em, PlatformTransactionManager txManager,
+                          @Value("${jobbot.search.index-dir:./data/search-index}") String indexDir,
+                          @Value("${jobbot.search.catch-up-slack-ms:60000}") long catchUpSlackMs) {
+        this.jobRepo = jobRepo;
+        this.em = em;
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.indexDir = indexDir;
+        this.catchUpSlack = Duration.ofMillis(catchUpSlackMs);
+    }
+    @PostConstruct
+    public void open() throws IOException {
+        directory = "memory".equals(indexDir) ? new ByteBuffersDirectory() : FSDirectory.open(Paths.get(indexDir));
+        try {
+            writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        } catch(LockObtainFailedException e) {
+            throw new IllegalStateException("search index " + indexDir + " is in use by another process; give each node its own jobbot.search.index-dir", e);
+        }
+        searchers = new SearcherManager(writer, null);
+        String through = null;
+        if(writer.getLiveCommitData()!=null) {
+            for(Map.Entry<String, String> e : writer.getLiveCommitData()) if(e.getKey().equals(INDEXED_THROUGH)) through = e.getValue();
+        }
+        if(through!=null && writer.getDocStats().numDocs > 0) {
+            // before any flush can notify, so nothing read here overwrites a newer version
+            Instant since = Instant.ofEpochMilli(Long.parseLong(through)).minus(catchUpSlack);
+            try {
+                catchUp(since);
+                complete = true;
+                return;
+            } catch(Exception e) {
+                log.warn("search_index_catch_up_failed since={} error=\"{}\"", since, e.getMessage());
+            }
+        }
+        writer.deleteAll();
+        Thread t = new Thread(this::rebuild, "search-index-rebuild");
+        t.setDaemon(true);
+        t.start();
+    }
+    @PreDestroy
+    public void close() throws IOException {
+        commit();
+        searchers.close();
+        writer.close();
+        directory.close();
+    }
+    @Scheduled(fixedDelayString = "${jobbot.search.commit-interval-ms:60000}")
+    public void commit() throws IOException {
+        if(complete && writer.hasUncommittedChanges()) commit(Instant.now());
+    }
+    /** Commits, stamped with a time before which every change this index was told about is included. */
+    private void commit(Instant through) throws IOException {
+        writer.setLiveCommitData(Map.of(INDEXED_THROUGH, String.valueOf(through.toEpochMilli())).entrySet());
+        writer.commit();
+    }
+    @Override public void onInserted(List<JobPosting> postings) {
+        try {
+            for(JobPosting j : postings) index(j);
+            searchers.maybeRefresh();
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    @Override public void onClosed(Collection<Long> postingIds) {
+        try {
+            for(Long id : postingIds) writer.deleteDocuments(new Term("id", String.valueOf(id)));
+            searchers.maybeRefresh();
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    private void index(JobPosting j) throws IOException {
+        Document d = new Document();
+        d.add(new StringField("id", String.valueOf(j.getId()), Field.Store.YES));
+        d.add(new TextField("title", nz(j.getTitle()), Field.Store.YES));
+        d.add(new TextField("company", nz(j.getCompany()), Field.Store.YES));
+        d.add(new TextField("description", nz(j.getDescription()), Field.Store.YES));
+        d.add(new StoredField("url", nz(j.getUrl())));
+        d.add(new StoredField("source", nz(j.getSource())));
+        writer.updateDocument(new Term("id", String.valueOf(j.getId())), d);
+    }
+    private void rebuild() {
+        try {
+            Instant started = Instant.now();
+            long[] count = {0};
+            readTx.executeWithoutResult(status -> {
+                try(Stream<JobPosting> rows = jobRepo.streamAllWithDescription().map(PostingDescriptions::attach)) {
+                    rows.forEach(j -> {
+                        try {
+                            if(j.getClosedAt()==null) index(j);
+                        } catch(IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        em.detach(j);
+                        count[0]++;
+                    });
+                }
+            });
+            commit(started);
+            complete = true;
+            searchers.maybeRefresh();
+            if(count[0] > 0) log.info("search_index_rebuilt postings={}", count[0]);
+        } catch(Exception e) {
+            log.warn("search_index_rebuild_failed error=\"{}\"", e.getMessage());
+        }
+    }
+    /** Indexes again, or drops, every posting changed since {@code since}; updates are idempotent. */
+    private void catchUp(Instant since) throws IOException {
+        Instant started = Instant.now();
+        long[] count = {0};
+        readTx.executeWithoutResult(status -> {
+            try(Stream<JobPosting> rows = jobRepo.streamChangedWithDescription(since).map(PostingDescriptions::attach)) {
+                rows.forEach(j -> {
+                    try {
+                        if(j.getClosedAt()==null) index(j);
+                        else writer.deleteDocuments(new Term("id", String.valueOf(j.getId())));
+                    } catch(IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    em.detach(j);
+                    count[0]++;
+                });
+            }
+        });
+        commit(started);
+        searchers.maybeRefresh();
+        log.info("search_index_caught_up since={} postings={}", since, count[0]);
+    }
+    /** Ranked search: every query term must match some field, either exactly or as a prefix. */
+    public Map<String,Object> search(String q, int limit) throws IOException {
+        List<String> terms = analyze(q);
+        Map<String,Object> out = new LinkedHashMap<>();
+        if(terms.isEmpty()) {
+            out.put("total", 0);
+            out.put("items", List.of());
+            return out;
+        }
+        BooleanQuery.Builder root = new BooleanQuery.Builder();
+        for(String t : terms) {
+            BooleanQuery.Builder any = new BooleanQuery.Builder();
+            FIELD_BOOSTS.forEach((field, boost) -> {
+                any.add(new BoostQuery(new TermQuery(new Term(field, t)), boost), BooleanClause.Occur.SHOULD);
+                if(t.length() >= 2) any.add(new BoostQuery(new PrefixQuery(new Term(field, t)), boost * 0.5f), BooleanClause.Occur.SHOULD);
+            });
+            root.add(any.build(), BooleanClause.Occur.MUST);
+        }
+        Query query = root.build();
+        IndexSearcher searcher = searchers.acquire();
+        try {
+            TopDocs top = searcher.search(query, limit);
+            String[] snippets = UnifiedHighlighter.builder(searcher, analyzer).withMaxLength(20000).build()
+                    .highlight("description", query, top, 2);
+            List<Map<String,Object>> items = new ArrayList<>();
+            List<Long> ids = new ArrayList<>(top.scoreDocs.length);
+            for(ScoreDoc sd : top.scoreDocs) ids.add(Long.valueOf(searcher.storedFields().document(sd.doc).get("id")));
+            // another node may have archived some; their rows are gone, so this index never hears of it
+            Set<Long> existing = ids.isEmpty() ? Set.of() : new HashSet<>(jobRepo.findExistingIds(ids));
+            long gone = 0;
+            for(int i = 0; i < top.scoreDocs.length; i++) {
+                if(!existing.contains(ids.get(i))) {
+                    writer.deleteDocuments(new Term("id", String.valueOf(ids.get(i))));
+                    gone++;
+                    continue;
+                }
+                Document d = searcher.storedFields().document(top.scoreDocs[i].doc);
+                Map<String,Object> m = new LinkedHashMap<>();
+                m.put("id", Long.valueOf(d.get("id")));
+                m.put("title", d.get("title"));
+                m.put("company", d.get("company"));
+                m.put("url", d.get("url"));
+                m.put("source", d.get("source"));
+                m.put("score", top.scoreDocs[i].score);
+                m.put("snippet", snippets[i]);
+                items.add(m);
+            }
+            out.put("total", top.totalHits.value - gone);
+            out.put("items", items);
+            return out;
+        } finally {
+            searchers.release(searcher);
+        }
+    }
+    private List<String> analyze(String text) throws IOException {
+        List<String> terms = new ArrayList<>();
+        if(text==null) return terms;
+        try(TokenStream ts = analyzer.tokenStream("description", text)) {
+            CharTermAttribute attr = ts.addAttribute(CharTermAttribute.class);
+            ts.reset();
+            while(ts.incrementToken()) terms.add(attr.toString());
+            ts.end();
+        }
+        return terms;
+    }
+    private static String nz(String s) {
+        return s==null ? "" : s;
+    }
+}
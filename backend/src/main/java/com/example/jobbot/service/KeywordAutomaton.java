@@ -0,0 +1,144 @@
+package com.example.jobbot.service;
+import java.util.*;
+import java.util.function.IntConsumer;
+/**
+ * Aho-Corasick automaton finding every keyword of a fixed set in one pass over a text. Keywords
+ * and text are put through {@link #normalize} (lower case, each run of other characters becomes
+ * one space), so multi-word phrases match across punctuation and a whole-word check only has to
+ * look at the character on either side. Transitions sit in flat arrays, sorted per state, with a
+ * direct table for ASCII out of the root where most lookups land after a failure.
+ */
+public final class KeywordAutomaton {
+    private final int[] first;
+    private final char[] label;
+    private final int[] target;
+    private final int[] fail;
+    /** Keyword ending at the state, or -1. */
+    private final int[] keywordAt;
+    /** Nearest state on the failure chain that ends a keyword, or -1. */
+    private final int[] outLink;
+    private final int[] lengths;
+    private final int[] rootAscii = new int[128];
+    /** Keyword ids are their positions in {@code keywords}, which must already be normalized and distinct. */
+    public KeywordAutomaton(List<String> keywords) {
+        List<Map<Character, Integer>> next = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        next.add(new HashMap<>());
+        ends.add(-1);
+        lengths = new int[keywords.size()];
+        for(int k = 0; k < keywords.size(); k++) {
+            String w = keywords.get(k);
+            lengths[k] = w.length();
+            int s = 0;
+            for(int i = 0; i < w.length(); i++) {
+                Integer t = next.get(s).get(w.charAt(i));
+                if(t==null) {
+                    t = next.size();
+                    next.get(s).put(w.charAt(i), t);
+                    next.add(new HashMap<>());
+                    ends.add(-1);
+                }
+                s = t;
+            }
+            ends.set(s, k);
+        }
+        int n = next.size();
+        fail = new int[n];
+        keywordAt = new int[n];
+        outLink = new int[n];
+        for(int s = 0; s < n; s++) keywordAt[s] = ends.get(s);
+        outLink[0] = -1;
+        // breadth first, so a state's failure target is final before its children need it
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for(int t : next.get(0).values()) {
+            outLink[t] = -1;
+            queue.add(t);
+        }
+        while(!queue.isEmpty()) {
+            int s = queue.poll();
+            for(Map.Entry<Character, Integer> e : next.get(s).entrySet()) {
+                char c = e.getKey();
+                int t = e.getValue();
+                int f = fail[s];
+                while(f!=0 && !next.get(f).containsKey(c)) f = fail[f];
+                Integer g = next.get(f).get(c);
+                fail[t] = g!=null ? g : 0;
+                outLink[t] = keywordAt[fail[t]] >= 0 ? fail[t] : outLink[fail[t]];
+                queue.add(t);
+            }
+        }
+        first = new int[n + 1];
+        label = new char[n - 1];
+        target = new int[n - 1];
+        int at = 0;
+        for(int s = 0; s < n; s++) {
+            first[s] = at;
+            TreeMap<Character, Integer> sorted = new TreeMap<>(next.get(s));
+            for(Map.Entry<Character, Integer> e : sorted.entrySet()) {
+                label[at] = e.getKey();
+                target[at++] = e.getValue();
+            }
+        }
+        first[n] = at;
+        for(Map.Entry<Character, Integer> e : next.get(0).entrySet()) if(e.getKey() < 128) rootAscii[e.getKey()] = e.getValue();
+    }
+    public int size() {
+        return lengths.length;
+    }
+    /** Reports the id of every whole-word keyword occurrence in normalized {@code text}, repeats included. */
+    public void match(CharSequence text, IntConsumer found) {
+        int n = text.length();
+        int s = 0;
+        for(int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            int t;
+            while((t = step(s, c)) < 0) s = fail[s];
+            s = t;
+            for(int o = keywordAt[s] >= 0 ? s : outLink[s]; o >= 0; o = outLink[o]) {
+                int k = keywordAt[o];
+                int start = i - lengths[k] + 1;
+                if((start==0 || text.charAt(start - 1)==' ') && (i + 1==n || text.charAt(i + 1)==' ')) found.accept(k);
+            }
+        }
+    }
+    /** Next state on {@code c}; -1 to follow the failure link (never from the root). */
+    private int step(int s, char c) {
+        if(s==0 && c < 128) return rootAscii[c];
+        int lo = first[s], hi = first[s + 1] - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char m = label[mid];
+            if(m < c) lo = mid + 1;
+            else if(m > c) hi = mid - 1;
+            else return target[mid];
+        }
+        return s==0 ? 0 : -1;
+    }
+    /** Lower case with every run of characters that are not letters, digits, '+' or '#' turned into one space. */
+    public static String normalize(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        appendNormalized(out, text);
+        int end = out.length();
+        if(end > 0 && out.charAt(end - 1)==' ') out.setLength(end - 1);
+        return out.toString();
+    }
+    /** Appends {@code text} normalized to {@code out}, separated from what is already there by a space. */
+    public static void appendNormalized(StringBuilder out, String text) {
+        if(text==null) return;
+        boolean space = out.length()==0 || out.charAt(out.length() - 1)==' ';
+        if(!space) {
+            out.append(' ');
+            space = true;
+        }
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(Character.isLetterOrDigit(c) || c=='+' || c=='#') {
+                out.append(Character.toLowerCase(c));
+                space = false;
+            } else if(!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.JobSource;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+/**
+ * Lever sites (jobs.lever.co/{site} or the api.lever.co postings URL) read through the public
+ * Postings API. The API has no update timestamp, so a posting's version is a hash of its content.
+ */
+@Component
+@Order(20)
+public class LeverConnector extends BoardApiConnector {
+    private final String apiBase;
+    public LeverConnector(PageFetcher fetcher, JobPostingWriter writer, ScrapeMetrics metrics,
+                          @Value("${jobbot.connectors.lever.api-base:https://api.lever.co}") String apiBase) {
+        super(fetcher, writer, metrics);
+        this.apiBase = apiBase;
+    }
+    static String site(String url) {
+        try {
+            URI u = new URI(url.trim());
+            String host = u.getHost()==null ? "" : u.getHost().toLowerCase();
+            if(!host.endsWith("lever.co")) return null;
+            String[] parts = u.getPath()==null ? new String[0] : u.getPath().split("/");
+            if(host.startsWith("api.")) {
+                // /v0/postings/{site}
+                return parts.length > 3 && parts[2].equals("postings") ? parts[3] : null;
+            }
+            return parts.length > 1 && !parts[1].isBlank() ? parts[1] : null;
+        } catch(Exception e) {
+            return null;
+        }
+    }
+    @Override protected String apiUrl(JobSource s) {
+        String site = site(s.getUrl());
+        if(site==null) return null;
+        String host = HostRateLimiter.hostOf(s.getUrl());
+        // api.eu.lever.co and friends are used as given
+        String base = host.startsWith("api.") ? "https://" + host : apiBase;
+        return base + "/v0/postings/" + site + "?mode=json";
+    }
+    @Override protected void read(JsonParser p, JobSource s, Delta delta, PostingBatch out) throws IOException {
+        JsonToken t = p.nextToken();
+        if(t==JsonToken.START_OBJECT) {
+            String error = null;
+            while(p.nextToken()==JsonToken.FIELD_NAME) {
+                String f = p.currentName();
+                p.nextToken();
+                if(f.equals("error")) error = p.getValueAsString();
+                else p.skipChildren();
+            }
+            throw new IOException("Lever API error for " + s.getUrl() + ": " + error);
+        }
+        if(t!=JsonToken.START_ARRAY) throw new IOException("Unexpected Lever response for " + s.getUrl());
+        while(p.nextToken()==JsonToken.START_OBJECT) posting(p, s, delta, out);
+    }
+    private void posting(JsonParser p, JobSource s, Delta delta, PostingBatch out) throws IOException {
+        JobPosting j = new JobPosting();
+        String id = null, applyUrl = null, description = null, additional = null, team = null;
+        StringBuilder lists = new StringBuilder();
+        Long updatedAt = null;
+        Instant created = null;
+        while(p.nextToken()==JsonToken.FIELD_NAME) {
+            String f = p.currentName();
+            p.nextToken();
+            switch(f) {
+                case "id" -> id = p.getValueAsString();
+                case "text" -> j.setTitle(p.getValueAsString());
+                case "hostedUrl" -> j.setUrl(p.getValueAsString());
+                case "applyUrl" -> applyUrl = p.getValueAsString();
+                case "createdAt" -> created = p.currentToken()==JsonToken.VALUE_NUMBER_INT ? Instant.ofEpochMilli(p.getLongValue()) : null;
+                case "updatedAt" -> updatedAt = p.currentToken()==JsonToken.VALUE_NUMBER_INT ? p.getLongValue() : null;
+                case "description" -> description = p.getValueAsString();
+                case "additional" -> additional = p.getValueAsString();
+                case "categories" -> {
+                    if(p.currentToken()!=JsonToken.START_OBJECT) { p.skipChildren(); break; }
+                    while(p.nextToken()==JsonToken.FIELD_NAME) {
+                        String c = p.currentName();
+                        p.nextToken();
+                        switch(c) {
+                            case "location" -> j.setLocation(p.getValueAsString());
+                            case "department" -> j.setDepartment(p.getValueAsString());
+                            case "team" -> team = p.getValueAsString();
+                            default -> p.skipChildren();
+                        }
+                    }
+                }
+                case "lists" -> {
+                    if(p.currentToken()!=JsonToken.START_ARRAY) { p.skipChildren(); break; }
+                    while(p.nextToken()==JsonToken.START_OBJECT) {
+                        String heading = null, content = null;
+                        while(p.nextToken()==JsonToken.FIELD_NAME) {
+                            String c = p.currentName();
+                            p.nextToken();
+                            if(c.equals("text")) heading = p.getValueAsString();
+                            else if(c.equals("content")) content = p.getValueAsString();
+                            else p.skipChildren();
+                        }
+                        if(heading!=null) lists.append("<h3>").append(heading).append("</h3>");
+                        if(content!=null) lists.append("<ul>").append(content).append("</ul>");
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+        if(id==null) return;
+        if(j.getDepartment()==null) j.setDepartment(team);
+        StringBuilder body = new StringBuilder();
+        if(description!=null) body.append(description);
+        body.append(lists);
+        if(additional!=null) body.append(additional);
+        j.setDescription(body.toString());
+        long version = updatedAt!=null ? updatedAt : contentVersion(j);
+        if(j.getUrl()==null) j.setUrl(applyUrl);
+        if(!delta.record(id, version)) {
+            out.seen(j.getUrl());
+            return;
+        }
+        j.setCompany(site(s.getUrl()));
+        j.setPostedAt(created);
+        out.add(j);
+    }
+    private static long contentVersion(JobPosting j) {
+        long h = 1125899906842597L;
+        for(String v : new String[]{j.getTitle(), j.getLocation(), j.getDepartment(), j.getDescription(), j.getUrl()}) {
+            h = 31 * h + (v==null ? 0 : v.hashCode());
+        }
+        return h;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.repository.JobPostingRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.*;
+import java.util.stream.Stream;
+/**
+ * Clusters near-duplicate open postings across sources (the same role from an aggregator feed, a
+ * board API and a careers page). Each posting's {@link MinHash} signature goes into an LSH band
+ * index, so a new posting is compared only with postings sharing a band. Matches above the
+ * threshold join one cluster whose lowest id is canonical; the others get {@code canonicalId}
+ * set, which is all {@code /api/jobs?collapse=true} needs. Postings of the same source are never
+ * matched with each other, since boards list one role per location with the same text.
+ */
+@Service
+@Order(2)
+public class NearDuplicateIndex implements PostingIngestListener, ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(NearDuplicateIndex.class);
+    private final JobPostingRepository jobRepo;
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readTx;
+    private final boolean enabled;
+    private final float threshold;
+    private final Map<Long, Entry> signatures = new HashMap<>();
+    private final Map<Long, Bucket> buckets = new HashMap<>();
+    /** Non-canonical member to its canonical id; always one hop. */
+    private final Map<Long, Long> canonicalOf = new HashMap<>();
+    /** Canonical id to its other members, only for clusters of two or more. */
+    private final Map<Long, List<Long>> members = new HashMap<>();
+    /** canonicalId as stored, while the initial load is still reconciling it; null afterwards. */
+    private Map<Long, Long> stored = new HashMap<>();
+    private record Entry(int[] sig, Long sourceId) {}
+    private static final class Bucket {
+        long[] ids = new long[2];
+        int size;
+        void add(long id) {
+            if(size==ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+        void remove(long id) {
+            for(int i = 0; i < size; i++) {
+                if(ids[i]==id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+    public NearDuplicateIndex(JobPostingRepository jobRepo, EntityManager em, PlatformTransactionManager txManager,
+                              @Value("${jobbot.dedup.near.enabled:true}") boolean enabled,
+                              @Value("${jobbot.dedup.near.threshold:0.7}") float threshold) {
+        this.jobRepo = jobRepo;
+        this.em = em;
+        this.tx = new TransactionTemplate(txManager);
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+    @Override public void run(ApplicationArguments args) {
+        if(!enabled) return;
+        Thread t = new Thread(() -> {
+            try {
+                Map<Long, Long> changes = new HashMap<>();
+                readTx.executeWithoutResult(status -> {
+                    try(Stream<JobPosting> rows = jobRepo.streamOpenWithDescription().map(PostingDescriptions::attach)) {
+                        rows.forEach(j -> {
+                            synchronized(this) {
+                                // an ingest may already have rewritten this row; what it wrote wins
+                                if(!stored.containsKey(j.getId())) stored.put(j.getId(), j.getCanonicalId());
+                                add(j, changes);
+                            }
+                            em.detach(j);
+                        });
+                    }
+                });
+                synchronized(this) {
+                    // write only where the clusters found differ from what is stored
+                    changes.clear();
+                    for(Long id : signatures.keySet()) {
+                        Long want = canonicalOf.get(id);
+                        if(stored.containsKey(id) && !Objects.equals(stored.get(id), want)) changes.put(id, want);
+                    }
+                    stored = null;
+                    persist(changes);
+                }
+                log.info("near_dup_index_loaded postings={} clusters={} duplicates={}", signatures.size(), members.size(), canonicalOf.size());
+            } catch(Exception e) {
+                log.warn("near_dup_index_load_failed error=\"{}\"", e.getMessage());
+            }
+        }, "near-dup-load");
+        t.setDaemon(true);
+        t.start();
+    }
+    @Override public synchronized void onInserted(List<JobPosting> postings) {
+        if(!enabled) return;
+        Map<Long, Long> changes = new HashMap<>();
+        for(JobPosting j : postings) add(j, changes);
+        persist(changes);
+    }
+    @Override public synchronized void onUpdated(List<JobPosting> postings) {
+        if(!enabled) return;
+        Map<Long, Long> changes = new HashMap<>();
+        for(JobPosting j : postings) {
+            remove(j.getId(), changes);
+            add(j, changes);
+        }
+        persist(changes);
+    }
+    @Override public synchronized void onClosed(Collection<Long> postingIds) {
+        if(!enabled) return;
+        Map<Long, Long> changes = new HashMap<>();
+        for(Long id : postingIds) remove(id, changes);
+        persist(changes);
+    }
+    /** Canonical id of the posting's cluster (the posting's own id when it has no duplicates). */
+    public synchronized long canonicalOf(long postingId) {
+        return canonicalOf.getOrDefault(postingId, postingId);
+    }
+    public synchronized int size() {
+        return signatures.size();
+    }
+    /** Indexes j and records in {@code changes} every posting whose canonical id moved (null = now canonical). */
+    private void add(JobPosting j, Map<Long, Long> changes) {
+        Long id = j.getId();
+        if(id==null || j.getClosedAt()!=null || signatures.containsKey(id)) return;
+        int[] sig = MinHash.signature(j.getTitle(), j.getCompany(), j.getDescription());
+        if(sig==null) return;
+        TreeSet<Long> roots = new TreeSet<>();
+        Set<Long> checked = new HashSet<>();
+        for(int band = 0; band < MinHash.BANDS; band++) {
+            Bucket b = buckets.get(MinHash.bandKey(sig, band));
+            if(b==null) continue;
+            for(int i = 0; i < b.size; i++) {
+                long other = b.ids[i];
+                if(!checked.add(other)) continue;
+                Entry e = signatures.get(other);
+                if(j.getSourceId()!=null && j.getSourceId().equals(e.sourceId())) continue;
+                if(MinHash.similarity(sig, e.sig()) >= threshold) roots.add(canonicalOf(other));
+            }
+        }
+        signatures.put(id, new Entry(sig, j.getSourceId()));
+        for(int band = 0; band < MinHash.BANDS; band++) {
+            buckets.computeIfAbsent(MinHash.bandKey(sig, band), k -> new Bucket()).add(id);
+        }
+        if(roots.isEmpty()) return;
+        roots.add(id);
+        long root = roots.first();
+        for(Long r : roots) {
+            if(r!=root) merge(r, root, changes);
+        }
+    }
+    /** Moves cluster {@code from} (its canonical posting and members) under {@code into}. */
+    private void merge(long from, long into, Map<Long, Long> changes) {
+        List<Long> target = members.computeIfAbsent(into, k -> new ArrayList<>());
+        List<Long> moved = members.remove(from);
+        target.add(from);
+        canonicalOf.put(from, into);
+        changes.put(from, into);
+        if(moved!=null) {
+            for(Long m : moved) {
+                canonicalOf.put(m, into);
+                changes.put(m, into);
+            }
+            target.addAll(moved);
+        }
+    }
+    /** Drops the posting; if it was canonical, the lowest remaining member takes over. */
+    private void remove(Long id, Map<Long, Long> changes) {
+        Entry entry = id==null ? null : signatures.remove(id);
+        if(entry==null) return;
+        int[] sig = entry.sig();
+        for(int band = 0; band < MinHash.BANDS; band++) {
+            long key = MinHash.bandKey(sig, band);
+            Bucket b = buckets.get(key);
+            if(b==null) continue;
+            b.remove(id);
+            if(b.size==0) buckets.remove(key);
+        }
+        Long root = canonicalOf.remove(id);
+        if(root!=null) {
+            List<Long> rest = members.get(root);
+            rest.remove(id);
+            if(rest.isEmpty()) members.remove(root);
+            changes.put(id, null);
+            return;
+        }
+        List<Long> rest = members.remove(id);
+        if(rest==null) return;
+        Long next = Collections.min(rest);
+        rest.remove(next);
+        canonicalOf.remove(next);
+        changes.put(next, null);
+        for(Long m : rest) {
+            canonicalOf.put(m, next);
+            changes.put(m, next);
+        }
+        if(!rest.isEmpty()) members.put(next, rest);
+    }
+    private void persist(Map<Long, Long> changes) {
+        if(changes.isEmpty()) return;
+        // while loading, keep the reconcile's view of the table current
+        if(stored!=null) stored.putAll(changes);
+        Map<Long, List<Long>> byCanonical = new HashMap<>();
+        List<Long> cleared = new ArrayList<>();
+        changes.forEach((id, c) -> {
+            if(c==null) cleared.add(id);
+            else byCanonical.computeIfAbsent(c, k -> new ArrayList<>()).add(id);
+        });
+        tx.executeWithoutResult(status -> {
+            if(!cleared.isEmpty()) jobRepo.clearCanonical(cleared);
+            byCanonical.forEach((c, ids) -> jobRepo.setCanonical(ids, c));
+        });
+    }
+}
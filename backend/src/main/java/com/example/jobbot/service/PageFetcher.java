@@ -0,0 +1,189 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobSource;
+import com.example.jobbot.model.SourceFetchState;
+import com.example.jobbot.repository.SourceFetchStateRepository;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.stereotype.Service;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+/**
+ * Fetches source pages conditionally. The ETag / Last-Modified of the last processed response
+ * are replayed as If-None-Match / If-Modified-Since, and a 200 whose body hashes to the last
+ * processed content is treated like a 304 so callers can skip parsing altogether. Streamed
+ * fetches hash the body while the caller parses it; see {@link #finishStream}. Requests go
+ * through the shared {@link HttpFetcher}.
+ */
+@Service
+public class PageFetcher {
+    private final SourceFetchStateRepository stateRepo;
+    private final HttpFetcher http;
+    private final ScrapeMetrics metrics;
+    public PageFetcher(SourceFetchStateRepository stateRepo, HttpFetcher http, ScrapeMetrics metrics) {
+        this.stateRepo = stateRepo;
+        this.http = http;
+        this.metrics = metrics;
+    }
+    public static class FetchResult {
+        private final JobSource source;
+        private final SourceFetchState state;
+        private final HttpFetcher.Response response;
+        private final byte[] body;
+        private String contentHash;
+        private boolean unchanged;
+        private DigestInputStream streamed;
+        private CountingInputStream counted;
+        FetchResult(JobSource source, SourceFetchState state, HttpFetcher.Response response, byte[] body, String contentHash, boolean unchanged) {
+            this.source = source; this.state = state; this.response = response; this.body = body; this.contentHash = contentHash; this.unchanged = unchanged;
+        }
+        public boolean isUnchanged() { return unchanged; }
+        /** Persistent per-source state, or null for sources that have not been saved. */
+        public SourceFetchState getState() { return state; }
+        public int getStatus() { return response.status(); }
+        /** The buffered body of a non-streamed fetch. */
+        public byte[] body() { return body; }
+        /** Parses the buffered body (no String copy); the charset comes from Content-Type or the page itself. */
+        public Document document() throws IOException {
+            return Jsoup.parse(new ByteArrayInputStream(body), response.charset(), response.uri().toString());
+        }
+        /**
+         * The raw body, read as it arrives; only for results fetched with {@code streamed=true}.
+         * Closing it is left to {@link PageFetcher#finishStream} since XML parsers close their input at end of document.
+         */
+        public InputStream stream() {
+            if(streamed==null) {
+                counted = new CountingInputStream(response.body());
+                streamed = new DigestInputStream(counted, newDigest());
+            }
+            return new FilterInputStream(streamed) {
+                @Override public void close() {}
+            };
+        }
+    }
+    public FetchResult fetch(JobSource s) throws IOException {
+        return fetch(s, false);
+    }
+    /** With {@code streamed} the body is left unread, so the content-hash check moves to {@link #finishStream}. */
+    public FetchResult fetch(JobSource s, boolean streamed) throws IOException {
+        return fetch(s, s.getUrl(), streamed);
+    }
+    /** Fetches {@code url} on behalf of {@code s}, e.g. a board API that backs the source's public page. */
+    public FetchResult fetch(JobSource s, String url, boolean streamed) throws IOException {
+        SourceFetchState state = s.getId()==null ? null : stateRepo.findBySourceId(s.getId()).orElseGet(() -> {
+            SourceFetchState fresh = new SourceFetchState();
+            fresh.setSourceId(s.getId());
+            return fresh;
+        });
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(url)).GET();
+        if(state!=null && state.getEtag()!=null) req.header("If-None-Match", state.getEtag());
+        if(state!=null && state.getLastModified()!=null) req.header("If-Modified-Since", state.getLastModified());
+        long start = System.nanoTime();
+        HttpFetcher.Response res = http.send(req, url);
+        if(state!=null) {
+            state.setLastStatus(res.status());
+            state.setLastFetchedAt(Instant.now());
+        }
+        if(res.status()==304) {
+            res.close();
+            metrics.fetched(url, 304, System.nanoTime() - start);
+            metrics.unchanged();
+            save(state);
+            return new FetchResult(s, state, res, null, state==null?null:state.getContentHash(), true);
+        }
+        if(res.status() < 200 || res.status() >= 300) {
+            res.close();
+            metrics.fetched(url, res.status(), System.nanoTime() - start);
+            save(state);
+            throw new IOException("HTTP " + res.status() + " fetching " + url);
+        }
+        if(streamed) {
+            metrics.fetched(url, res.status(), System.nanoTime() - start);
+            return new FetchResult(s, state, res, null, null, false);
+        }
+        byte[] body;
+        try {
+            body = res.bytes();
+        } finally {
+            metrics.fetched(url, res.status(), System.nanoTime() - start);
+        }
+        metrics.bytes(url, body.length);
+        String hash = sha256(body);
+        boolean unchanged = state!=null && hash.equals(state.getContentHash());
+        if(unchanged) {
+            metrics.unchanged();
+            save(state);
+        }
+        return new FetchResult(s, state, res, body, hash, unchanged);
+    }
+    /**
+     * Drains whatever the parser left unread, closes the body and reports whether it hashed to the
+     * last processed content, in which case the caller should drop what it extracted.
+     */
+    public boolean finishStream(FetchResult r) throws IOException {
+        if(r.streamed==null) return r.unchanged;
+        try(InputStream in = r.streamed) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        metrics.bytes(r.response.uri().toString(), r.counted.count);
+        r.contentHash = HexFormat.of().formatHex(r.streamed.getMessageDigest().digest());
+        r.unchanged = r.state!=null && r.contentHash.equals(r.state.getContentHash());
+        if(r.unchanged) {
+            metrics.unchanged();
+            save(r.state);
+        }
+        return r.unchanged;
+    }
+    /** Closes a streamed body that failed to parse without draining the rest of it. */
+    public void abandonStream(FetchResult r) {
+        if(r.streamed==null) return;
+        metrics.bytes(r.response.uri().toString(), r.counted.count);
+        try {
+            r.streamed.close();
+        } catch(IOException ignored) {}
+    }
+    /** Records the validators of a response once its content has been processed successfully. */
+    public void markProcessed(FetchResult r) {
+        if(r.state==null || r.unchanged) return;
+        r.state.setEtag(r.response.header("ETag"));
+        r.state.setLastModified(r.response.header("Last-Modified"));
+        r.state.setContentHash(r.contentHash);
+        r.state.setLastChangedAt(Instant.now());
+        save(r.state);
+    }
+    private void save(SourceFetchState state) {
+        if(state!=null) stateRepo.save(state);
+    }
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+        CountingInputStream(InputStream in) { super(in); }
+        @Override public int read() throws IOException {
+            int b = super.read();
+            if(b >= 0) count++;
+            return b;
+        }
+        @Override public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if(n > 0) count += n;
+            return n;
+        }
+    }
+    private static String sha256(byte[] body) {
+        return HexFormat.of().formatHex(newDigest().digest(body));
+    }
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch(Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.repository.JobPostingRepository;
+import com.example.jobbot.repository.PostingDescriptionRepository;
+import com.example.jobbot.repository.PostingStreamEntryRepository;
+import com.example.jobbot.repository.SearchAlertRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+/**
+ * Moves postings that closed, or stopped being seen, more than {@code max-age-days} ago out of the
+ * database into gzipped NDJSON files under {@code archive-dir}, one file per run. Each chunk is
+ * appended to the file and synced before the transaction deleting it commits: a crash can archive
+ * a posting twice, never lose one. The freed space is reused by H2's background writer; giving it
+ * back to the file system is left to {@code SHUTDOWN COMPACT} in a maintenance window, since
+ * compacting a live store needs a zero retention time that H2 documents as unsafe for recovery.
+ */
+@Service
+public class PostingArchiver {
+    private static final Logger log = LoggerFactory.getLogger(PostingArchiver.class);
+    private static final int CHUNK = 500;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private final JobPostingRepository jobRepo;
+    private final PostingDescriptionRepository descriptionRepo;
+    private final PostingStreamEntryRepository streamRepo;
+    private final SearchAlertRepository alerts;
+    private final JobPostingWriter writer;
+    private final ObjectMapper mapper;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final Path archiveDir;
+    public PostingArchiver(JobPostingRepository jobRepo, PostingDescriptionRepository descriptionRepo, PostingStreamEntryRepository streamRepo, SearchAlertRepository alerts,
+                           JobPostingWriter writer, ObjectMapper mapper, PlatformTransactionManager txManager,
+                           @Value("${jobbot.retention.enabled:true}") boolean enabled,
+                           @Value("${jobbot.retention.max-age-days:180}") int maxAgeDays,
+                           @Value("${jobbot.retention.archive-dir:./data/archive}") String archiveDir) {
+        this.jobRepo = jobRepo;
+        this.descriptionRepo = descriptionRepo;
+        this.streamRepo = streamRepo;
+        this.alerts = alerts;
+        this.writer = writer;
+        this.mapper = mapper;
+        this.tx = new TransactionTemplate(txManager);
+        this.enabled = enabled;
+        this.maxAge = Duration.ofDays(maxAgeDays);
+        this.archiveDir = Path.of(archiveDir);
+    }
+    @Scheduled(initialDelayString = "${jobbot.retention.initial-delay-ms:600000}", fixedDelayString = "${jobbot.retention.interval-ms:86400000}")
+    public void run() {
+        if(!enabled) return;
+        try {
+            archive(Instant.now().minus(maxAge));
+        } catch(Exception e) {
+            log.warn("archive_failed error=\"{}\"", e.getMessage());
+        }
+    }
+    /** Archives every posting last active before {@code cutoff}; returns how many were moved. */
+    public int archive(Instant cutoff) throws IOException {
+        if(jobRepo.findArchivable(cutoff, PageRequest.of(0, 1)).isEmpty()) return 0;
+        long start = System.nanoTime();
+        Files.createDirectories(archiveDir);
+        Path file = archiveDir.resolve("postings-" + FILE_TIME.format(Instant.now()) + ".ndjson.gz");
+        int total = 0;
+        try(FileOutputStream out = new FileOutputStream(file.toFile(), true)) {
+            while(true) {
+                List<Long> ids = moveChunk(cutoff, out);
+                if(ids==null || ids.isEmpty()) break;
+                writer.removed(ids);
+                total += ids.size();
+                if(ids.size() < CHUNK) break;
+            }
+        }
+        if(total==0) Files.deleteIfExists(file);
+        log.info("archive_done postings={} file=\"{}\" duration_ms={}", total, file, (System.nanoTime() - start) / 1_000_000);
+        return total;
+    }
+    /**
+     * Deletes one chunk and appends it to the archive as its own gzip member, synced before the
+     * commit. Returns null, rolling back, when some rows were already gone (another node archiving).
+     */
+    private List<Long> moveChunk(Instant cutoff, FileOutputStream out) {
+        return tx.execute(status -> {
+            List<Long> ids = jobRepo.findArchivable(cutoff, PageRequest.of(0, CHUNK));
+            if(ids.isEmpty()) return ids;
+            List<JobPosting> rows = jobRepo.findWithDescriptionByIdIn(ids).stream().map(PostingDescriptions::attach).toList();
+            alerts.deleteByPostingIds(ids);
+            descriptionRepo.deleteByPostingIds(ids);
+            streamRepo.deleteByPostingIds(ids);
+            int deleted = jobRepo.deleteByIds(ids);
+            if(rows.size()!=ids.size() || deleted!=ids.size()) {
+                log.warn("archive_conflict expected={} deleted={}", ids.size(), deleted);
+                status.setRollbackOnly();
+                return null;
+            }
+            try {
+                GZIPOutputStream gz = new GZIPOutputStream(unclosable(out), 1 << 16);
+                for(JobPosting j : rows) {
+                    gz.write(mapper.writeValueAsBytes(j));
+                    gz.write('\n');
+                }
+                gz.finish();
+                out.getFD().sync();
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return ids;
+        });
+    }
+    /** gzip members are concatenated into one file, so finishing a member must not close it. */
+    private static OutputStream unclosable(OutputStream out) {
+        return new OutputStream() {
+            @Override public void write(int b) throws IOException { out.write(b); }
+            @Override public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); }
+        };
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.JobSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+/**
+ * Staging buffer that extractors emit candidate postings into. Candidates are de-duplicated by
+ * URL key within the batch and written by {@link JobPostingWriter} in one transaction per flush.
+ * Connectors that see a source's whole listing call {@link #completeListing()}; {@link #finish()}
+ * then closes the source's postings that were neither staged nor reported through {@link #seen}.
+ */
+public class PostingBatch {
+    private final JobSource source;
+    private final Flusher flusher;
+    private final int flushSize;
+    private final Map<String, JobPosting> pending = new LinkedHashMap<>();
+    private final Set<String> seenKeys = new HashSet<>();
+    private boolean completeListing = false;
+    private int inserted = 0;
+    private int skipped = 0;
+    private int updated = 0;
+    private int closed = 0;
+    public interface Flusher {
+        FlushResult write(List<JobPosting> staged);
+        /** Closes the source's open postings whose URL key is not in {@code seenKeys}; returns how many. */
+        default int closeMissing(JobSource source, Set<String> seenKeys) {
+            return 0;
+        }
+    }
+    public PostingBatch(JobSource source, Flusher flusher, int flushSize) {
+        this.source = source;
+        this.flusher = flusher;
+        this.flushSize = flushSize;
+    }
+    public JobSource getSource() { return source; }
+    public void add(String title, String company, String description, String url) {
+        add(title, company, null, description, url, null);
+    }
+    /** Full form for extractors that know where and when a posting was published; a null postedAt means now. */
+    public void add(String title, String company, String location, String description, String url, Instant postedAt) {
+        JobPosting j = new JobPosting();
+        j.setTitle(title);
+        j.setCompany(company);
+        j.setLocation(location);
+        j.setDescription(description);
+        j.setUrl(url);
+        j.setPostedAt(postedAt);
+        add(j);
+    }
+    /** Stages a candidate built by the caller; URL key, source, fetch time and fingerprint are filled in here. */
+    public void add(JobPosting j) {
+        String url = j.getUrl();
+        if(url==null||url.isBlank()) return;
+        String key = PostingDedupIndex.urlKey(url);
+        if(!seenKeys.add(key)) {
+            skipped++;
+            return;
+        }
+        if(j.getTitle()==null) j.setTitle("");
+        if(j.getCompany()==null) j.setCompany("");
+        if(j.getDescription()==null) j.setDescription("");
+        j.setUrl(PostingDedupIndex.normalizeUrl(url));
+        j.setUrlKey(key);
+        j.setSource(source.getName()!=null?source.getName():source.getUrl());
+        j.setSourceId(source.getId());
+        Instant now = Instant.now();
+        j.setFetchedAt(now);
+        j.setLastSeenAt(now);
+        if(j.getPostedAt()==null) j.setPostedAt(now);
+        j.setContentHash(fingerprint(j));
+        pending.put(key, j);
+        if(pending.size() >= flushSize) flush();
+    }
+    /** Records a posting that is still listed but was not staged because the connector knows it is unchanged. */
+    public void seen(String url) {
+        if(url!=null && !url.isBlank()) seenKeys.add(PostingDedupIndex.urlKey(url));
+    }
+    /** Declares that everything the source currently lists passes through this batch. */
+    public void completeListing() {
+        completeListing = true;
+    }
+    public void flush() {
+        if(pending.isEmpty()) return;
+        List<JobPosting> staged = new ArrayList<>(pending.values());
+        pending.clear();
+        FlushResult r = flusher.write(staged);
+        inserted += r.getInserted();
+        skipped += r.getSkipped();
+        updated += r.getUpdated();
+    }
+    /** Drops staged candidates that have not been flushed yet; nothing is closed at finish. */
+    public void discard() {
+        pending.clear();
+        completeListing = false;
+    }
+    /** Flushes what is left, closes what a complete listing no longer has, and returns the totals. */
+    public FlushResult finish() {
+        flush();
+        // an empty listing is far more likely a broken page than a board with no jobs left
+        if(completeListing && !seenKeys.isEmpty()) closed = flusher.closeMissing(source, seenKeys);
+        completeListing = false;
+        return new FlushResult(inserted, skipped, updated, closed);
+    }
+    /** 64-bit FNV-1a over the fields a reader sees; postedAt is left out since feeds without dates default it to now. */
+    static long fingerprint(JobPosting j) {
+        long h = 0xcbf29ce484222325L;
+        for(String f : new String[]{j.getTitle(), j.getCompany(), j.getLocation(), j.getDepartment(), j.getDescription()}) {
+            if(f!=null) {
+                for(int i = 0; i < f.length(); i++) {
+                    h ^= f.charAt(i);
+                    h *= 0x100000001b3L;
+                }
+            }
+            h ^= 0x1f; // field separator, so ("ab", "") and ("a", "b") differ
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.repository.JobPostingRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+/**
+ * Keeps this node's search, match and near-duplicate indexes in step with postings other nodes
+ * wrote to the shared database. Every {@code sync-ms} it reads the postings whose
+ * {@code changedAt} moved since the last poll, less {@code sync-slack-ms} for transactions that
+ * committed late, and hands on the ones this node was not already told about: open ones as
+ * updates, closed ones as closes. Alerts are raised by the node that wrote the posting, and
+ * {@link PostingEventBus} follows the shared position counter, so neither is fed from here.
+ */
+@Service
+public class PostingChangeFeed implements PostingIngestListener {
+    private static final Logger log = LoggerFactory.getLogger(PostingChangeFeed.class);
+    private final JobPostingRepository jobRepo;
+    private final EntityManager em;
+    private final TransactionTemplate readTx;
+    private final List<PostingIngestListener> indexes;
+    private final Duration slack;
+    /** {@code changedAt} of each posting already applied here, for the last slack's worth of changes. */
+    private final Map<Long, Instant> applied = new ConcurrentHashMap<>();
+    private volatile Instant since = Instant.now();
+    public PostingChangeFeed(JobPostingRepository jobRepo, EntityManager em, PlatformTransactionManager txManager,
+                             JobSearchIndex search, PostingVectorIndex vectors, NearDuplicateIndex nearDups,
+                             @Value("${jobbot.cluster.sync-slack-ms:30000}") long slackMs) {
+        this.jobRepo = jobRepo;
+        this.em = em;
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.indexes = List.of(search, vectors, nearDups);
+        this.slack = Duration.ofMillis(slackMs);
+    }
+    /**
+     * This node's own flushes reach the indexes directly; remembering them keeps the poll from
+     * applying them twice. Closes aren't recorded, since closing again is a no-op for the indexes.
+     */
+    @Override public void onInserted(List<JobPosting> postings) {
+        for(JobPosting j : postings) {
+            if(j.getId()!=null && j.getChangedAt()!=null) applied.put(j.getId(), j.getChangedAt().truncatedTo(ChronoUnit.MICROS));
+        }
+    }
+    @Scheduled(fixedDelayString = "${jobbot.cluster.sync-ms:10000}", initialDelayString = "${jobbot.cluster.sync-ms:10000}")
+    public void poll() {
+        Instant started = Instant.now();
+        Instant from = since.minus(slack);
+        List<JobPosting> open = new ArrayList<>();
+        List<Long> closed = new ArrayList<>();
+        try {
+            // collected first: the near-duplicate index writes, which it can't do inside this read-only transaction
+            readTx.executeWithoutResult(status -> {
+                try(Stream<JobPosting> rows = jobRepo.streamChangedWithDescription(from).map(PostingDescriptions::attach)) {
+                    rows.forEach(j -> {
+                        em.detach(j);
+                        Instant at = j.getChangedAt().truncatedTo(ChronoUnit.MICROS);
+                        if(at.equals(applied.put(j.getId(), at))) return;
+                        if(j.getClosedAt()==null) open.add(j);
+                        else closed.add(j.getId());
+                    });
+                }
+            });
+        } catch(Exception e) {
+            log.warn("posting_sync_failed since={} error=\"{}\"", from, e.getMessage());
+            return;
+        }
+        if(!open.isEmpty()) apply(l -> l.onUpdated(open));
+        if(!closed.isEmpty()) apply(l -> l.onClosed(closed));
+        applied.values().removeIf(at -> at.isBefore(from));
+        since = started;
+        if(!open.isEmpty() || !closed.isEmpty()) log.info("postings_synced updated={} closed={}", open.size(), closed.size());
+    }
+    private void apply(Consumer<PostingIngestListener> event) {
+        for(PostingIngestListener l : indexes) {
+            try {
+                event.accept(l);
+            } catch(Exception e) {
+                log.warn("posting_sync_listener_failed listener={} error=\"{}\"", l.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
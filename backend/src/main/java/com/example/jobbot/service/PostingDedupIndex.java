@@ -0,0 +1,109 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.PostingState;
+import com.example.jobbot.repository.JobPostingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+/**
+ * Front cache for URL de-duplication. Keys that were never inserted are rejected by the
+ * Bloom filter without touching the database; everything else falls back to the
+ * unique {@code urlKey} index.
+ */
+@Component
+public class PostingDedupIndex implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(PostingDedupIndex.class);
+    private static final int LOOKUP_CHUNK = 500;
+    private final JobPostingRepository jobRepo;
+    private final TransactionTemplate tx;
+    private final BloomFilter filter;
+    private volatile boolean warm = false;
+    public PostingDedupIndex(JobPostingRepository jobRepo, PlatformTransactionManager txManager,
+                             @Value("${jobbot.dedup.expected-postings:2000000}") long expected,
+                             @Value("${jobbot.dedup.false-positive-rate:0.01}") double fpp) {
+        this.jobRepo = jobRepo;
+        this.tx = new TransactionTemplate(txManager);
+        this.filter = new BloomFilter(expected, fpp);
+    }
+    public static String normalizeUrl(String url) {
+        return url.split("#")[0].trim();
+    }
+    public static String urlKey(String url) {
+        return normalizeUrl(url).toLowerCase(Locale.ROOT);
+    }
+    /** Returns the subset of {@code keys} already stored, querying only keys the filter cannot rule out. */
+    public Set<String> existing(Collection<String> keys) {
+        List<String> maybe = new ArrayList<>();
+        for(String k : keys) if(!warm || filter.mightContain(k)) maybe.add(k);
+        Set<String> found = new HashSet<>();
+        for(int i = 0; i < maybe.size(); i += LOOKUP_CHUNK) {
+            found.addAll(jobRepo.findExistingUrlKeys(maybe.subList(i, Math.min(maybe.size(), i + LOOKUP_CHUNK))));
+        }
+        return found;
+    }
+    /**
+     * Stored state of those {@code keys} that exist, by URL key; same filtering as {@link #existing}
+     * unless {@code filtered} is false, for keys another node may have inserted.
+     */
+    public Map<String, PostingState> lookup(Collection<String> keys, boolean filtered) {
+        List<String> maybe = new ArrayList<>();
+        for(String k : keys) if(!filtered || !warm || filter.mightContain(k)) maybe.add(k);
+        Map<String, PostingState> found = new HashMap<>();
+        for(int i = 0; i < maybe.size(); i += LOOKUP_CHUNK) {
+            for(PostingState st : jobRepo.findStatesByUrlKeyIn(maybe.subList(i, Math.min(maybe.size(), i + LOOKUP_CHUNK)))) found.put(st.urlKey(), st);
+        }
+        return found;
+    }
+    public void add(String key) {
+        filter.put(key);
+    }
+    /** Warms the filter in the background; until it is warm every key goes to the database. */
+    @Override public void run(ApplicationArguments args) {
+        Thread t = new Thread(() -> {
+            try {
+                warmUp();
+            } catch(Exception e) {
+                log.warn("dedup_index_warmup_failed error=\"{}\"", e.getMessage());
+            }
+        }, "dedup-warmup");
+        t.setDaemon(true);
+        t.start();
+    }
+    public void warmUp() {
+        backfillLegacyKeys();
+        AtomicLong loaded = new AtomicLong();
+        tx.executeWithoutResult(status -> {
+            try(Stream<String> keys = jobRepo.streamUrlKeys()) {
+                keys.forEach(k -> { filter.put(k); loaded.incrementAndGet(); });
+            }
+        });
+        warm = true;
+        log.info("dedup_index_warmed url_keys={}", loaded.get());
+    }
+    private void backfillLegacyKeys() {
+        for(JobPosting j : jobRepo.findByUrlKeyIsNull()) {
+            if(j.getUrl()==null||j.getUrl().isBlank()) continue;
+            try {
+                j.setUrlKey(urlKey(j.getUrl()));
+                jobRepo.save(j);
+            } catch(Exception e) {
+                log.warn("legacy_posting_skipped id={} error=\"{}\"", j.getId(), e.getMessage());
+            }
+        }
+    }
+}
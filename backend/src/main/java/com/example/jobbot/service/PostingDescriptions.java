@@ -0,0 +1,112 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.PostingDescription;
+import com.example.jobbot.repository.PostingDescriptionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+/**
+ * Stores posting descriptions Deflate-compressed in {@code posting_description}, so the
+ * {@code job_posting} rows behind list views, indexes and the page cache stay a few hundred bytes
+ * each. Scraped HTML compresses to well under half its size. Descriptions are read back only for
+ * a single posting, an explicit {@code description=true} listing or export, and index warm-up.
+ */
+@Service
+public class PostingDescriptions {
+    private final PostingDescriptionRepository repo;
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    public PostingDescriptions(PostingDescriptionRepository repo, EntityManager em, PlatformTransactionManager txManager) {
+        this.repo = repo;
+        this.em = em;
+        this.tx = new TransactionTemplate(txManager);
+    }
+    /** Stages the descriptions of just inserted postings; runs in the inserting transaction. */
+    public void insert(Collection<JobPosting> postings) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            for(JobPosting j : postings) {
+                if(j.getDescription()==null || j.getDescription().isEmpty()) continue;
+                em.persist(new PostingDescription(j.getId(), compress(deflater, j.getDescription())));
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+    /** Replaces a stored posting's description; runs in the caller's transaction. */
+    public void replace(JobPosting j) {
+        PostingDescription d = em.find(PostingDescription.class, j.getId());
+        if(j.getDescription()==null || j.getDescription().isEmpty()) {
+            if(d!=null) em.remove(d);
+        } else if(d!=null) {
+            d.setBody(compress(j.getDescription()));
+        } else {
+            em.persist(new PostingDescription(j.getId(), compress(j.getDescription())));
+        }
+    }
+    /** {@link #replace} in a transaction of its own. */
+    public void store(JobPosting j) {
+        tx.executeWithoutResult(status -> replace(j));
+    }
+    public String load(long postingId) {
+        return repo.findById(postingId).map(d -> inflate(d.getBody())).orElse("");
+    }
+    /** Sets the description on each of a page of postings with one query. */
+    public void fill(List<JobPosting> postings) {
+        if(postings.isEmpty()) return;
+        Map<Long, byte[]> bodies = new HashMap<>();
+        for(PostingDescription d : repo.findAllById(postings.stream().map(JobPosting::getId).toList())) bodies.put(d.getPostingId(), d.getBody());
+        for(JobPosting j : postings) j.setDescription(inflate(bodies.get(j.getId())));
+    }
+    /** The posting of a {@code select j, d.body} row, with its description set. */
+    public static JobPosting attach(Object[] row) {
+        JobPosting j = (JobPosting) row[0];
+        j.setDescription(inflate((byte[]) row[1]));
+        return j;
+    }
+    public static byte[] compress(String text) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            return compress(deflater, text);
+        } finally {
+            deflater.end();
+        }
+    }
+    private static byte[] compress(Deflater deflater, String text) {
+        byte[] in = text.getBytes(StandardCharsets.UTF_8);
+        deflater.reset();
+        deflater.setInput(in);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(in.length / 2 + 16);
+        byte[] buf = new byte[8192];
+        while(!deflater.finished()) out.write(buf, 0, deflater.deflate(buf));
+        return out.toByteArray();
+    }
+    public static String inflate(byte[] body) {
+        if(body==null || body.length==0) return "";
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(body);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length * 3);
+            byte[] buf = new byte[8192];
+            while(!inflater.finished()) {
+                int n = inflater.inflate(buf);
+                // raw streams can need more input only when truncated
+                if(n==0 && (inflater.needsInput() || inflater.needsDictionary())) throw new IllegalStateException("Truncated description body");
+                out.write(buf, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch(DataFormatException e) {
+            throw new IllegalStateException("Corrupt description body", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.JobSummary;
+import com.example.jobbot.model.PostingStreamEntry;
+import com.example.jobbot.repository.JobPostingRepository;
+import com.example.jobbot.repository.PostingStreamEntryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+/**
+ * Fans newly inserted postings out to {@code /api/jobs/stream} subscribers. Postings are
+ * serialized once into a bounded ring; every subscriber only keeps a cursor (the last stream
+ * position it was sent) and a small pool of sender threads copies ring entries to it, at most one
+ * drain per subscriber at a time. A subscriber that falls a whole ring behind, or resumes with a
+ * cursor older than the ring, is replayed from the database; when even that would be too much it
+ * gets a {@code reset} event and should reload the list.
+ * <p>
+ * Positions are not posting ids: ids are handed out in blocks before the insert, so a flush can
+ * commit after one holding higher ids. Each flush's postings are numbered from the
+ * {@code posting_stream} counter row in a transaction of their own, and the next flush, on this
+ * node or another, waits for the row until that commits; so positions follow commit order and a
+ * replay never passes over a posting that commits later. They go to {@code posting_stream_entry}
+ * rather than the posting rows, which other transactions may hold while this one holds the counter.
+ * <p>
+ * The ring only holds what this node wrote. Positions another node numbered show up as a gap
+ * between ring events, or past the newest one once the keepalive has read the counter row; a
+ * subscriber that reaches one is filled in from the database before the ring takes over again.
+ * So postings from other nodes arrive with the next local insert or within a keepalive interval.
+ */
+@Component
+@Order(3)
+public class PostingEventBus implements PostingIngestListener {
+    private static final Logger log = LoggerFactory.getLogger(PostingEventBus.class);
+    private static final int BATCH = 100;
+    private static final int SENDERS = 4;
+    private final JobPostingRepository jobRepo;
+    private final PostingStreamEntryRepository streamRepo;
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final ObjectMapper mapper;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final Event[] ring;
+    private int start, size;
+    /** Highest position that is not in the ring; a cursor below it can't be served from memory. */
+    private long floor;
+    /** Highest position known to be committed, by this node or another. */
+    private long newest;
+    /** Held from numbering a flush until its events are in the ring, so the ring stays in position order. */
+    private final Object publishLock = new Object();
+    /** Inserted postings still waiting for a position, in insert order; guarded by {@code publishLock}. */
+    private final List<Long> pendingIds = new ArrayList<>();
+    private final List<String> pendingJson = new ArrayList<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private record Event(long seq, String json) {}
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean draining = new AtomicBoolean();
+        /** Only touched by the thread that holds {@code draining}. */
+        long cursor;
+        volatile boolean closed;
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+    public PostingEventBus(JobPostingRepository jobRepo, PostingStreamEntryRepository streamRepo, EntityManager em, PlatformTransactionManager txManager, ObjectMapper mapper, MeterRegistry registry,
+                           @Value("${jobbot.stream.buffer-size:1024}") int bufferSize,
+                           @Value("${jobbot.stream.max-subscribers:500}") int maxSubscribers,
+                           @Value("${jobbot.stream.timeout-ms:1800000}") long timeoutMs) {
+        this.jobRepo = jobRepo;
+        this.streamRepo = streamRepo;
+        this.em = em;
+        this.tx = new TransactionTemplate(txManager);
+        this.mapper = mapper;
+        this.ring = new Event[bufferSize];
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger n = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(SENDERS, r -> {
+            Thread t = new Thread(r, "stream-sender-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Gauge.builder("jobbot.stream.subscribers", subscribers, Set::size).register(registry);
+    }
+    @PostConstruct
+    public void init() {
+        List<Long> unnumbered = streamRepo.findUnnumberedPostingIds();
+        for(int i = 0; i < unnumbered.size(); i += ring.length) {
+            number(unnumbered.subList(i, Math.min(unnumbered.size(), i + ring.length)));
+        }
+        if(!unnumbered.isEmpty()) log.info("stream_positions_backfilled postings={}", unnumbered.size());
+        long last = tx.execute(status -> lastSeq());
+        synchronized(this) {
+            floor = last;
+            newest = last;
+        }
+    }
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(s -> s.emitter.complete());
+        senders.shutdownNow();
+    }
+    @Override public void onInserted(List<JobPosting> postings) {
+        List<String> json = new ArrayList<>(postings.size());
+        for(JobPosting j : postings) {
+            JobSummary s = new JobSummary(j.getId(), j.getSource(), j.getTitle(), j.getCompany(), j.getLocation(), j.getUrl(), j.getPostedAt(), j.getFetchedAt());
+            try {
+                json.add(mapper.writeValueAsString(s));
+            } catch(JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        synchronized(publishLock) {
+            postings.forEach(j -> pendingIds.add(j.getId()));
+            pendingJson.addAll(json);
+        }
+        if(publishPending()) subscribers.forEach(this::wake);
+    }
+    /** Only new postings are streamed. */
+    @Override public void onUpdated(List<JobPosting> postings) {}
+    /**
+     * Opens a stream that resumes after stream position {@code lastEventId} or, for a client that
+     * just loaded the list, after posting {@code after}, replaying what it missed; with neither it
+     * starts with the next new posting. Null when the subscriber cap is reached.
+     */
+    public SseEmitter subscribe(Long lastEventId, Long after) throws IOException {
+        if(subscribers.size() >= maxSubscribers) return null;
+        long cursor = lastEventId!=null ? lastEventId : after!=null ? positionOf(after) : newestSeq();
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber s = new Subscriber(emitter, cursor);
+        emitter.onCompletion(() -> drop(s));
+        emitter.onTimeout(() -> drop(s));
+        emitter.onError(e -> drop(s));
+        emitter.send(SseEmitter.event().reconnectTime(5000).comment("connected"));
+        subscribers.add(s);
+        wake(s);
+        return emitter;
+    }
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+    @Scheduled(fixedDelayString = "${jobbot.stream.keepalive-ms:15000}")
+    public void keepAlive() {
+        boolean published = publishPending();
+        long known = newestSeq();
+        try {
+            // other nodes' postings never reach the ring; the counter row tells when there are some
+            known = tx.execute(status -> lastSeq());
+        } catch(Exception e) {
+            log.warn("stream_counter_read_failed error=\"{}\"", e.getMessage());
+        }
+        if(advance(known) || published) subscribers.forEach(this::wake);
+        // also how connections the client dropped get noticed when nothing is being published
+        for(Subscriber s : subscribers) senders.execute(() -> {
+            try {
+                s.emitter.send(SseEmitter.event().comment("keepalive"));
+            } catch(IOException | IllegalStateException e) {
+                drop(s);
+            }
+        });
+    }
+    private void wake(Subscriber s) {
+        if(!s.closed && s.draining.compareAndSet(false, true)) senders.execute(() -> drain(s));
+    }
+    private void drain(Subscriber s) {
+        try {
+            while(!s.closed) {
+                List<Event> batch = after(s.cursor);
+                if(batch==null) {
+                    replay(s);
+                    continue;
+                }
+                if(batch.isEmpty()) break;
+                for(Event e : batch) {
+                    s.emitter.send(SseEmitter.event().id(String.valueOf(e.seq())).name("posting").data(e.json()));
+                    s.cursor = e.seq();
+                }
+            }
+        } catch(Exception e) {
+            drop(s);
+        } finally {
+            s.draining.set(false);
+        }
+        // an event appended after the last check but before the flag cleared would otherwise wait for the next one
+        if(!s.closed && newestSeq() > s.cursor) wake(s);
+    }
+    /**
+     * Sends what the ring doesn't hold, because it has moved on or another node numbered it, from
+     * the database; or a reset when that is more than a ring's worth.
+     */
+    private void replay(Subscriber s) throws IOException {
+        // every position up to the counter is committed, so once read, the query below sees them all
+        long committed = tx.execute(status -> lastSeq());
+        advance(committed);
+        List<Object[]> missed = streamRepo.findOpenAfter(s.cursor, PageRequest.of(0, ring.length));
+        if(missed.size() >= ring.length) {
+            s.cursor = newestSeq();
+            s.emitter.send(SseEmitter.event().id(String.valueOf(s.cursor)).name("reset").data("{}"));
+            return;
+        }
+        Map<Long, JobSummary> byId = missed.isEmpty() ? Map.of() : jobRepo.findSummariesByIdIn(missed.stream().map(row -> (Long) row[1]).toList())
+                .stream().collect(Collectors.toMap(JobSummary::getId, Function.identity()));
+        for(Object[] row : missed) {
+            long seq = (Long) row[0];
+            JobSummary j = byId.get((Long) row[1]);
+            if(j!=null) s.emitter.send(SseEmitter.event().id(String.valueOf(seq)).name("posting").data(mapper.writeValueAsString(j)));
+            s.cursor = seq;
+        }
+        // closed postings aren't sent, so the last one sent may be short of what was read through
+        s.cursor = Math.max(s.cursor, Math.max(committed, floor()));
+    }
+    /**
+     * Numbers the pending postings and puts them in the ring. When numbering fails (a lock
+     * timeout on the counter row, say) they stay pending, ahead of anything inserted later, and
+     * the next insert or keepalive tries again. Returns whether anything was published.
+     */
+    private boolean publishPending() {
+        synchronized(publishLock) {
+            if(pendingIds.isEmpty()) return false;
+            long first;
+            try {
+                first = number(pendingIds);
+            } catch(Exception e) {
+                log.warn("stream_numbering_failed postings={} error=\"{}\"", pendingIds.size(), e.getMessage());
+                return false;
+            }
+            for(int i = 0; i < pendingJson.size(); i++) append(new Event(first + i, pendingJson.get(i)));
+            pendingIds.clear();
+            pendingJson.clear();
+            return true;
+        }
+    }
+    private void drop(Subscriber s) {
+        s.closed = true;
+        subscribers.remove(s);
+    }
+    /**
+     * Takes the next {@code ids.size()} positions from the counter row and records them for the
+     * postings, in one transaction; returns the first. The row lock is what orders flushes.
+     */
+    private long number(List<Long> ids) {
+        return tx.execute(status -> {
+            em.createNativeQuery("update posting_stream set last_seq = last_seq + ?1 where id = 1").setParameter(1, ids.size()).executeUpdate();
+            long first = lastSeq() - ids.size() + 1;
+            for(int i = 0; i < ids.size(); i++) em.persist(new PostingStreamEntry(first + i, ids.get(i)));
+            return first;
+        });
+    }
+    private long lastSeq() {
+        return ((Number) em.createNativeQuery("select last_seq from posting_stream where id = 1").getSingleResult()).longValue();
+    }
+    /** Where a client that listed up to posting {@code postingId} picks up; the newest position when that posting is unknown. */
+    private long positionOf(long postingId) {
+        if(postingId <= 0) return 0;
+        Long seq = streamRepo.findSeq(postingId);
+        return seq!=null ? seq : newestSeq();
+    }
+    private synchronized void append(Event e) {
+        newest = Math.max(newest, e.seq());
+        if(size==ring.length) {
+            floor = Math.max(floor, ring[start].seq());
+            ring[start] = e;
+            start = (start + 1) % ring.length;
+        } else {
+            ring[(start + size++) % ring.length] = e;
+        }
+    }
+    private synchronized long floor() {
+        return floor;
+    }
+    private synchronized long newestSeq() {
+        return Math.max(floor, newest);
+    }
+    /** Records a position read from the counter row; returns whether it is news. */
+    private synchronized boolean advance(long seq) {
+        if(seq <= newest) return false;
+        newest = seq;
+        return true;
+    }
+    /**
+     * Up to {@link #BATCH} consecutive events after {@code cursor}; null when the next one isn't in
+     * the ring, because it has left or another node numbered it.
+     */
+    private synchronized List<Event> after(long cursor) {
+        if(cursor < floor) return null;
+        int lo = 0, hi = size;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(ring[(start + mid) % ring.length].seq() <= cursor) lo = mid + 1;
+            else hi = mid;
+        }
+        if(lo==size ? newest > cursor : ring[(start + lo) % ring.length].seq()!=cursor + 1) return null;
+        List<Event> out = new ArrayList<>(Math.min(BATCH, size - lo));
+        for(int i = lo; i < size && out.size() < BATCH; i++) {
+            Event e = ring[(start + i) % ring.length];
+            if(e.seq()!=cursor + out.size() + 1) break;
+            out.add(e);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import java.util.Collection;
+import java.util.List;
+/** Notified by {@link JobPostingWriter} with the postings of each flush, after it has committed. */
+public interface PostingIngestListener {
+    void onInserted(List<JobPosting> postings);
+    /** Stored postings whose content changed (or that reopened); defaults to indexing them again. */
+    default void onUpdated(List<JobPosting> postings) {
+        onInserted(postings);
+    }
+    /** Postings that dropped out of their source's listing. */
+    default void onClosed(Collection<Long> postingIds) {}
+}
@@ -0,0 +1,219 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.repository.JobPostingRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+/**
+ * BM25 ranking of postings against resume text. Each posting's term weights (the document
+ * side of BM25) are computed once at ingest and kept as parallel primitive arrays; a profile's
+ * query vector (idf x query tf) is cached until the resume changes or the corpus grows
+ * noticeably. Scoring scans the vectors in parallel chunks, each with its own bounded heap.
+ */
+@Service
+@Order(1)
+public class PostingVectorIndex implements PostingIngestListener, ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(PostingVectorIndex.class);
+    private static final float K1 = 1.2f, B = 0.75f, K3 = 8f;
+    private static final int CHUNK = 8192;
+    private static final int MIN_COMPACT_SLOTS = 1024;
+    private final JobPostingRepository jobRepo;
+    private final EntityManager em;
+    private final TransactionTemplate readTx;
+    private final int maxTermsPerPosting;
+    private final Map<String, Integer> termIds = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<Long, CachedQuery> queries = new ConcurrentHashMap<>();
+    private int nextTermId = 0;
+    private int[] docFreq = new int[1024];
+    private long totalLength = 0;
+    private volatile Vector[] slots = new Vector[1024];
+    private volatile int count = 0;
+    private volatile int liveDocs = 0;
+    static final class Vector {
+        final long id;
+        final int[] terms;
+        final float[] weights;
+        /** Document length and every counted term id, so removal can undo the corpus statistics. */
+        final int length;
+        final int[] allTerms;
+        Vector(long id, int[] terms, float[] weights, int length, int[] allTerms) {
+            this.id = id; this.terms = terms; this.weights = weights; this.length = length; this.allTerms = allTerms;
+        }
+    }
+    private static final class CachedQuery {
+        final int resumeHash;
+        final int builtAtDocs;
+        final IntFloatHashMap vector;
+        CachedQuery(int resumeHash, int builtAtDocs, IntFloatHashMap vector) { this.resumeHash = resumeHash; this.builtAtDocs = builtAtDocs; this.vector = vector; }
+    }
+    public PostingVectorIndex(JobPostingRepository jobRepo, EntityManager em, PlatformTransactionManager txManager,
+                              @Value("${jobbot.match.max-terms-per-posting:64}") int maxTermsPerPosting) {
+        this.jobRepo = jobRepo;
+        this.em = em;
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.maxTermsPerPosting = maxTermsPerPosting;
+    }
+    @Override public void run(ApplicationArguments args) {
+        Thread t = new Thread(() -> {
+            try {
+                readTx.executeWithoutResult(status -> {
+                    try(Stream<JobPosting> rows = jobRepo.streamAllWithDescription().map(PostingDescriptions::attach)) {
+                        rows.forEach(j -> { add(j); em.detach(j); });
+                    }
+                });
+                log.info("match_index_loaded postings={} terms={}", liveDocs, termIds.size());
+            } catch(Exception e) {
+                log.warn("match_index_load_failed error=\"{}\"", e.getMessage());
+            }
+        }, "match-index-load");
+        t.setDaemon(true);
+        t.start();
+    }
+    @Override public void onInserted(List<JobPosting> postings) {
+        postings.forEach(this::add);
+    }
+    @Override public synchronized void onUpdated(List<JobPosting> postings) {
+        for(JobPosting j : postings) {
+            if(j.getId()!=null) remove(j.getId());
+            add(j);
+        }
+    }
+    @Override public void onClosed(Collection<Long> postingIds) {
+        postingIds.forEach(this::remove);
+    }
+    public int size() { return liveDocs; }
+    public synchronized void add(JobPosting j) {
+        if(j.getId()==null || j.getClosedAt()!=null || slotById.containsKey(j.getId())) return;
+        List<String> tokens = TextTerms.tokenize(j.getTitle() + " " + j.getTitle() + " " + j.getCompany() + " " + TextTerms.stripTags(j.getDescription()));
+        if(tokens.isEmpty()) return;
+        Map<String, Integer> tf = new HashMap<>();
+        for(String t : tokens) tf.merge(t, 1, Integer::sum);
+        int dl = tokens.size();
+        totalLength += dl;
+        float avgdl = (float) totalLength / (liveDocs + 1);
+        int n = tf.size();
+        int[] terms = new int[n];
+        float[] weights = new float[n];
+        int i = 0;
+        for(Map.Entry<String, Integer> e : tf.entrySet()) {
+            int id = termIds.computeIfAbsent(e.getKey(), k -> nextTermId++);
+            if(id >= docFreq.length) docFreq = Arrays.copyOf(docFreq, Math.max(id + 1, docFreq.length * 2));
+            docFreq[id]++;
+            float f = e.getValue();
+            terms[i] = id;
+            weights[i++] = f * (K1 + 1) / (f + K1 * (1 - B + B * dl / avgdl));
+        }
+        if(n > maxTermsPerPosting) {
+            Integer[] order = new Integer[n];
+            for(int k = 0; k < n; k++) order[k] = k;
+            Arrays.sort(order, (a, b) -> Float.compare(weights[b] * idf(terms[b]), weights[a] * idf(terms[a])));
+            int[] keptTerms = new int[maxTermsPerPosting];
+            float[] keptWeights = new float[maxTermsPerPosting];
+            for(int k = 0; k < maxTermsPerPosting; k++) { keptTerms[k] = terms[order[k]]; keptWeights[k] = weights[order[k]]; }
+            append(new Vector(j.getId(), keptTerms, keptWeights, dl, terms));
+        } else {
+            append(new Vector(j.getId(), terms, weights, dl, terms));
+        }
+    }
+    public synchronized void remove(long postingId) {
+        Integer slot = slotById.remove(postingId);
+        if(slot==null) return;
+        Vector[] arr = slots;
+        Vector v = arr[slot];
+        arr[slot] = null;
+        slots = arr;
+        liveDocs--;
+        totalLength -= v.length;
+        for(int id : v.allTerms) docFreq[id]--;
+        if(count >= MIN_COMPACT_SLOTS && count - liveDocs > count / 4) compact();
+    }
+    public void evictProfile(Long profileId) {
+        queries.remove(profileId);
+    }
+    /** Returns up to {@code k} posting ids and scores, best first. */
+    public TopK topMatches(Long profileId, String resumeText, int k) {
+        IntFloatHashMap q = queryFor(profileId, resumeText);
+        int n = count;
+        Vector[] arr = slots;
+        if(q.size()==0 || n==0) return new TopK(k);
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        return IntStream.range(0, chunks).parallel().mapToObj(c -> {
+            TopK top = new TopK(k);
+            for(int i = c * CHUNK, end = Math.min(n, i + CHUNK); i < end; i++) {
+                Vector v = arr[i];
+                if(v==null) continue;
+                float s = 0;
+                for(int t = 0; t < v.terms.length; t++) s += q.get(v.terms[t]) * v.weights[t];
+                if(s > 0) top.offer(v.id, s);
+            }
+            return top;
+        }).reduce(TopK::merge).orElseGet(() -> new TopK(k));
+    }
+    private IntFloatHashMap queryFor(Long profileId, String resumeText) {
+        int hash = Objects.hashCode(resumeText);
+        CachedQuery cached = profileId==null ? null : queries.get(profileId);
+        int docs = liveDocs;
+        if(cached!=null && cached.resumeHash==hash && docs <= cached.builtAtDocs * 1.1 + 100) return cached.vector;
+        Map<Integer, Integer> qtf = new HashMap<>();
+        for(String t : TextTerms.tokenize(resumeText)) {
+            Integer id = termIds.get(t);
+            if(id!=null) qtf.merge(id, 1, Integer::sum);
+        }
+        IntFloatHashMap vector = new IntFloatHashMap(qtf.size());
+        synchronized(this) {
+            qtf.forEach((id, f) -> vector.put(id, idf(id) * f * (K3 + 1) / (f + K3)));
+        }
+        if(profileId!=null) queries.put(profileId, new CachedQuery(hash, docs, vector));
+        return vector;
+    }
+    float idf(String term) {
+        Integer id = termIds.get(term);
+        synchronized(this) {
+            return idf(id==null ? Integer.MAX_VALUE : id);
+        }
+    }
+    private float idf(int termId) {
+        int df = termId < docFreq.length ? docFreq[termId] : 0;
+        return (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+    }
+    private void append(Vector v) {
+        Vector[] arr = slots;
+        if(count == arr.length) arr = Arrays.copyOf(arr, arr.length * 2);
+        arr[count] = v;
+        slots = arr;
+        slotById.put(v.id, count);
+        count = count + 1;
+        liveDocs++;
+    }
+    /**
+     * Drops tombstoned slots once they make up a quarter of the scanned range. The new array
+     * keeps the old capacity and is published before {@code count} shrinks, so a concurrent
+     * scan that read the old count only meets trailing nulls.
+     */
+    private void compact() {
+        Vector[] old = slots;
+        Vector[] arr = new Vector[old.length];
+        int n = 0;
+        for(int i = 0; i < count; i++) {
+            Vector v = old[i];
+            if(v==null) continue;
+            arr[n] = v;
+            slotById.put(v.id, n++);
+        }
+        slots = arr;
+        count = n;
+    }
+}
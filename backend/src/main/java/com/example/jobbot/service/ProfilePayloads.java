@@ -0,0 +1,77 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.Profile;
+import com.example.jobbot.repository.ProfileRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+/**
+ * Canonical JSON form of a profile, rendered once when the profile is written and stored on
+ * the row together with a strong ETag, so reads can hand the bytes out verbatim.
+ */
+@Component
+public class ProfilePayloads {
+    private final ProfileRepository profileRepo;
+    private final ObjectMapper mapper = new ObjectMapper();
+    public ProfilePayloads(ProfileRepository profileRepo) {
+        this.profileRepo = profileRepo;
+    }
+    public static class Payload {
+        private final byte[] body;
+        private final String etag;
+        public Payload(byte[] body, String etag) { this.body = body; this.etag = etag; }
+        public byte[] getBody() { return body; }
+        public String getEtag() { return etag; }
+    }
+    public static final Payload EMPTY = new Payload("{}".getBytes(StandardCharsets.UTF_8), etag("{}".getBytes(StandardCharsets.UTF_8)));
+    /** Renders the payload onto the entity; callers save the profile afterwards. */
+    public void render(Profile p) {
+        ObjectNode n = mapper.createObjectNode();
+        n.put("id", p.getId());
+        n.put("name", p.getName());
+        n.put("email", p.getEmail());
+        n.put("phone", p.getPhone());
+        n.put("location", p.getLocation());
+        try {
+            n.set("links", p.getLinksJson()==null ? mapper.createObjectNode() : mapper.readTree(p.getLinksJson()));
+        } catch(Exception e) {
+            n.set("links", mapper.createObjectNode());
+        }
+        n.put("resumeText", p.getResumeText());
+        byte[] body = n.toString().getBytes(StandardCharsets.UTF_8);
+        p.setPayloadJson(new String(body, StandardCharsets.UTF_8));
+        p.setPayloadEtag(etag(body));
+    }
+    /** Stored payload of {@code p}, rendering and persisting it first for rows written before payloads existed. */
+    public Payload of(Profile p) {
+        if(p.getPayloadJson()==null || p.getPayloadEtag()==null) {
+            render(p);
+            profileRepo.save(p);
+        }
+        return new Payload(p.getPayloadJson().getBytes(StandardCharsets.UTF_8), p.getPayloadEtag());
+    }
+    /** JSON array of the stored payloads, with an ETag derived from the element ETags. */
+    public Payload arrayOf(List<Profile> profiles) {
+        StringBuilder json = new StringBuilder("[");
+        StringBuilder tags = new StringBuilder();
+        for(Profile p : profiles) {
+            Payload one = of(p);
+            if(json.length() > 1) json.append(',');
+            json.append(p.getPayloadJson());
+            tags.append(one.getEtag());
+        }
+        json.append(']');
+        return new Payload(json.toString().getBytes(StandardCharsets.UTF_8), etag(tags.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+    private static String etag(byte[] bytes) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(d).substring(0, 22) + "\"";
+        } catch(Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
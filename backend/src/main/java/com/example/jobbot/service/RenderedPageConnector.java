@@ -0,0 +1,75 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobSource;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Map;
+/**
+ * Sources of type {@code render} are JS-heavy pages: the playwright-service renders them in its
+ * pooled browser and the resulting HTML goes through the same extractors as a fetched page.
+ * Only active when {@code jobbot.render.url} points at the service.
+ */
+@Component
+@Order(5)
+public class RenderedPageConnector implements SourceConnector {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String renderUrl;
+    private final int timeoutMs;
+    private final HttpFetcher http;
+    private final DocumentExtractors extractors;
+    private final JobPostingWriter writer;
+    private final ScrapeMetrics metrics;
+    public RenderedPageConnector(@Value("${jobbot.render.url:}") String renderUrl,
+                                 @Value("${jobbot.render.timeout-ms:60000}") int timeoutMs,
+                                 HttpFetcher http, DocumentExtractors extractors,
+                                 JobPostingWriter writer, ScrapeMetrics metrics) {
+        this.renderUrl = renderUrl.endsWith("/") ? renderUrl.substring(0, renderUrl.length() - 1) : renderUrl;
+        this.timeoutMs = timeoutMs;
+        this.http = http;
+        this.extractors = extractors;
+        this.writer = writer;
+        this.metrics = metrics;
+    }
+    @Override public boolean supports(JobSource s) {
+        return !renderUrl.isBlank() && "render".equalsIgnoreCase(s.getType());
+    }
+    @Override public FlushResult sync(JobSource s) throws Exception {
+        long start = System.nanoTime();
+        // politeness is owed to the rendered site, not to the render service
+        HttpFetcher.Response res = http.send(HttpRequest.newBuilder(URI.create(renderUrl + "/render"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMillis(timeoutMs))
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(Map.of("url", s.getUrl())))), s.getUrl());
+        byte[] body = res.bytes();
+        if(res.status()!=200) {
+            metrics.fetched(s.getUrl(), res.status(), System.nanoTime() - start);
+            throw new IOException("Render service answered " + res.status() + " for " + s.getUrl() + ": " + new String(body, StandardCharsets.UTF_8));
+        }
+        JsonNode json = mapper.readTree(body);
+        int status = json.path("status").asInt();
+        metrics.fetched(s.getUrl(), status, System.nanoTime() - start);
+        metrics.bytes(s.getUrl(), body.length);
+        if(status < 200 || status >= 300) throw new IOException("HTTP " + status + " rendering " + s.getUrl());
+        String html = json.path("html").asText("");
+        String base = json.path("finalUrl").asText(s.getUrl());
+        PostingBatch out = writer.newBatch(s);
+        metrics.parse(() -> {
+            Document doc = Jsoup.parse(html, base);
+            extractors.extract(doc, s, out);
+            return null;
+        });
+        // the service hands back the page once scripts have settled, so this is the whole listing;
+        // finish() still keeps everything open when nothing was extracted or too much went missing
+        out.completeListing();
+        return out.finish();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.jobbot.service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+/**
+ * robots.txt per origin, compiled once into {@link RobotsRules} and kept in a bounded TTL cache.
+ * A missing file allows everything; an unreachable one disallows everything until a shorter retry
+ * TTL runs out. The group's Crawl-delay is handed to the {@link HostRateLimiter}.
+ */
+@Component
+public class RobotsPolicy {
+    private static final Logger log = LoggerFactory.getLogger(RobotsPolicy.class);
+    static final String AGENT = "JobBot-Scraper";
+    /** RFC 9309 lets crawlers stop reading after 500 KiB. */
+    private static final int MAX_BYTES = 500 * 1024;
+    private final TtlLruCache<String, RobotsRules> cache;
+    private final long errorTtlMs;
+    private final long maxCrawlDelayMs;
+    private final HostRateLimiter rateLimiter;
+    private final HttpFetcher http;
+    public RobotsPolicy(HostRateLimiter rateLimiter, HttpFetcher http,
+                        @Value("${jobbot.robots.cache.max-entries:10000}") int maxEntries,
+                        @Value("${jobbot.robots.cache.ttl-seconds:86400}") long ttlSeconds,
+                        @Value("${jobbot.robots.cache.error-ttl-seconds:600}") long errorTtlSeconds,
+                        @Value("${jobbot.robots.max-crawl-delay-ms:60000}") long maxCrawlDelayMs) {
+        this.rateLimiter = rateLimiter;
+        this.http = http;
+        this.cache = new TtlLruCache<>(maxEntries, ttlSeconds * 1000);
+        this.errorTtlMs = errorTtlSeconds * 1000;
+        this.maxCrawlDelayMs = maxCrawlDelayMs;
+    }
+    public boolean allowed(String urlStr) {
+        try {
+            URI uri = new URI(urlStr);
+            if(uri.getHost()==null || uri.getScheme()==null) return false;
+            String origin = uri.getScheme().toLowerCase() + "://" + uri.getRawAuthority().toLowerCase();
+            RobotsRules rules = cache.get(origin);
+            if(rules==null) rules = load(origin);
+            String path = uri.getRawPath()==null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            return rules.allowed(uri.getRawQuery()==null ? path : path + "?" + uri.getRawQuery());
+        } catch(Exception e) {
+            return false;
+        }
+    }
+    public int cachedOrigins() {
+        return cache.size();
+    }
+    private RobotsRules load(String origin) {
+        String url = origin + "/robots.txt";
+        RobotsRules rules;
+        int status = 0;
+        long ttl = -1;
+        try(HttpFetcher.Response res = http.get(url)) {
+            status = res.status();
+            if(status >= 200 && status < 300) {
+                byte[] body;
+                try(InputStream in = res.body()) {
+                    body = in.readNBytes(MAX_BYTES);
+                }
+                rules = RobotsRules.parse(new String(body, StandardCharsets.UTF_8), AGENT);
+            } else if(status >= 400 && status < 500) {
+                rules = RobotsRules.ALLOW_ALL;
+            } else {
+                rules = RobotsRules.DISALLOW_ALL;
+                ttl = errorTtlMs;
+            }
+        } catch(Exception e) {
+            rules = RobotsRules.DISALLOW_ALL;
+            ttl = errorTtlMs;
+        }
+        if(ttl < 0) cache.put(origin, rules);
+        else cache.put(origin, rules, ttl);
+        long delay = Math.min(rules.crawlDelayMs(), maxCrawlDelayMs);
+        rateLimiter.setCrawlDelay(url, delay);
+        log.info("robots_loaded origin={} status={} crawl_delay_ms={}", origin, status, delay);
+        return rules;
+    }
+}
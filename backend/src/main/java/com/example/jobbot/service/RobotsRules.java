@@ -0,0 +1,192 @@
+package com.example.jobbot.service;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+/**
+ * The robots.txt group that applies to one user agent, compiled into a path trie (RFC 9309).
+ * The most specific group naming the agent wins, falling back to {@code *}; among matching rules
+ * the longest pattern wins and Allow wins a tie. {@code *} and a trailing {@code $} are supported.
+ * A check walks the trie once along the path, so it costs O(path length) whatever the rule count.
+ */
+public final class RobotsRules {
+    /** Nothing disallowed; used for a missing robots.txt (4xx). */
+    public static final RobotsRules ALLOW_ALL = new RobotsRules(new Node(), -1);
+    /** Everything disallowed; used while robots.txt is unreachable (5xx or network error). */
+    public static final RobotsRules DISALLOW_ALL = disallowAll();
+    private final Node root;
+    private final long crawlDelayMs;
+    private RobotsRules(Node root, long crawlDelayMs) {
+        this.root = root;
+        this.crawlDelayMs = crawlDelayMs;
+    }
+    /** Crawl-delay of the chosen group in ms, or -1 when it has none. */
+    public long crawlDelayMs() {
+        return crawlDelayMs;
+    }
+    /** {@code pathAndQuery} is the URL's raw path plus {@code ?query}, if any. */
+    public boolean allowed(String pathAndQuery) {
+        String path = pathAndQuery==null || pathAndQuery.isEmpty() ? "/" : pathAndQuery;
+        if(path.equals("/robots.txt")) return true;
+        // NFA walk: a handful of nodes are live at once, more only when patterns use '*'
+        Node[] live = new Node[8], next = new Node[8];
+        int liveCount = addLive(live, 0, root);
+        int bestLen = -1;
+        boolean bestAllow = true;
+        for(int i = 0; ; i++) {
+            boolean atEnd = i==path.length();
+            for(int k = 0; k < liveCount; k++) {
+                Node n = live[k];
+                if(n.rule!=0 && (n.depth > bestLen || (n.depth==bestLen && n.rule==Node.ALLOW))) {
+                    bestLen = n.depth;
+                    bestAllow = n.rule==Node.ALLOW;
+                }
+                // "...$" counts the '$' toward its length, like the pattern text does
+                if(atEnd && n.endRule!=0 && (n.depth + 1 > bestLen || (n.depth + 1==bestLen && n.endRule==Node.ALLOW))) {
+                    bestLen = n.depth + 1;
+                    bestAllow = n.endRule==Node.ALLOW;
+                }
+            }
+            if(atEnd) break;
+            char c = path.charAt(i);
+            int nextCount = 0;
+            for(int k = 0; k < liveCount; k++) {
+                Node n = live[k];
+                if(next.length - nextCount < 4) next = Arrays.copyOf(next, next.length * 2);
+                if(n.isStarNode) nextCount = addLive(next, nextCount, n);
+                Node child = n.child(c);
+                if(child!=null) nextCount = addLive(next, nextCount, child);
+            }
+            if(nextCount==0) break;
+            Node[] t = live; live = next; next = t.length >= live.length ? t : new Node[live.length];
+            liveCount = nextCount;
+        }
+        return bestAllow;
+    }
+    /** Adds n and, since '*' also matches nothing, the star node hanging off it. */
+    private static int addLive(Node[] arr, int count, Node n) {
+        count = addOne(arr, count, n);
+        return n.star==null ? count : addOne(arr, count, n.star);
+    }
+    private static int addOne(Node[] arr, int count, Node n) {
+        for(int k = 0; k < count; k++) if(arr[k]==n) return count;
+        arr[count] = n;
+        return count + 1;
+    }
+    /**
+     * Parses robots.txt and keeps only the group for {@code agent}, the product token of our
+     * User-Agent (e.g. {@code JobBot-Scraper}). Matching is case-insensitive.
+     */
+    public static RobotsRules parse(String text, String agent) {
+        String token = agent.toLowerCase(Locale.ROOT);
+        // consecutive User-agent lines open one group; rules for the same agent in several groups are merged
+        Map<String, List<String[]>> groups = new LinkedHashMap<>();
+        Map<String, Long> delays = new LinkedHashMap<>();
+        Set<String> agents = new HashSet<>();
+        List<String> current = new ArrayList<>();
+        boolean inAgents = false;
+        for(String raw : text.split("\r\n|\r|\n")) {
+            int hash = raw.indexOf('#');
+            String line = (hash >= 0 ? raw.substring(0, hash) : raw).trim();
+            int colon = line.indexOf(':');
+            if(colon <= 0) continue;
+            String key = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            switch(key) {
+                case "user-agent" -> {
+                    if(!inAgents) current = new ArrayList<>();
+                    inAgents = true;
+                    String ua = value.toLowerCase(Locale.ROOT);
+                    int slash = ua.indexOf('/');
+                    current.add(slash > 0 ? ua.substring(0, slash).trim() : ua);
+                    agents.add(current.get(current.size() - 1));
+                }
+                case "allow", "disallow" -> {
+                    inAgents = false;
+                    for(String ua : current) groups.computeIfAbsent(ua, u -> new ArrayList<>()).add(new String[]{key, value});
+                }
+                case "crawl-delay" -> {
+                    inAgents = false;
+                    try {
+                        long ms = Math.round(Double.parseDouble(value) * 1000);
+                        if(ms >= 0) for(String ua : current) delays.putIfAbsent(ua, ms);
+                    } catch(NumberFormatException ignored) {}
+                }
+                default -> inAgents = false;
+            }
+        }
+        String chosen = null;
+        for(String ua : agents) {
+            if(ua.equals("*") || ua.isEmpty()) continue;
+            if(token.startsWith(ua) && (chosen==null || ua.length() > chosen.length())) chosen = ua;
+        }
+        if(chosen==null) chosen = "*";
+        Node root = new Node();
+        for(String[] rule : groups.getOrDefault(chosen, List.of())) {
+            // an empty Disallow allows everything; an empty Allow means nothing
+            if(rule[1].isEmpty()) continue;
+            root.insert(rule[1], rule[0].equals("allow") ? Node.ALLOW : Node.DISALLOW);
+        }
+        return new RobotsRules(root, delays.getOrDefault(chosen, -1L));
+    }
+    private static RobotsRules disallowAll() {
+        Node root = new Node();
+        root.insert("/", Node.DISALLOW);
+        return new RobotsRules(root, -1);
+    }
+    /** Trie node; {@code depth} is the pattern length up to here, which is what "longest match" compares. */
+    private static final class Node {
+        static final byte ALLOW = 1, DISALLOW = 2;
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        final int depth;
+        final boolean isStarNode;
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        Node star;
+        byte rule, endRule;
+        Node() { this(0, false); }
+        private Node(int depth, boolean isStarNode) {
+            this.depth = depth;
+            this.isStarNode = isStarNode;
+        }
+        Node child(char c) {
+            for(int i = 0; i < keys.length; i++) if(keys[i]==c) return children[i];
+            return null;
+        }
+        void insert(String pattern, byte kind) {
+            Node n = this;
+            for(int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if(c=='$' && i==pattern.length() - 1) {
+                    n.endRule = merge(n.endRule, kind);
+                    return;
+                }
+                if(c=='*') {
+                    if(n.isStarNode) continue; // "**" is the same as "*"
+                    if(n.star==null) n.star = new Node(n.depth + 1, true);
+                    n = n.star;
+                    continue;
+                }
+                Node child = n.child(c);
+                if(child==null) {
+                    child = new Node(n.depth + 1, false);
+                    n.keys = Arrays.copyOf(n.keys, n.keys.length + 1);
+                    n.children = Arrays.copyOf(n.children, n.children.length + 1);
+                    n.keys[n.keys.length - 1] = c;
+                    n.children[n.children.length - 1] = child;
+                }
+                n = child;
+            }
+            n.rule = merge(n.rule, kind);
+        }
+        /** The same pattern listed as both Allow and Disallow is allowed. */
+        private static byte merge(byte existing, byte kind) {
+            return existing==ALLOW || kind==ALLOW ? ALLOW : kind;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.SavedSearch;
+import com.example.jobbot.model.SearchAlert;
+import com.example.jobbot.repository.SavedSearchRepository;
+import com.example.jobbot.repository.SearchAlertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+/**
+ * Matches every newly inserted posting against all saved searches with a compiled
+ * {@link SearchMatcher} and queues a {@code search_alert} row per match for the owner to collect.
+ * Postings the near-duplicate index files under an earlier posting are skipped, so a role
+ * syndicated to several sources alerts once. The matcher is recompiled when searches are saved
+ * or deleted here, and on a timer for changes made through other nodes.
+ */
+@Service
+@Order(4)
+public class SavedSearchAlerts implements PostingIngestListener {
+    private static final Logger log = LoggerFactory.getLogger(SavedSearchAlerts.class);
+    private final SavedSearchRepository searches;
+    private final SearchAlertRepository alerts;
+    private final NearDuplicateIndex nearDuplicates;
+    private final TransactionTemplate tx;
+    private final Counter queued;
+    private final Timer matchTimer;
+    private volatile Compiled compiled = new Compiled(SearchMatcher.compile(List.of()), Map.of(), -1, null, null);
+    /** The matcher plus each search's owner, and the table state it was built from. */
+    private record Compiled(SearchMatcher matcher, Map<Long, Long> owners, long count, Long maxId, Instant maxUpdatedAt) {}
+    public SavedSearchAlerts(SavedSearchRepository searches, SearchAlertRepository alerts, NearDuplicateIndex nearDuplicates,
+                             PlatformTransactionManager txManager, MeterRegistry registry) {
+        this.searches = searches;
+        this.alerts = alerts;
+        this.nearDuplicates = nearDuplicates;
+        this.tx = new TransactionTemplate(txManager);
+        this.queued = Counter.builder("jobbot.alerts.queued").description("Saved-search alerts queued").register(registry);
+        this.matchTimer = Timer.builder("jobbot.alerts.match").description("Matching one posting against all saved searches").register(registry);
+    }
+    /** Picks up searches saved, edited or deleted through other nodes; also does the first compile after startup. */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${jobbot.alerts.refresh-ms:30000}")
+    public void refresh() {
+        Compiled c = compiled;
+        if(c.count()!=searches.count() || !Objects.equals(c.maxId(), searches.findMaxId())
+                || !Objects.equals(c.maxUpdatedAt(), searches.findMaxUpdatedAt())) reload();
+    }
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        long count = searches.count();
+        Long maxId = searches.findMaxId();
+        Instant maxUpdatedAt = searches.findMaxUpdatedAt();
+        List<SavedSearch> all = searches.findAll();
+        Map<Long, Long> owners = new HashMap<>();
+        for(SavedSearch s : all) owners.put(s.getId(), s.getUserId());
+        SearchMatcher m = SearchMatcher.compile(all);
+        compiled = new Compiled(m, owners, count, maxId, maxUpdatedAt);
+        log.info("saved_searches_compiled searches={} keywords={} duration_ms={}", m.size(), m.keywordCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+    public SavedSearch save(SavedSearch search) {
+        searches.save(search);
+        reload();
+        return search;
+    }
+    /** Deletes the search with its alerts, delivered or not. */
+    public void delete(SavedSearch search) {
+        tx.executeWithoutResult(status -> {
+            alerts.deleteBySearch(search.getId());
+            searches.delete(search);
+        });
+        reload();
+    }
+    /** Marks the user's alerts up to {@code upTo} delivered; returns how many were pending. */
+    public int acknowledge(Long userId, Long upTo) {
+        Integer n = tx.execute(status -> alerts.acknowledge(userId, upTo, Instant.now()));
+        return n==null ? 0 : n;
+    }
+    @Override public void onInserted(List<JobPosting> postings) {
+        Compiled c = compiled;
+        if(c.matcher().size()==0) return;
+        Instant now = Instant.now();
+        List<SearchAlert> out = new ArrayList<>();
+        for(JobPosting j : postings) {
+            if(nearDuplicates.canonicalOf(j.getId())!=j.getId()) continue;
+            long t0 = System.nanoTime();
+            List<Long> hits = c.matcher().match(j);
+            matchTimer.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+            for(Long id : hits) out.add(new SearchAlert(id, c.owners().get(id), j.getId(), now));
+        }
+        if(out.isEmpty()) return;
+        tx.executeWithoutResult(status -> alerts.saveAll(out));
+        queued.increment(out.size());
+    }
+    /** Alerts are for new postings only. */
+    @Override public void onUpdated(List<JobPosting> postings) {}
+}
@@ -0,0 +1,198 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobSource;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+/**
+ * Micrometer meters for the scrape path (exported at /actuator/prometheus) plus the last few runs
+ * of every source for /api/sources/{id}/stats. A source is synced on a single thread, so the run
+ * in progress is kept in a thread local and the fetcher, connectors and writer add to it as they go.
+ * The run, parse and persist timers carry histograms, so they are not tagged by source; per-source
+ * timings are in the stats ring and the {@code scrape_run} log line.
+ */
+@Component
+public class ScrapeMetrics {
+    private static final Logger log = LoggerFactory.getLogger(ScrapeMetrics.class);
+    private static final ThreadLocal<ScrapeRun> CURRENT = new ThreadLocal<>();
+    private final MeterRegistry registry;
+    private final int keepRuns;
+    private final Map<Long, Deque<ScrapeRun>> recent = new ConcurrentHashMap<>();
+    public ScrapeMetrics(MeterRegistry registry, @Value("${jobbot.metrics.recent-runs:50}") int keepRuns) {
+        this.registry = registry;
+        this.keepRuns = keepRuns;
+    }
+    /** The run in progress on this thread, or null outside {@link #begin}/{@link #end}. */
+    public static ScrapeRun current() {
+        return CURRENT.get();
+    }
+    public ScrapeRun begin(JobSource s, SourceConnector connector) {
+        ScrapeRun run = new ScrapeRun(s.getId(), sourceTag(s), HostRateLimiter.hostOf(s.getUrl()), connector.getClass().getSimpleName());
+        CURRENT.set(run);
+        return run;
+    }
+    public void end(ScrapeRun run, FlushResult result, Throwable error) {
+        CURRENT.remove();
+        run.durationMs = (System.nanoTime() - run.startNanos) / 1_000_000;
+        if(result!=null) {
+            run.inserted = result.getInserted();
+            run.deduped = result.getSkipped();
+            run.updated = result.getUpdated();
+            run.closed = result.getClosed();
+            run.found = run.inserted + run.deduped + run.updated;
+        }
+        if(error!=null) {
+            run.outcome = "error";
+            run.errorCategory = categorize(run, error);
+            run.error = error.getMessage();
+            Counter.builder("jobbot.scrape.errors").description("Failed scrapes by cause")
+                    .tags("source", run.getSource(), "host", run.getHost(), "category", run.errorCategory)
+                    .register(registry).increment();
+        } else {
+            run.outcome = run.unchanged && run.found==0 && run.closed==0 ? "unchanged" : "ok";
+        }
+        Timer.builder("jobbot.scrape.run").description("Whole scrape of one source")
+                .tags("connector", run.getConnector(), "outcome", run.outcome)
+                .register(registry).record(run.durationMs, TimeUnit.MILLISECONDS);
+        postings(run.getSource(), "found", run.found);
+        postings(run.getSource(), "inserted", run.inserted);
+        postings(run.getSource(), "deduped", run.deduped);
+        postings(run.getSource(), "updated", run.updated);
+        postings(run.getSource(), "closed", run.closed);
+        if(run.getSourceId()!=null) {
+            Deque<ScrapeRun> runs = recent.computeIfAbsent(run.getSourceId(), id -> new ConcurrentLinkedDeque<>());
+            runs.addFirst(run);
+            while(runs.size() > keepRuns) runs.pollLast();
+        }
+        log.info("scrape_run source=\"{}\" host={} connector={} outcome={} status={} duration_ms={} fetch_ms={} wait_ms={} bytes={} parse_ms={} persist_ms={} found={} inserted={} deduped={} updated={} closed={}{}",
+                run.getSource(), run.getHost(), run.getConnector(), run.outcome, run.httpStatus, run.durationMs,
+                run.getFetchMs(), run.rateLimitWaitMs, run.bytes, run.getParseMs(), run.getPersistMs(),
+                run.found, run.inserted, run.deduped, run.updated, run.closed,
+                error==null ? "" : " error_category=" + run.errorCategory + " error=\"" + run.error + "\"");
+    }
+    /** Most recent first. */
+    public List<ScrapeRun> recentRuns(Long sourceId) {
+        Deque<ScrapeRun> runs = recent.get(sourceId);
+        return runs==null ? List.of() : new ArrayList<>(runs);
+    }
+    /** Totals and averages over the runs still in the ring for one source. */
+    public Map<String, Object> summary(List<ScrapeRun> runs) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("runs", runs.size());
+        if(runs.isEmpty()) return out;
+        long[] durations = runs.stream().mapToLong(ScrapeRun::getDurationMs).sorted().toArray();
+        out.put("ok", runs.stream().filter(r -> "ok".equals(r.getOutcome())).count());
+        out.put("unchanged", runs.stream().filter(r -> "unchanged".equals(r.getOutcome())).count());
+        out.put("errors", runs.stream().filter(r -> r.getErrorCategory()!=null)
+                .collect(Collectors.groupingBy(ScrapeRun::getErrorCategory, TreeMap::new, Collectors.counting())));
+        out.put("p50DurationMs", durations[(durations.length - 1) / 2]);
+        out.put("p95DurationMs", durations[(int) Math.ceil(durations.length * 0.95) - 1]);
+        out.put("avgFetchMs", runs.stream().mapToLong(ScrapeRun::getFetchMs).average().orElse(0));
+        out.put("avgRateLimitWaitMs", runs.stream().mapToLong(ScrapeRun::getRateLimitWaitMs).average().orElse(0));
+        out.put("avgParseMs", runs.stream().mapToLong(ScrapeRun::getParseMs).average().orElse(0));
+        out.put("avgPersistMs", runs.stream().mapToLong(ScrapeRun::getPersistMs).average().orElse(0));
+        out.put("bytes", runs.stream().mapToLong(ScrapeRun::getBytes).sum());
+        out.put("found", runs.stream().mapToLong(ScrapeRun::getFound).sum());
+        out.put("inserted", runs.stream().mapToLong(ScrapeRun::getInserted).sum());
+        out.put("deduped", runs.stream().mapToLong(ScrapeRun::getDeduped).sum());
+        out.put("updated", runs.stream().mapToLong(ScrapeRun::getUpdated).sum());
+        out.put("closed", runs.stream().mapToLong(ScrapeRun::getClosed).sum());
+        return out;
+    }
+    public void fetched(String url, int status, long nanos) {
+        ScrapeRun run = CURRENT.get();
+        if(run!=null) {
+            run.fetchNanos += nanos;
+            run.httpStatus = status;
+        }
+        Timer.builder("jobbot.scrape.fetch").description("Time to response headers (and body, unless streamed)")
+                .tags("source", run==null ? "none" : run.getSource(), "host", HostRateLimiter.hostOf(url), "status", String.valueOf(status))
+                .register(registry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+    public void bytes(String url, long bytes) {
+        ScrapeRun run = CURRENT.get();
+        if(run!=null) run.bytes += bytes;
+        DistributionSummary.builder("jobbot.scrape.fetch.bytes").baseUnit("bytes")
+                .tags("source", run==null ? "none" : run.getSource(), "host", HostRateLimiter.hostOf(url))
+                .register(registry).record(bytes);
+    }
+    public void unchanged() {
+        ScrapeRun run = CURRENT.get();
+        if(run!=null) run.unchanged = true;
+    }
+    public void rateLimited(String host, long waitMs) {
+        ScrapeRun run = CURRENT.get();
+        if(run!=null) run.rateLimitWaitMs += waitMs;
+        Timer.builder("jobbot.scrape.ratelimit.wait").description("Politeness delay before a request")
+                .tags("host", host).register(registry).record(waitMs, TimeUnit.MILLISECONDS);
+    }
+    public void retried(String host, String reason) {
+        Counter.builder("jobbot.http.retries").description("Requests retried after a failure or a 429/5xx")
+                .tags("host", host, "reason", reason).register(registry).increment();
+    }
+    /**
+     * Runs an extraction step and records its time as parse time. Flushes the batch triggers
+     * along the way are already counted as persist time, so they are subtracted.
+     */
+    public <T> T parse(Callable<T> step) throws Exception {
+        ScrapeRun run = CURRENT.get();
+        long start = System.nanoTime();
+        long persistedBefore = run==null ? 0 : run.persistNanos;
+        try {
+            return step.call();
+        } finally {
+            long nanos = System.nanoTime() - start - (run==null ? 0 : run.persistNanos - persistedBefore);
+            if(run!=null) run.parseNanos += nanos;
+            Timer.builder("jobbot.scrape.parse").description("Extraction time, excluding persistence")
+                    .tags("connector", run==null ? "none" : run.getConnector())
+                    .register(registry).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+    public void persisted(long nanos) {
+        ScrapeRun run = CURRENT.get();
+        if(run!=null) run.persistNanos += nanos;
+        Timer.builder("jobbot.scrape.persist").description("Dedup lookup and insert of one flush")
+                .register(registry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+    private void postings(String source, String outcome, int n) {
+        if(n==0) return;
+        Counter.builder("jobbot.scrape.postings").description("Candidate postings by outcome")
+                .tags("source", source, "outcome", outcome).register(registry).increment(n);
+    }
+    private static String categorize(ScrapeRun run, Throwable e) {
+        if(run.httpStatus >= 500) return "http_5xx";
+        if(run.httpStatus >= 400) return "http_4xx";
+        for(Throwable t = e; t!=null; t = t.getCause()) {
+            if(t instanceof SocketTimeoutException) return "timeout";
+            if(t instanceof UnknownHostException || t instanceof ConnectException) return "connect";
+            if(t instanceof XMLStreamException || t instanceof JsonProcessingException) return "parse";
+            if(t instanceof DataAccessException) return "db";
+        }
+        return e instanceof IOException ? "io" : "other";
+    }
+    private static String sourceTag(JobSource s) {
+        return s.getName()!=null && !s.getName().isBlank() ? s.getName() : HostRateLimiter.hostOf(s.getUrl());
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobSource;
+import com.example.jobbot.model.ScrapeRequest;
+import com.example.jobbot.repository.JobSourceRepository;
+import com.example.jobbot.repository.ScrapeRequestRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * Durable queue for on-demand scrapes. Requests are rows in {@code scrape_request}; a bounded pool
+ * claims them with a conditional update, so the request thread only inserts a row and returns.
+ * A request for a source that already has one queued or running is folded into that one; a
+ * unique index on the pending source id makes that hold across nodes. A request only runs on the
+ * node holding its host's lease, and never while the scheduler is syncing the host, so it cannot
+ * race a scheduled sync over the source's fetch state or the postings it closes.
+ */
+@Service
+public class ScrapeQueue {
+    private static final Logger log = LoggerFactory.getLogger(ScrapeQueue.class);
+    private static final List<String> PENDING = List.of(ScrapeRequest.QUEUED, ScrapeRequest.RUNNING);
+    private final ScrapeRequestRepository requests;
+    private final JobSourceRepository sources;
+    private final ScraperService scraper;
+    private final HostLeases leases;
+    private final TransactionTemplate tx;
+    private final ExecutorService workers;
+    private final Semaphore idle;
+    private final Duration retention;
+    private final Object drainLock = new Object();
+    public record Enqueued(ScrapeRequest request, boolean coalesced) {}
+    public ScrapeQueue(ScrapeRequestRepository requests, JobSourceRepository sources, ScraperService scraper,
+                       HostLeases leases, PlatformTransactionManager txManager,
+                       @Value("${jobbot.scrape.queue.workers:4}") int workers,
+                       @Value("${jobbot.scrape.queue.retention-days:7}") int retentionDays) {
+        this.requests = requests;
+        this.sources = sources;
+        this.scraper = scraper;
+        this.leases = leases;
+        this.tx = new TransactionTemplate(txManager);
+        this.idle = new Semaphore(workers);
+        this.retention = Duration.ofDays(retentionDays);
+        AtomicInteger n = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "scrape-queue-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+    /**
+     * At startup, requests still running under this node's id were left by an earlier process with
+     * the same configured {@code node-id}; nothing of this one is running yet, so they are requeued.
+     */
+    @PostConstruct
+    public void requeueRestarted() {
+        Integer requeued = tx.execute(status -> requests.requeueClaimedBy(leases.nodeId()));
+        if(requeued!=null && requeued > 0) log.info("Requeued {} scrape requests interrupted by a restart", requeued);
+        requeueInterrupted();
+    }
+    /**
+     * Requests left running by a node that is gone (no heartbeat within the lease TTL) never
+     * finish, so they go back in the queue. Checked once per lease TTL; this node's own running
+     * requests are never touched here.
+     */
+    @Scheduled(fixedDelayString = "${jobbot.cluster.lease-ttl-ms:60000}")
+    public void requeueInterrupted() {
+        Integer requeued = tx.execute(status -> requests.requeueOrphaned());
+        if(requeued!=null && requeued > 0) log.info("Requeued {} interrupted scrape requests", requeued);
+    }
+    /** Queues a scrape of the source, or returns the request already queued or running for it. */
+    public synchronized Enqueued enqueue(Long sourceId) {
+        Enqueued e;
+        try {
+            e = tx.execute(status -> coalesceOrInsert(sourceId));
+        } catch(DataIntegrityViolationException race) {
+            // another node queued one between our check and the insert
+            e = tx.execute(status -> coalesceOrInsert(sourceId));
+        }
+        if(!e.coalesced()) drain();
+        return e;
+    }
+    private Enqueued coalesceOrInsert(Long sourceId) {
+        Optional<ScrapeRequest> pending = requests.findFirstBySourceIdAndStatusInOrderByIdAsc(sourceId, PENDING);
+        if(pending.isPresent()) {
+            requests.coalesce(pending.get().getId());
+            return new Enqueued(pending.get(), true);
+        }
+        ScrapeRequest r = new ScrapeRequest();
+        r.setSourceId(sourceId);
+        r.setStatus(ScrapeRequest.QUEUED);
+        r.setRequestedAt(Instant.now());
+        return new Enqueued(requests.saveAndFlush(r), false);
+    }
+    public Optional<ScrapeRequest> get(Long id) {
+        return requests.findById(id);
+    }
+    /** Number of queued requests ahead of this one; 0 once it is running or finished. */
+    public long position(ScrapeRequest r) {
+        return ScrapeRequest.QUEUED.equals(r.getStatus()) ? requests.countByStatusAndIdLessThan(ScrapeRequest.QUEUED, r.getId()) : 0;
+    }
+    /** Hands queued requests to idle workers. Also polled, which picks up rows queued by another instance. */
+    @Scheduled(fixedDelayString = "${jobbot.scrape.queue.poll-ms:5000}")
+    public void drain() {
+        synchronized(drainLock) {
+            while(idle.tryAcquire()) {
+                Long id = claimNext();
+                if(id==null) {
+                    idle.release();
+                    return;
+                }
+                workers.execute(() -> {
+                    try {
+                        execute(id);
+                    } finally {
+                        idle.release();
+                        drain();
+                    }
+                });
+            }
+        }
+    }
+    @Scheduled(fixedDelayString = "${jobbot.scrape.queue.prune-interval-ms:3600000}")
+    public void prune() {
+        Integer n = tx.execute(status -> requests.deleteFinishedBefore(Instant.now().minus(retention)));
+        if(n!=null && n > 0) log.info("Pruned {} finished scrape requests", n);
+    }
+    /** Claims the oldest queued request whose host is neither running here nor leased to another node. */
+    private Long claimNext() {
+        return tx.execute(status -> {
+            for(ScrapeRequest r : requests.findAllById(requests.findQueuedIds(PageRequest.of(0, 10)))) {
+                String host = sources.findById(r.getSourceId()).map(s -> HostRateLimiter.hostOf(s.getUrl())).orElse(null);
+                if(host!=null && (scraper.isRunning(host) || leases.leasedElsewhere(host))) continue;
+                if(requests.claim(r.getId(), Instant.now(), leases.nodeId())==1) return r.getId();
+            }
+            return null;
+        });
+    }
+    private void execute(Long id) {
+        ScrapeRequest r = requests.findById(id).orElse(null);
+        if(r==null) return;
+        JobSource s = sources.findById(r.getSourceId()).orElse(null);
+        if(s==null) {
+            finish(id, ScrapeRequest.FAILED, null, "source " + r.getSourceId() + " no longer exists");
+            return;
+        }
+        try {
+            Optional<FlushResult> result = scraper.scrapeExclusive(s);
+            if(result.isPresent()) {
+                finish(id, ScrapeRequest.DONE, result.get(), null);
+            } else {
+                // the host got busy after the claim; the next drain or poll picks the request up again
+                tx.executeWithoutResult(st -> requests.requeue(id));
+            }
+        } catch(Exception e) {
+            finish(id, ScrapeRequest.FAILED, null, e.getMessage()==null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+    }
+    private void finish(Long id, String status, FlushResult result, String error) {
+        String err = error!=null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        tx.executeWithoutResult(st -> requests.finish(id, status, Instant.now(),
+                result==null ? null : result.getInserted(), result==null ? null : result.getSkipped(),
+                result==null ? null : result.getUpdated(), result==null ? null : result.getClosed(), err));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.jobbot.service;
+import java.time.Instant;
+/**
+ * What one scrape of one source cost and produced. Filled in on the scraping thread while the run
+ * is in progress (see {@link ScrapeMetrics#current()}), then kept in the source's recent-runs ring.
+ */
+public class ScrapeRun {
+    private final Long sourceId;
+    private final String source;
+    private final String host;
+    private final String connector;
+    private final Instant startedAt = Instant.now();
+    final long startNanos = System.nanoTime();
+    long fetchNanos, parseNanos, persistNanos, rateLimitWaitMs, bytes;
+    int httpStatus, found, inserted, deduped, updated, closed;
+    boolean unchanged;
+    String outcome, errorCategory, error;
+    long durationMs;
+    ScrapeRun(Long sourceId, String source, String host, String connector) {
+        this.sourceId = sourceId;
+        this.source = source;
+        this.host = host;
+        this.connector = connector;
+    }
+    public Long getSourceId() { return sourceId; }
+    public String getSource() { return source; }
+    public String getHost() { return host; }
+    public String getConnector() { return connector; }
+    public Instant getStartedAt() { return startedAt; }
+    public String getOutcome() { return outcome; }
+    public int getHttpStatus() { return httpStatus; }
+    public long getDurationMs() { return durationMs; }
+    public long getFetchMs() { return fetchNanos / 1_000_000; }
+    public long getRateLimitWaitMs() { return rateLimitWaitMs; }
+    public long getBytes() { return bytes; }
+    public long getParseMs() { return parseNanos / 1_000_000; }
+    public long getPersistMs() { return persistNanos / 1_000_000; }
+    public int getFound() { return found; }
+    public int getInserted() { return inserted; }
+    public int getDeduped() { return deduped; }
+    public int getUpdated() { return updated; }
+    public int getClosed() { return closed; }
+    public String getErrorCategory() { return errorCategory; }
+    public String getError() { return error; }
+}
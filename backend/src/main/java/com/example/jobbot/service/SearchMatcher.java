@@ -0,0 +1,167 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.SavedSearch;
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+/**
+ * Saved searches compiled for matching a posting against all of them in one pass. The distinct
+ * keywords of every search go into a single {@link KeywordAutomaton}, and each search is filed
+ * under the keyword the fewest searches share, so a posting only visits searches whose anchor it
+ * contains and checks their other keywords against the set it already found. Identical searches
+ * are checked once. Searches without keywords are filed under their company, or else their
+ * source. Immutable; compile a new one when the searches change.
+ */
+public final class SearchMatcher {
+    private static final Pattern TERM = Pattern.compile("\"([^\"]*)\"|(\\S+)");
+    private static final int[] NONE = new int[0];
+    private final KeywordAutomaton automaton;
+    private final int size;
+    /** Search ids per group of identical searches; the arrays below are indexed by group. */
+    private final long[][] ids;
+    /** Sorted keyword ids. */
+    private final int[][] required;
+    private final String[] sources;
+    private final String[] companies;
+    /** Keyword id to the groups anchored on it. */
+    private final int[][] anchored;
+    private final Map<String, int[]> byCompany = new HashMap<>();
+    private final Map<String, int[]> bySource = new HashMap<>();
+    private SearchMatcher(Collection<SavedSearch> searches) {
+        Map<String, Integer> keywordIds = new HashMap<>();
+        List<String> keywords = new ArrayList<>();
+        List<Integer> shared = new ArrayList<>();
+        // searches with the same keywords and predicates (many users save "senior java remote") are checked once
+        Map<String, Integer> groupOf = new HashMap<>();
+        List<int[]> req = new ArrayList<>();
+        List<String> src = new ArrayList<>(), comp = new ArrayList<>();
+        List<List<Long>> members = new ArrayList<>();
+        for(SavedSearch s : searches) {
+            List<String> terms = keywords(s.getQuery());
+            int[] r = new int[terms.size()];
+            for(int t = 0; t < r.length; t++) {
+                Integer k = keywordIds.get(terms.get(t));
+                if(k==null) {
+                    k = keywords.size();
+                    keywordIds.put(terms.get(t), k);
+                    keywords.add(terms.get(t));
+                    shared.add(0);
+                }
+                r[t] = k;
+            }
+            Arrays.sort(r);
+            String source = predicate(s.getSource()), company = predicate(s.getCompany());
+            Integer g = groupOf.putIfAbsent(Arrays.toString(r) + '\0' + source + '\0' + company, req.size());
+            if(g==null) {
+                g = req.size();
+                req.add(r);
+                src.add(source);
+                comp.add(company);
+                members.add(new ArrayList<>());
+                for(int k : r) shared.set(k, shared.get(k) + 1);
+            }
+            members.get(g).add(s.getId());
+        }
+        int n = req.size();
+        required = req.toArray(new int[0][]);
+        sources = src.toArray(new String[0]);
+        companies = comp.toArray(new String[0]);
+        ids = new long[n][];
+        for(int i = 0; i < n; i++) ids[i] = members.get(i).stream().mapToLong(Long::longValue).toArray();
+        size = searches.size();
+        automaton = new KeywordAutomaton(keywords);
+        int[] anchorCount = new int[keywords.size()];
+        int[] anchorOf = new int[n];
+        Map<String, List<Integer>> company = new HashMap<>(), source = new HashMap<>();
+        for(int i = 0; i < n; i++) {
+            int best = -1;
+            for(int k : required[i]) {
+                // least shared first; a longer keyword is usually the rarer one in postings too
+                if(best < 0 || shared.get(k) < shared.get(best)
+                        || (shared.get(k).equals(shared.get(best)) && keywords.get(k).length() > keywords.get(best).length())) best = k;
+            }
+            anchorOf[i] = best;
+            if(best >= 0) anchorCount[best]++;
+            else if(companies[i]!=null) company.computeIfAbsent(companies[i], c -> new ArrayList<>()).add(i);
+            else if(sources[i]!=null) source.computeIfAbsent(sources[i], c -> new ArrayList<>()).add(i);
+        }
+        anchored = new int[keywords.size()][];
+        for(int k = 0; k < anchored.length; k++) anchored[k] = new int[anchorCount[k]];
+        Arrays.fill(anchorCount, 0);
+        for(int i = 0; i < n; i++) if(anchorOf[i] >= 0) anchored[anchorOf[i]][anchorCount[anchorOf[i]]++] = i;
+        company.forEach((c, l) -> byCompany.put(c, l.stream().mapToInt(Integer::intValue).toArray()));
+        source.forEach((s, l) -> bySource.put(s, l.stream().mapToInt(Integer::intValue).toArray()));
+    }
+    /** Searches without a keyword, company or source can never match and are skipped. */
+    public static SearchMatcher compile(Collection<SavedSearch> searches) {
+        List<SavedSearch> usable = new ArrayList<>();
+        for(SavedSearch s : searches) if(!keywords(s.getQuery()).isEmpty() || predicate(s.getCompany())!=null || predicate(s.getSource())!=null) usable.add(s);
+        return new SearchMatcher(usable);
+    }
+    /** A query's distinct normalized keywords; double quotes keep a phrase together. */
+    public static List<String> keywords(String query) {
+        if(query==null) return List.of();
+        Set<String> out = new LinkedHashSet<>();
+        Matcher m = TERM.matcher(query);
+        while(m.find()) {
+            String t = KeywordAutomaton.normalize(m.group(1)!=null ? m.group(1) : m.group(2));
+            if(!t.isEmpty()) out.add(t);
+        }
+        return new ArrayList<>(out);
+    }
+    public int size() {
+        return size;
+    }
+    public int keywordCount() {
+        return automaton.size();
+    }
+    /** Ids of the searches the posting matches, each at most once. */
+    public List<Long> match(JobPosting j) {
+        StringBuilder text = new StringBuilder(160);
+        KeywordAutomaton.appendNormalized(text, j.getTitle());
+        KeywordAutomaton.appendNormalized(text, j.getCompany());
+        KeywordAutomaton.appendNormalized(text, j.getLocation());
+        KeywordAutomaton.appendNormalized(text, j.getDepartment());
+        Hits hits = new Hits();
+        automaton.match(text, hits);
+        int[] found = hits.distinct();
+        String source = predicate(j.getSource()), company = predicate(j.getCompany());
+        List<Long> out = new ArrayList<>(2);
+        for(int k : found) {
+            for(int g : anchored[k]) if(accepts(g, found, source, company)) add(out, ids[g]);
+        }
+        if(company!=null) for(int g : byCompany.getOrDefault(company, NONE)) if(sources[g]==null || sources[g].equals(source)) add(out, ids[g]);
+        if(source!=null) for(int g : bySource.getOrDefault(source, NONE)) add(out, ids[g]);
+        return out;
+    }
+    private boolean accepts(int g, int[] found, String source, String company) {
+        if(sources[g]!=null && !sources[g].equals(source)) return false;
+        if(companies[g]!=null && !companies[g].equals(company)) return false;
+        for(int k : required[g]) if(Arrays.binarySearch(found, k) < 0) return false;
+        return true;
+    }
+    private static void add(List<Long> out, long[] group) {
+        for(long id : group) out.add(id);
+    }
+    private static String predicate(String value) {
+        if(value==null) return null;
+        String v = KeywordAutomaton.normalize(value);
+        return v.isEmpty() ? null : v;
+    }
+    /** Keyword ids reported by the automaton, usually only a handful. */
+    private static final class Hits implements IntConsumer {
+        int[] ids = new int[8];
+        int size;
+        @Override public void accept(int k) {
+            if(size==ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = k;
+        }
+        int[] distinct() {
+            Arrays.sort(ids, 0, size);
+            int n = 0;
+            for(int i = 0; i < size; i++) if(n==0 || ids[n - 1]!=ids[i]) ids[n++] = ids[i];
+            return Arrays.copyOf(ids, n);
+        }
+    }
+}
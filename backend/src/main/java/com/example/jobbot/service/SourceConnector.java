@@ -0,0 +1,10 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobSource;
+/**
+ * One way of turning a source into postings. {@link ScraperService} asks the connectors in
+ * {@code @Order} and syncs the source with the first one that supports it.
+ */
+public interface SourceConnector {
+    boolean supports(JobSource s);
+    FlushResult sync(JobSource s) throws Exception;
+}
@@ -0,0 +1,36 @@
+package com.example.jobbot.service;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+/** Cheap lower-case word tokenizer shared by the in-memory ranking and matching indexes. */
+public final class TextTerms {
+    private static final Set<String> STOP = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "if", "in", "into",
+            "is", "it", "its", "of", "on", "or", "our", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "we", "will", "with", "you", "your", "who", "what", "which", "all", "can",
+            "not", "no", "so", "us", "am", "been", "do", "more", "other", "any", "also", "about", "up", "out");
+    private TextTerms() {}
+    public static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if(text==null || text.isEmpty()) return out;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for(int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            boolean word = Character.isLetterOrDigit(c) || c=='+' || c=='#';
+            if(word && start < 0) start = i;
+            else if(!word && start >= 0) {
+                String t = lower.substring(start, i);
+                if(t.length() > 1 && !STOP.contains(t)) out.add(t);
+                start = -1;
+            }
+        }
+        return out;
+    }
+    /** Drops markup from scraped descriptions, which are frequently HTML fragments. */
+    public static String stripTags(String html) {
+        if(html==null || html.indexOf('<') < 0) return html==null ? "" : html;
+        return org.jsoup.Jsoup.parse(html).text();
+    }
+}
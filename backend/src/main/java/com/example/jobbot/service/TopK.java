@@ -0,0 +1,58 @@
+package com.example.jobbot.service;
+import java.util.Arrays;
+/** Bounded min-heap keeping the K highest-scoring ids, stored in primitive arrays. */
+public class TopK {
+    private final long[] ids;
+    private final float[] scores;
+    private int size;
+    private boolean sorted = false;
+    public TopK(int k) {
+        ids = new long[Math.max(1, k)];
+        scores = new float[Math.max(1, k)];
+    }
+    public void offer(long id, float score) {
+        if(sorted) throw new IllegalStateException("already drained");
+        if(size < ids.length) {
+            ids[size] = id; scores[size] = score;
+            siftUp(size++);
+        } else if(score > scores[0]) {
+            ids[0] = id; scores[0] = score;
+            siftDown(0);
+        }
+    }
+    public TopK merge(TopK other) {
+        for(int i = 0; i < other.size; i++) offer(other.ids[i], other.scores[i]);
+        return this;
+    }
+    /** Results in descending score order; the heap must not be offered to afterwards. */
+    public long[] ids() { sortDescending(); return Arrays.copyOf(ids, size); }
+    public float[] scores() { sortDescending(); return Arrays.copyOf(scores, size); }
+    private void sortDescending() {
+        if(sorted) return;
+        for(int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            int saved = size; size = end; siftDown(0); size = saved;
+        }
+        sorted = true;
+    }
+    private void siftUp(int i) {
+        while(i > 0) {
+            int p = (i - 1) / 2;
+            if(scores[p] <= scores[i]) break;
+            swap(p, i); i = p;
+        }
+    }
+    private void siftDown(int i) {
+        while(true) {
+            int l = 2 * i + 1, r = l + 1, m = i;
+            if(l < size && scores[l] < scores[m]) m = l;
+            if(r < size && scores[r] < scores[m]) m = r;
+            if(m == i) return;
+            swap(i, m); i = m;
+        }
+    }
+    private void swap(int a, int b) {
+        long id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+        float s = scores[a]; scores[a] = scores[b]; scores[b] = s;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.jobbot.service;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+/**
+ * Small thread-safe LRU map whose entries also expire a fixed time after they were written.
+ * {@link #invalidate} leaves a tombstone with a bumped generation, so a {@link #computeIfAbsent}
+ * load that started before the invalidation does not put its stale value back.
+ */
+public class TtlLruCache<K, V> {
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> map;
+    /** A null value marks a tombstone. */
+    private record Entry<V>(V value, long expiresAt, long generation) {}
+    public TtlLruCache(int maxEntries, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    public synchronized V get(K key) {
+        Entry<V> e = map.get(key);
+        if(e==null) return null;
+        if(e.expiresAt() < System.currentTimeMillis()) {
+            map.remove(key);
+            return null;
+        }
+        return e.value();
+    }
+    public synchronized void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+    public synchronized void put(K key, V value, long ttl) {
+        map.put(key, new Entry<>(value, System.currentTimeMillis() + ttl, generation(key)));
+    }
+    /**
+     * Returns the cached value, loading and caching it on a miss; null results are not cached,
+     * and neither is a result whose key was invalidated while it loaded.
+     */
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        long generation;
+        synchronized(this) {
+            V v = get(key);
+            if(v!=null) return v;
+            generation = generation(key);
+        }
+        V v = loader.apply(key);
+        if(v!=null) {
+            synchronized(this) {
+                if(generation(key)==generation) put(key, v);
+            }
+        }
+        return v;
+    }
+    public synchronized void invalidate(K key) {
+        // the tombstone outlives any load that could have read the old value
+        map.put(key, new Entry<>(null, System.currentTimeMillis() + ttlMillis, generation(key) + 1));
+    }
+    public synchronized int size() {
+        return map.size();
+    }
+    private long generation(K key) {
+        Entry<V> e = map.get(key);
+        return e==null ? 0 : e.generation();
+    }
+}
@@ -0,0 +1,45 @@
+package db.migration;
+import com.example.jobbot.service.PostingDescriptions;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.sql.*;
+/**
+ * Compresses the descriptions still stored in {@code job_posting.description} into
+ * {@code posting_description}, then drops the column. Databases created after V4 never had data
+ * in it; the column check keeps the migration safe on either.
+ */
+public class V5__compress_descriptions extends BaseJavaMigration {
+    private static final Logger log = LoggerFactory.getLogger(V5__compress_descriptions.class);
+    private static final int BATCH = 500;
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection c = context.getConnection();
+        if(!hasDescriptionColumn(c)) return;
+        int moved = 0;
+        try(Statement select = c.createStatement();
+            PreparedStatement insert = c.prepareStatement("insert into posting_description (posting_id, body) values (?, ?)")) {
+            select.setFetchSize(BATCH);
+            try(ResultSet rs = select.executeQuery("select id, description from job_posting where description is not null and description <> ''")) {
+                while(rs.next()) {
+                    insert.setLong(1, rs.getLong(1));
+                    insert.setBytes(2, PostingDescriptions.compress(rs.getString(2)));
+                    insert.addBatch();
+                    if(++moved % BATCH == 0) insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        try(Statement s = c.createStatement()) {
+            s.execute("alter table job_posting drop column description");
+        }
+        log.info("descriptions_compressed postings={}", moved);
+    }
+    private static boolean hasDescriptionColumn(Connection c) throws SQLException {
+        try(PreparedStatement ps = c.prepareStatement("select count(*) from information_schema.columns where lower(table_name) = 'job_posting' and lower(column_name) = 'description'");
+            ResultSet rs = ps.executeQuery()) {
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+}
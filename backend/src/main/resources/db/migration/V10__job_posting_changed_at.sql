@@ -0,0 +1,5 @@
+-- when a posting was last inserted, updated, closed or reopened; JobSearchIndex catches up from it after
+-- a crash. lastSeenAt can't serve, it moves on every sighting of an unchanged posting
+alter table job_posting add column if not exists changed_at timestamp(6) with time zone;
+update job_posting set changed_at = coalesce(closed_at, last_seen_at, fetched_at);
+create index if not exists ix_job_posting_changed_at on job_posting (changed_at);
@@ -0,0 +1,34 @@
+-- Schema as Hibernate generated it under ddl-auto=update. Every statement is idempotent so the
+-- same script brings an empty database and one created by an older ddl-auto build to this point
+-- (spring.flyway.baseline-version=0 makes Flyway run it on a non-empty, unversioned schema too).
+
+create sequence if not exists job_posting_seq start with 1 increment by 50;
+
+create table if not exists job_posting (canonical_id bigint, closed_at timestamp(6) with time zone, content_hash bigint, fetched_at timestamp(6) with time zone, id bigint not null, last_seen_at timestamp(6) with time zone, posted_at timestamp(6) with time zone, source_id bigint, url_key varchar(2048), company varchar(255), department varchar(255), description text, location varchar(255), source varchar(255), title varchar(255), url varchar(255), primary key (id), constraint ux_job_posting_url_key unique (url_key));
+create table if not exists job_source (id bigint generated by default as identity, name varchar(255), selector text, type varchar(255), url varchar(255), primary key (id));
+create table if not exists profile (id bigint generated by default as identity, user_id bigint, email varchar(255), links_json text, location varchar(255), name varchar(255), payload_etag varchar(255), payload_json text, phone varchar(255), resume_text text, primary key (id));
+create table if not exists scrape_request (closed integer, coalesced integer not null, inserted integer, skipped integer, updated integer, finished_at timestamp(6) with time zone, id bigint generated by default as identity, requested_at timestamp(6) with time zone, source_id bigint, started_at timestamp(6) with time zone, status varchar(16), error varchar(1000), primary key (id));
+create table if not exists source_fetch_state (last_status integer, id bigint generated by default as identity, last_changed_at timestamp(6) with time zone, last_fetched_at timestamp(6) with time zone, source_id bigint unique, etag varchar(512), content_hash varchar(255), last_modified varchar(255), seen_postings text, primary key (id));
+create table if not exists users (id bigint generated by default as identity, password varchar(255), token varchar(255) unique, username varchar(255) unique, primary key (id));
+
+-- columns added after the first release; older databases may lack any of them
+alter table job_posting add column if not exists url_key varchar(2048);
+alter table job_posting add column if not exists department varchar(255);
+alter table job_posting add column if not exists source_id bigint;
+alter table job_posting add column if not exists content_hash bigint;
+alter table job_posting add column if not exists last_seen_at timestamp(6) with time zone;
+alter table job_posting add column if not exists closed_at timestamp(6) with time zone;
+alter table job_posting add column if not exists canonical_id bigint;
+alter table job_posting add constraint if not exists ux_job_posting_url_key unique (url_key);
+alter table profile add column if not exists payload_etag varchar(255);
+alter table profile add column if not exists payload_json text;
+alter table scrape_request add column if not exists updated integer;
+alter table scrape_request add column if not exists closed integer;
+alter table source_fetch_state add column if not exists seen_postings text;
+
+create index if not exists ix_job_posting_source on job_posting (source);
+create index if not exists ix_job_posting_fetched_at on job_posting (fetched_at);
+create index if not exists ix_job_posting_source_id on job_posting (source_id, closed_at);
+create index if not exists ix_job_posting_canonical on job_posting (canonical_id);
+create index if not exists ix_scrape_request_status on scrape_request (status);
+create index if not exists ix_scrape_request_source on scrape_request (source_id);
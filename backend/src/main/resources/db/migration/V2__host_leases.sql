@@ -0,0 +1,5 @@
+-- host leases and node heartbeats for splitting scheduled scrapes between replicas (HostLeases)
+create table host_lease (crawl_delay_ms bigint not null, next_slot_millis bigint not null, expires_at timestamp(6) with time zone, last_run_at timestamp(6) with time zone, host varchar(255) not null, owner varchar(128), primary key (host));
+create index ix_host_lease_owner on host_lease (owner);
+create table scrape_node (heartbeat_at timestamp(6) with time zone, node_id varchar(128) not null, primary key (node_id));
+alter table scrape_request add column claimed_by varchar(128);
@@ -0,0 +1,6 @@
+-- saved searches and the alerts queued when a new posting matches one (SavedSearchAlerts)
+create table saved_search (created_at timestamp(6) with time zone, id bigint generated by default as identity, profile_id bigint, user_id bigint, company varchar(255), name varchar(255), query varchar(512), source varchar(255), primary key (id));
+create index ix_saved_search_user on saved_search (user_id);
+create table search_alert (created_at timestamp(6) with time zone, delivered_at timestamp(6) with time zone, id bigint generated by default as identity, posting_id bigint, search_id bigint, user_id bigint, primary key (id));
+create unique index ux_search_alert_search_posting on search_alert (search_id, posting_id);
+create index ix_search_alert_user on search_alert (user_id, delivered_at);
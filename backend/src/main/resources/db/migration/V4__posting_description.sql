@@ -0,0 +1,2 @@
+-- descriptions move out of job_posting, Deflate-compressed (PostingDescriptions); V5 copies existing ones over
+create table posting_description (posting_id bigint not null, body varbinary, primary key (posting_id));
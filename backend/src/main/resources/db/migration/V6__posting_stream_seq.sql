@@ -0,0 +1,7 @@
+-- positions in /api/jobs/stream, handed out in commit order (PostingEventBus); ids are not, since they are allocated in blocks before the insert.
+-- Kept out of job_posting so numbering a flush never waits on a posting row another transaction holds.
+create table posting_stream_entry (posting_id bigint not null, seq bigint not null, primary key (seq));
+create unique index ux_posting_stream_entry_posting on posting_stream_entry (posting_id);
+insert into posting_stream_entry (posting_id, seq) select id, id from job_posting;
+create table posting_stream (id int not null, last_seq bigint not null, primary key (id));
+insert into posting_stream (id, last_seq) select 1, coalesce(max(id), 0) from job_posting;
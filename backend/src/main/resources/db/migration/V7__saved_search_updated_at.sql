@@ -0,0 +1,3 @@
+-- lets SavedSearchAlerts on every node notice a search edited elsewhere, not only added or deleted ones
+alter table saved_search add column updated_at timestamp(6) with time zone;
+update saved_search set updated_at = created_at;
@@ -0,0 +1,7 @@
+-- at most one queued or running request per source across every node (ScrapeQueue.enqueue);
+-- H2 has no partial indexes, so the unique index is on a column that is null once a request finishes
+update scrape_request r set status = 'FAILED', finished_at = current_timestamp, error = 'coalesced into an earlier request'
+    where status in ('QUEUED', 'RUNNING')
+    and exists (select 1 from scrape_request o where o.source_id = r.source_id and o.status in ('QUEUED', 'RUNNING') and o.id < r.id);
+alter table scrape_request add column pending_source_id bigint generated always as (case when status in ('QUEUED', 'RUNNING') then source_id end);
+create unique index ux_scrape_request_pending_source on scrape_request (pending_source_id);
@@ -0,0 +1,10 @@
+-- JobQueryService pages newest first: H2 only stops a scan at the page size when an index hands
+-- rows over in the ORDER BY's order, and it won't walk the primary key backwards
+create index if not exists ix_job_posting_id_desc on job_posting (id desc);
+drop index if exists ix_job_posting_source;
+create index if not exists ix_job_posting_source on job_posting (source, id desc);
+drop index if exists ix_job_posting_fetched_at;
+create index if not exists ix_job_posting_fetched_at on job_posting (fetched_at desc, id desc);
+-- H2 has no expression indexes, so the case-insensitive company filter goes through a generated column
+alter table job_posting add column if not exists company_key varchar(255) generated always as (lower(company));
+create index if not exists ix_job_posting_company_key on job_posting (company_key, id desc);
@@ -0,0 +1,79 @@
+package com.example.jobbot.service;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+class HttpFetcherTest {
+    private HttpServer server;
+    private HttpFetcher fetcher;
+    private String base;
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/stall", ex -> {
+            ex.sendResponseHeaders(200, 0);
+            OutputStream out = ex.getResponseBody();
+            out.write("<rss>".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            try {
+                Thread.sleep(10_000);
+            } catch(InterruptedException ignored) {}
+            ex.close();
+        });
+        server.createContext("/not-modified", ex -> {
+            ex.getResponseHeaders().add("Content-Encoding", "gzip");
+            ex.sendResponseHeaders(304, -1);
+            ex.close();
+        });
+        server.createContext("/plain", ex -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            ex.sendResponseHeaders(200, body.length);
+            ex.getResponseBody().write(body);
+            ex.close();
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+        fetcher = new HttpFetcher(null, new ScrapeMetrics(new SimpleMeterRegistry(), 10), 1000, 500, 1 << 20, 0, 10, 60_000);
+    }
+    @AfterEach
+    void stop() {
+        fetcher.shutdown();
+        server.stop(0);
+    }
+    @Test
+    void bodyThatStallsIsAbandonedInsteadOfBlockingForever() throws IOException {
+        long start = System.nanoTime();
+        try(HttpFetcher.Response res = fetcher.send(HttpRequest.newBuilder(URI.create(base + "/stall")).GET(), null)) {
+            assertEquals(200, res.status());
+            InputStream in = res.body();
+            IOException e = assertThrows(IOException.class, in::readAllBytes);
+            assertTrue(e.getMessage().contains("stalled"), e.getMessage());
+        }
+        assertTrue(System.nanoTime() - start < 5_000_000_000L, "the watchdog should end the read within seconds");
+    }
+    @Test
+    void emptyCompressedNotModifiedIsNotAnError() throws IOException {
+        try(HttpFetcher.Response res = fetcher.send(HttpRequest.newBuilder(URI.create(base + "/not-modified")).GET(), null)) {
+            assertEquals(304, res.status());
+            assertArrayEquals(new byte[0], res.bytes());
+        }
+    }
+    @Test
+    void plainBodyReadsThrough() throws IOException {
+        try(HttpFetcher.Response res = fetcher.send(HttpRequest.newBuilder(URI.create(base + "/plain")).GET(), null)) {
+            assertEquals("ok", new String(res.bytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
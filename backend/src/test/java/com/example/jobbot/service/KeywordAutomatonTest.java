@@ -0,0 +1,47 @@
+package com.example.jobbot.service;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+class KeywordAutomatonTest {
+    private static List<String> found(List<String> keywords, String text) {
+        KeywordAutomaton a = new KeywordAutomaton(keywords);
+        List<String> out = new ArrayList<>();
+        a.match(KeywordAutomaton.normalize(text), k -> out.add(keywords.get(k)));
+        return out;
+    }
+    @Test
+    void normalizeLowerCasesAndCollapsesSeparators() {
+        assertEquals("senior c++ c# engineer remote", KeywordAutomaton.normalize("  Senior C++/C#  Engineer -- (Remote) "));
+        StringBuilder out = new StringBuilder("java");
+        KeywordAutomaton.appendNormalized(out, "Spring-Boot");
+        KeywordAutomaton.appendNormalized(out, null);
+        assertEquals("java spring boot", out.toString());
+    }
+    @Test
+    void overlappingKeywordsAreAllReportedThroughOutputLinks() {
+        List<String> keywords = List.of("he", "she", "his", "hers");
+        assertEquals(List.of("she", "he", "hers"), found(keywords, "ushers she he hers"));
+        // "he" inside "she"/"hers" is not a whole word; only the standalone ones count
+        assertEquals(List.of("she", "he"), found(List.of("she", "he"), "she he"));
+    }
+    @Test
+    void onlyWholeWordsMatch() {
+        List<String> keywords = List.of("java", "go");
+        assertEquals(List.of(), found(keywords, "JavaScript golang ergo"));
+        assertEquals(List.of("java", "go"), found(keywords, "Java, Go!"));
+    }
+    @Test
+    void phrasesMatchAcrossPunctuationAndAfterFailedPrefixes() {
+        List<String> keywords = List.of("machine learning", "learning", "senior machine learning engineer");
+        assertEquals(List.of("machine learning", "learning"), found(keywords, "Machine-Learning lead"));
+        assertEquals(List.of("machine learning", "learning", "senior machine learning engineer"),
+                found(keywords, "senior senior machine learning engineer"));
+        assertEquals(List.of("learning"), found(keywords, "machines learning"));
+    }
+    @Test
+    void repeatsAndNonAsciiTextAreReported() {
+        assertEquals(List.of("café", "café"), found(List.of("café"), "Café or CAFÉ"));
+        assertEquals(List.of(), found(List.of(), "anything"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+class PostingVectorIndexTest {
+    private static JobPosting posting(long id, String title, String description) {
+        JobPosting j = new JobPosting();
+        j.setId(id);
+        j.setTitle(title);
+        j.setCompany("Acme");
+        j.setDescription(description);
+        return j;
+    }
+    @Test
+    void topMatchesAcrossParallelChunksAreDistinctAndBestFirst() {
+        PostingVectorIndex index = new PostingVectorIndex(null, null, null, 64);
+        // five chunks of vectors, with the matching postings spread over all of them
+        int n = 40_000, every = 800;
+        for(long id = 1; id <= n; id++) {
+            index.add(id % every == 0
+                    ? posting(id, "Platform engineer", "kubernetes ".repeat((int) (id / every)) + "services and tooling")
+                    : posting(id, "Account manager", "sales pipeline quota territory"));
+        }
+        TopK top = index.topMatches(null, "kubernetes platform", 50);
+        long[] ids = top.ids();
+        float[] scores = top.scores();
+        Set<Long> expected = LongStream.rangeClosed(1, n).filter(id -> id % every == 0).boxed().collect(Collectors.toSet());
+        assertEquals(50, ids.length);
+        assertEquals(expected, Arrays.stream(ids).boxed().collect(Collectors.toSet()));
+        for(int i = 1; i < scores.length; i++) assertTrue(scores[i - 1] >= scores[i], "scores must descend");
+    }
+    @Test
+    void updatesAndClosesLeaveCorpusStatisticsAndScoresIntact() {
+        int n = 2_000;
+        PostingVectorIndex baseline = new PostingVectorIndex(null, null, null, 64);
+        PostingVectorIndex churned = new PostingVectorIndex(null, null, null, 64);
+        for(long id = 1; id <= n; id++) {
+            baseline.add(corpusPosting(id));
+            churned.add(corpusPosting(id));
+        }
+        // re-ingesting the newest posting sees the same corpus it was first weighted against
+        for(int i = 0; i < 3; i++) churned.onUpdated(List.of(corpusPosting(n)));
+        // a wave of postings that later close, enough to force the slot array to compact
+        List<Long> extra = LongStream.rangeClosed(n + 1, n + 3_000).boxed().collect(Collectors.toList());
+        extra.forEach(id -> churned.add(posting(id, "Platform engineer", "kubernetes kubernetes terraform")));
+        churned.onClosed(extra.subList(0, 1_500));
+        churned.onClosed(extra.subList(1_500, extra.size()));
+        assertEquals(baseline.size(), churned.size());
+        for(String term : List.of("kubernetes", "platform", "engineer", "terraform", "sales")) {
+            assertEquals(baseline.idf(term), churned.idf(term), term);
+            assertTrue(churned.idf(term) > 0, term + " idf must stay positive");
+        }
+        String resume = "kubernetes platform engineer terraform";
+        assertEquals(scores(baseline.topMatches(null, resume, 1_000)), scores(churned.topMatches(null, resume, 1_000)));
+        // postings that survived compaction can still be closed by id
+        churned.onClosed(List.of(10L));
+        assertTrue(scores(churned.topMatches(null, resume, 1_000)).keySet().stream().noneMatch(id -> id == 10L));
+    }
+    private static JobPosting corpusPosting(long id) {
+        return id % 10 == 0
+                ? posting(id, "Platform engineer", "kubernetes ".repeat((int) (id % 7) + 1) + "terraform services")
+                : posting(id, "Account manager", "sales pipeline quota territory");
+    }
+    private static Map<Long, Float> scores(TopK top) {
+        Map<Long, Float> out = new HashMap<>();
+        long[] ids = top.ids();
+        float[] scores = top.scores();
+        for(int i = 0; i < ids.length; i++) out.put(ids[i], scores[i]);
+        return out;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.jobbot.service;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+class RobotsRulesTest {
+    private static final String AGENT = "JobBot-Scraper";
+    private static RobotsRules disallow(String pattern) {
+        return RobotsRules.parse("User-agent: *\nDisallow: " + pattern + "\n", AGENT);
+    }
+    private static void blocks(RobotsRules rules, String... paths) {
+        for(String p : paths) assertFalse(rules.allowed(p), p + " should be disallowed");
+    }
+    private static void lets(RobotsRules rules, String... paths) {
+        for(String p : paths) assertTrue(rules.allowed(p), p + " should be allowed");
+    }
+    @Test
+    void plainPrefixIsCaseSensitiveAndAnchoredAtTheStart() {
+        RobotsRules rules = disallow("/fish");
+        blocks(rules, "/fish", "/fish.html", "/fish/salmon.html", "/fishheads", "/fishheads/yummy.html", "/fish.php?id=anything");
+        lets(rules, "/Fish.asp", "/catfish", "/?id=fish", "/desert/fish");
+    }
+    @Test
+    void trailingStarIsTheSameAsThePrefix() {
+        RobotsRules rules = disallow("/fish*");
+        blocks(rules, "/fish", "/fish.html", "/fish/salmon.html", "/fishheads");
+        lets(rules, "/Fish.asp", "/catfish", "/?id=fish");
+    }
+    @Test
+    void trailingSlashOnlyMatchesTheDirectory() {
+        RobotsRules rules = disallow("/fish/");
+        blocks(rules, "/fish/", "/fish/?id=anything", "/fish/salmon.htm");
+        lets(rules, "/fish", "/fish.html", "/animals/fish/", "/Fish/Salmon.asp");
+    }
+    @Test
+    void starMatchesAnySequenceInsideThePattern() {
+        RobotsRules rules = disallow("/*.php");
+        blocks(rules, "/index.php", "/filename.php", "/folder/filename.php", "/folder/filename.php?parameters",
+                "/folder/any.php.file.html", "/filename.php/");
+        lets(rules, "/", "/windows.PHP");
+        RobotsRules fishPhp = disallow("/fish*.php");
+        blocks(fishPhp, "/fish.php", "/fishheads/catfish.php?parameters");
+        lets(fishPhp, "/Fish.PHP");
+    }
+    @Test
+    void dollarAnchorsTheEndOfThePath() {
+        RobotsRules rules = disallow("/*.php$");
+        blocks(rules, "/filename.php", "/folder/filename.php");
+        lets(rules, "/filename.php?parameters", "/filename.php/", "/filename.php5", "/windows.PHP");
+    }
+    @Test
+    void longestMatchWinsAndAllowWinsATie() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Allow: /p
+                Disallow: /
+                Allow: /folder
+                Disallow: /folder
+                Allow: /page
+                Disallow: /*.htm
+                Allow: /example/page/
+                Disallow: /example/page/disallowed.gif
+                """, AGENT);
+        lets(rules, "/page", "/folder/page", "/example/page/ok.gif");
+        blocks(rules, "/other", "/page.htm", "/example/page/disallowed.gif");
+        RobotsRules root = RobotsRules.parse("User-agent: *\nAllow: /$\nDisallow: /\n", AGENT);
+        lets(root, "/");
+        blocks(root, "/page.htm");
+    }
+    @Test
+    void emptyDisallowAllowsEverythingAndRobotsTxtIsAlwaysReachable() {
+        lets(RobotsRules.parse("User-agent: *\nDisallow:\n", AGENT), "/", "/anything");
+        lets(RobotsRules.DISALLOW_ALL, "/robots.txt");
+        blocks(RobotsRules.DISALLOW_ALL, "/", "");
+        lets(RobotsRules.ALLOW_ALL, "/", "/private");
+    }
+    @Test
+    void mostSpecificMatchingGroupIsChosenCaseInsensitively() {
+        String text = """
+                User-agent: *
+                Disallow: /
+                Crawl-delay: 10
+
+                User-agent: jobbot
+                Disallow: /short
+
+                User-agent: JOBBOT-SCRAPER/1.0
+                Disallow: /jobs/private
+                Crawl-delay: 2.5
+                """;
+        RobotsRules rules = RobotsRules.parse(text, AGENT);
+        blocks(rules, "/jobs/private/1");
+        lets(rules, "/", "/short", "/jobs");
+        assertEquals(2500, rules.crawlDelayMs());
+        RobotsRules other = RobotsRules.parse(text, "OtherBot");
+        blocks(other, "/jobs");
+        assertEquals(10_000, other.crawlDelayMs());
+    }
+    @Test
+    void groupedAgentsShareRulesAndRepeatedGroupsMerge() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: somebot
+                User-agent: jobbot-scraper
+                Disallow: /a # comment
+
+                User-agent: *
+                Disallow: /b
+
+                User-agent: JobBot-Scraper
+                Disallow: /c
+                """, AGENT);
+        blocks(rules, "/a", "/c");
+        lets(rules, "/b");
+        assertEquals(-1, rules.crawlDelayMs());
+    }
+}
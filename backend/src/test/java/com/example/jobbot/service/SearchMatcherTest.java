@@ -0,0 +1,79 @@
+package com.example.jobbot.service;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.SavedSearch;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+class SearchMatcherTest {
+    private static SavedSearch search(long id, String query, String source, String company) {
+        SavedSearch s = new SavedSearch();
+        s.setId(id);
+        s.setQuery(query);
+        s.setSource(source);
+        s.setCompany(company);
+        return s;
+    }
+    private static JobPosting posting(String title, String company, String location, String source) {
+        JobPosting j = new JobPosting();
+        j.setTitle(title);
+        j.setCompany(company);
+        j.setLocation(location);
+        j.setSource(source);
+        return j;
+    }
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted().toList();
+    }
+    @Test
+    void keywordsKeepQuotedPhrasesAndDropDuplicates() {
+        assertEquals(List.of("senior", "machine learning", "remote"), SearchMatcher.keywords("Senior \"Machine-Learning\" remote SENIOR \"\""));
+        assertEquals(List.of(), SearchMatcher.keywords(null));
+    }
+    @Test
+    void everyKeywordMustAppearAsAWholeWord() {
+        SearchMatcher m = SearchMatcher.compile(List.of(
+                search(1, "senior java", null, null),
+                search(2, "java", null, null),
+                search(3, "\"staff engineer\" remote", null, null)));
+        assertEquals(List.of(1L, 2L), sorted(m.match(posting("Senior Java Developer", "Acme", "Berlin", "greenhouse"))));
+        assertEquals(List.of(), m.match(posting("Senior JavaScript Developer", "Acme", null, "greenhouse")));
+        assertEquals(List.of(3L), m.match(posting("Staff Engineer, Platform", "Acme", "Remote (EU)", "lever")));
+        assertEquals(List.of(), m.match(posting("Engineer, Staff Platform", "Acme", "Remote", "lever")));
+    }
+    @Test
+    void sourceAndCompanyPredicatesFilterKeywordSearches() {
+        SearchMatcher m = SearchMatcher.compile(List.of(
+                search(1, "rust", "Lever", null),
+                search(2, "rust", null, "Acme Corp"),
+                search(3, "rust", "lever", "acme corp")));
+        assertEquals(List.of(1L, 2L, 3L), sorted(m.match(posting("Rust Engineer", "ACME Corp.", null, "lever"))));
+        assertEquals(List.of(2L), m.match(posting("Rust Engineer", "Acme Corp", null, "greenhouse")));
+        assertEquals(List.of(1L), m.match(posting("Rust Engineer", "Other", null, "lever")));
+    }
+    @Test
+    void predicateOnlySearchesMatchOnCompanyOrSource() {
+        SearchMatcher m = SearchMatcher.compile(List.of(
+                search(1, null, null, "Acme"),
+                search(2, "  ", "greenhouse", null),
+                search(3, null, "greenhouse", "Acme"),
+                search(4, "", null, null)));
+        // a search with nothing to match on is dropped at compile time
+        assertEquals(3, m.size());
+        assertEquals(List.of(1L, 2L, 3L), sorted(m.match(posting("Designer", "Acme", null, "greenhouse"))));
+        assertEquals(List.of(1L), m.match(posting("Designer", "Acme", null, "lever")));
+        assertEquals(List.of(2L), m.match(posting("Designer", "Other", null, "greenhouse")));
+    }
+    @Test
+    void identicalSearchesShareAGroupButEachIdIsReportedOnce() {
+        SearchMatcher m = SearchMatcher.compile(List.of(
+                search(1, "senior java remote", null, null),
+                search(2, "Remote, Senior  JAVA", null, null),
+                search(3, "java senior remote java", null, null),
+                search(4, "senior java", null, null)));
+        assertEquals(4, m.size());
+        assertEquals(3, m.keywordCount());
+        // "java" twice in the posting must not report any search twice
+        assertEquals(List.of(1L, 2L, 3L, 4L), sorted(m.match(posting("Senior Java / Java EE", "Acme", "Remote", "lever"))));
+        assertEquals(List.of(4L), m.match(posting("Senior Java", "Acme", "Berlin", "lever")));
+    }
+}
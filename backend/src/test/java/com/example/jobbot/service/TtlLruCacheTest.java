@@ -0,0 +1,32 @@
+package com.example.jobbot.service;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+class TtlLruCacheTest {
+    @Test
+    void loadThatRacesAnInvalidationIsNotCached() {
+        TtlLruCache<Long, String> cache = new TtlLruCache<>(10, 60_000);
+        // a PUT saves and invalidates while the GET is still loading the old profile
+        String loaded = cache.computeIfAbsent(1L, k -> {
+            cache.invalidate(k);
+            return "old";
+        });
+        assertEquals("old", loaded);
+        assertNull(cache.get(1L));
+        assertEquals("new", cache.computeIfAbsent(1L, k -> "new"));
+        assertEquals("new", cache.get(1L));
+    }
+    @Test
+    void invalidatedKeysMissAndLeastRecentlyUsedEntriesAreEvicted() {
+        TtlLruCache<Long, String> cache = new TtlLruCache<>(2, 60_000);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.invalidate(1L);
+        assertNull(cache.get(1L));
+        cache.put(3L, "c");
+        assertNull(cache.get(2L));
+        assertEquals("c", cache.get(3L));
+        cache.put(4L, "d", -1);
+        assertNull(cache.get(4L));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.jobbot.bench;
+import com.example.jobbot.Application;
+import com.example.jobbot.model.JobSource;
+import com.example.jobbot.service.JobPostingWriter;
+import com.example.jobbot.service.PostingBatch;
+import com.example.jobbot.service.PostingDedupIndex;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * URL de-duplication and batched insert against an in-memory H2 pre-seeded with
+ * {@code tableSize} postings. Each operation handles 100 candidates, half of them already stored.
+ * The table is migrated and seeded before the context starts, so the application's own startup
+ * loads fill the dedup filter and the in-memory indexes, and measurement waits for them to finish.
+ * {@code flushBatch} includes the ingest listener fan-out for the inserted half, as a real scrape
+ * flush does: in-memory Lucene, BM25, saved-search matching and the event bus. Near-duplicate
+ * clustering is switched off, since its LSH buckets for a million postings don't fit the fork's
+ * heap next to the rest. {@code existingLookup} is the de-duplication step on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+public class DedupBenchmark {
+    private static final int CANDIDATES = 100;
+    private static final String[] WORDS = words(500);
+    /** Background threads the application starts to load its in-memory state. */
+    private static final Set<String> STARTUP_LOADS = Set.of("dedup-warmup", "search-index-rebuild", "match-index-load");
+    @Param({"1000", "100000", "1000000"})
+    public int tableSize;
+    private ConfigurableApplicationContext ctx;
+    private PostingDedupIndex dedup;
+    private JobPostingWriter writer;
+    private JobSource source;
+    private final SplittableRandom random = new SplittableRandom(7);
+    private final AtomicLong fresh = new AtomicLong();
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        String url = "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        Timestamp now = Timestamp.from(Instant.now());
+        for(int start = 1; start <= tableSize; start += 10_000) {
+            List<Object[]> rows = new ArrayList<>();
+            for(int id = start; id < Math.min(tableSize + 1, start + 10_000); id++) {
+                String seeded = seededUrl(id);
+                rows.add(new Object[]{id, seeded, seeded, "Engineer " + id, "Company " + (id % 997), "bench", now, now});
+            }
+            jdbc.batchUpdate("insert into job_posting (id, url, url_key, title, company, source, fetched_at, posted_at) values (?,?,?,?,?,?,?,?)", rows);
+        }
+        ctx = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--jobbot.scrape.enabled=false",
+                        "--jobbot.search.index-dir=memory",
+                        "--jobbot.dedup.near.enabled=false",
+                        "--logging.level.root=WARN");
+        dedup = ctx.getBean(PostingDedupIndex.class);
+        writer = ctx.getBean(JobPostingWriter.class);
+        awaitStartupLoads();
+        source = Fixtures.source("bench", "https://bench.example.com/jobs", "links");
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+    @Benchmark
+    public void existingLookup(Blackhole bh) {
+        List<String> keys = new ArrayList<>(CANDIDATES);
+        for(int i = 0; i < CANDIDATES / 2; i++) keys.add(seededUrl(1 + random.nextInt(tableSize)));
+        for(int i = 0; i < CANDIDATES / 2; i++) keys.add("https://bench.example.com/unseen/" + random.nextLong());
+        bh.consume(dedup.existing(keys));
+    }
+    @Benchmark
+    public void flushBatch(Blackhole bh) {
+        PostingBatch out = writer.newBatch(source);
+        for(int i = 0; i < CANDIDATES / 2; i++) out.add("Engineer", "Company", "", seededUrl(1 + random.nextInt(tableSize)));
+        for(int i = 0; i < CANDIDATES / 2; i++) {
+            long n = fresh.incrementAndGet();
+            out.add("Engineer " + n, "Company " + (n % 997), description(), "https://bench.example.com/new/" + n);
+        }
+        bh.consume(out.finish());
+    }
+    private static void awaitStartupLoads() throws InterruptedException {
+        for(Thread t : Thread.getAllStackTraces().keySet()) {
+            if(!STARTUP_LOADS.contains(t.getName())) continue;
+            t.join(TimeUnit.MINUTES.toMillis(10));
+            if(t.isAlive()) throw new IllegalStateException(t.getName() + " did not finish");
+        }
+    }
+    /** Distinct text per posting, so the search and match indexes grow as they would in production. */
+    private String description() {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < 40; i++) sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        return sb.toString();
+    }
+    private static String[] words(int n) {
+        String[] words = new String[n];
+        for(int i = 0; i < n; i++) words[i] = "term" + Integer.toString(i, 36);
+        return words;
+    }
+    private static String seededUrl(int id) {
+        return "https://bench.example.com/jobs/" + id;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.jobbot.bench;
+import com.example.jobbot.model.JobSource;
+import com.example.jobbot.service.DocumentExtractors;
+import com.example.jobbot.service.PostingBatch;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+/**
+ * Parsing and extraction hot paths of the scraper, run against the recorded fixtures.
+ * The "parse" variants include building the Jsoup document; the others start from a parsed one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractionBenchmark {
+    private final DocumentExtractors extractors = new DocumentExtractors();
+    private String jsonLdHtml, greenhouseHtml, rssXml;
+    private byte[] rssBytes;
+    private Document jsonLdDoc, greenhouseDoc;
+    private JobSource jsonLdSource, greenhouseSource, rssSource;
+    @Setup
+    public void setup() {
+        jsonLdHtml = Fixtures.load("jsonld-jobs.html");
+        greenhouseHtml = Fixtures.load("greenhouse-board.html");
+        rssXml = Fixtures.load("remote-jobs.rss");
+        rssBytes = rssXml.getBytes(StandardCharsets.UTF_8);
+        jsonLdSource = Fixtures.source("bench-jsonld", "https://careers.example.com/jobs", "jsonld");
+        greenhouseSource = Fixtures.source("bench-greenhouse", "https://boards.greenhouse.io/airtable", "links");
+        rssSource = Fixtures.source("bench-rss", "https://weworkremotely.com/remote-jobs.rss", "rss");
+        jsonLdDoc = Jsoup.parse(jsonLdHtml, jsonLdSource.getUrl());
+        greenhouseDoc = Jsoup.parse(greenhouseHtml, greenhouseSource.getUrl());
+    }
+    @Benchmark
+    public void jsonLdParseAndExtract(Blackhole bh) {
+        PostingBatch out = Fixtures.sink(jsonLdSource, bh);
+        extractors.jsonLd(Jsoup.parse(jsonLdHtml, jsonLdSource.getUrl()), out);
+        bh.consume(out.finish());
+    }
+    @Benchmark
+    public void jsonLdExtract(Blackhole bh) {
+        PostingBatch out = Fixtures.sink(jsonLdSource, bh);
+        extractors.jsonLd(jsonLdDoc, out);
+        bh.consume(out.finish());
+    }
+    @Benchmark
+    public void greenhouseParseAndSelect(Blackhole bh) {
+        PostingBatch out = Fixtures.sink(greenhouseSource, bh);
+        extractors.greenhouse(Jsoup.parse(greenhouseHtml, greenhouseSource.getUrl()), out);
+        bh.consume(out.finish());
+    }
+    @Benchmark
+    public void greenhouseSelect(Blackhole bh) {
+        PostingBatch out = Fixtures.sink(greenhouseSource, bh);
+        extractors.greenhouse(greenhouseDoc, out);
+        bh.consume(out.finish());
+    }
+    @Benchmark
+    public void rssParseAndExtract(Blackhole bh) throws Exception {
+        PostingBatch out = Fixtures.sink(rssSource, bh);
+        bh.consume(extractors.rssItems(new ByteArrayInputStream(rssBytes), out));
+        bh.consume(out.finish());
+    }
+    /** The previous Jsoup DOM + per-item selector approach, kept as a baseline for the StAX reader. */
+    @Benchmark
+    public void rssJsoupDomBaseline(Blackhole bh) {
+        PostingBatch out = Fixtures.sink(rssSource, bh);
+        Jsoup.parse(rssXml, rssSource.getUrl(), Parser.xmlParser()).select("item").forEach(item -> {
+            String title = item.selectFirst("title")!=null ? item.selectFirst("title").text() : "";
+            String link = item.selectFirst("link")!=null ? item.selectFirst("link").text() : "";
+            out.add(title, "", "", link);
+        });
+        bh.consume(out.finish());
+    }
+}
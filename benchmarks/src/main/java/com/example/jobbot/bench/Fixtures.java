@@ -0,0 +1,35 @@
+package com.example.jobbot.bench;
+import com.example.jobbot.model.JobSource;
+import com.example.jobbot.service.FlushResult;
+import com.example.jobbot.service.PostingBatch;
+import org.openjdk.jmh.infra.Blackhole;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+/** Fixture loading and a persistence-free posting sink shared by the benchmarks. */
+final class Fixtures {
+    private Fixtures() {}
+    static String load(String name) {
+        try(InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if(in==null) throw new IllegalStateException("missing fixture " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    static JobSource source(String name, String url, String type) {
+        JobSource s = new JobSource();
+        s.setName(name);
+        s.setUrl(url);
+        s.setType(type);
+        return s;
+    }
+    /** A batch whose flushes hand the staged postings to the blackhole instead of the database. */
+    static PostingBatch sink(JobSource source, Blackhole bh) {
+        return new PostingBatch(source, staged -> {
+            bh.consume(staged);
+            return new FlushResult(0, staged.size());
+        }, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.jobbot.bench;
+import com.example.jobbot.model.JobPosting;
+import com.example.jobbot.model.SavedSearch;
+import com.example.jobbot.service.SearchMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+/**
+ * Matching one new posting against {@code searches} saved searches, and compiling them. Searches
+ * and postings draw from the same vocabulary of levels, roles and places plus a few hundred
+ * skills, so anchors hit about as often as they would on a real board; one search in ten also
+ * pins a company. Setup prints the average number of matching searches per posting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SavedSearchBenchmark {
+    private static final String[] LEVELS = {"senior", "staff", "junior", "principal", "lead", "intern"};
+    private static final String[] SKILLS = {"java", "kotlin", "go", "python", "react", "rust", "c++", "c#", "sql", "kafka",
+            "kubernetes", "aws", "typescript", "scala", "elixir", "ruby", "\"machine learning\"", "ios", "android", "data"};
+    private static final String[] ROLES = {"backend", "frontend", "platform", "fullstack", "devops", "security", "mobile",
+            "infrastructure", "reliability", "product"};
+    private static final String[] TITLES = {"engineer", "developer", "architect", "manager", "scientist", "analyst"};
+    private static final String[] PLACES = {"remote", "berlin", "london", "\"new york\"", "toronto", "emea", "us", "europe"};
+    private static final int SYNTHETIC_SKILLS = 300;
+    private static final int POSTINGS = 1024;
+    @Param({"1000", "10000", "50000"})
+    public int searches;
+    private List<SavedSearch> saved;
+    private SearchMatcher matcher;
+    private JobPosting[] postings;
+    private int next;
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(11);
+        saved = new ArrayList<>(searches);
+        for(int i = 0; i < searches; i++) {
+            SavedSearch s = new SavedSearch();
+            s.setId((long) i);
+            StringBuilder q = new StringBuilder();
+            if(random.nextInt(2)==0) q.append(pick(random, LEVELS)).append(' ');
+            q.append(skill(random)).append(' ');
+            if(random.nextInt(2)==0) q.append(pick(random, ROLES)).append(' ');
+            if(random.nextInt(3)==0) q.append(pick(random, PLACES));
+            s.setQuery(q.toString());
+            if(random.nextInt(10)==0) s.setCompany("Company " + random.nextInt(500));
+            saved.add(s);
+        }
+        matcher = SearchMatcher.compile(saved);
+        postings = new JobPosting[POSTINGS];
+        for(int i = 0; i < POSTINGS; i++) {
+            JobPosting j = new JobPosting();
+            j.setId((long) i);
+            j.setSource("bench");
+            j.setTitle(cap(pick(random, LEVELS)) + " " + cap(pick(random, ROLES)) + " " + cap(pick(random, TITLES)) + " (" + skill(random).replace("\"", "") + ", " + skill(random).replace("\"", "") + ")");
+            j.setCompany("Company " + random.nextInt(500));
+            j.setLocation(cap(pick(random, PLACES).replace("\"", "")) + ", " + cap(pick(random, PLACES).replace("\"", "")));
+            j.setDepartment("Engineering");
+            postings[i] = j;
+        }
+        long hits = 0;
+        for(JobPosting j : postings) hits += matcher.match(j).size();
+        System.out.printf("%d searches, %d keywords, %.1f matches per posting%n", matcher.size(), matcher.keywordCount(), hits / (double) POSTINGS);
+    }
+    @Benchmark
+    public void match(Blackhole bh) {
+        bh.consume(matcher.match(postings[next++ & (POSTINGS - 1)]));
+    }
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void compile(Blackhole bh) {
+        bh.consume(SearchMatcher.compile(saved));
+    }
+    private static String pick(SplittableRandom random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+    /** One of the named skills a third of the time, otherwise one of the long tail. */
+    private static String skill(SplittableRandom random) {
+        return random.nextInt(3)==0 ? pick(random, SKILLS) : "tech" + random.nextInt(SYNTHETIC_SKILLS);
+    }
+    private static String cap(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
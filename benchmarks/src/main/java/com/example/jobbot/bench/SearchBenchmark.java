@@ -0,0 +1,114 @@
+package com.example.jobbot.bench;
+import com.example.jobbot.Application;
+import com.example.jobbot.service.JobSearchIndex;
+import com.example.jobbot.service.PostingDescriptions;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.FileSystemUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+/**
+ * Full-text search through {@link JobSearchIndex} over {@code postings} open postings with
+ * 40-word descriptions, the index on disk as in production. Postings are seeded before the
+ * context starts, so the index is built by the application's own startup rebuild. Queries rotate
+ * through one- and two-term searches, mixing common and rare terms and a prefix, top 20 with snippets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SearchBenchmark {
+    private static final String[] WORDS = words(2000);
+    private static final String[] QUERIES = {
+            "engineer", "term0", "term1z", "term0 term1", "engineer term2k", "company 12", "term1", "ter",
+            "term5 term9", "engineer company"};
+    /** Background threads the application starts to load its in-memory state. */
+    private static final Set<String> STARTUP_LOADS = Set.of("dedup-warmup", "search-index-rebuild", "match-index-load");
+    @Param({"100000", "1000000"})
+    public int postings;
+    private ConfigurableApplicationContext ctx;
+    private JobSearchIndex index;
+    private Path indexDir;
+    private int next;
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+        String url = "jdbc:h2:mem:search;DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        Timestamp now = Timestamp.from(Instant.now());
+        SplittableRandom random = new SplittableRandom(11);
+        for(int start = 1; start <= postings; start += 10_000) {
+            List<Object[]> rows = new ArrayList<>(), bodies = new ArrayList<>();
+            for(int id = start; id < Math.min(postings + 1, start + 10_000); id++) {
+                String u = "https://bench.example.com/jobs/" + id;
+                // with a source id, so startup's backfill of pre-source-id postings has nothing to rewrite
+                rows.add(new Object[]{id, u, u, "Engineer " + id, "Company " + (id % 997), "bench", 1L, now, now, now});
+                bodies.add(new Object[]{id, PostingDescriptions.compress(description(random))});
+            }
+            jdbc.batchUpdate("insert into job_posting (id, url, url_key, title, company, source, source_id, fetched_at, posted_at, changed_at) values (?,?,?,?,?,?,?,?,?,?)", rows);
+            jdbc.batchUpdate("insert into posting_description (posting_id, body) values (?,?)", bodies);
+        }
+        indexDir = Files.createTempDirectory("search-bench");
+        ctx = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--jobbot.scrape.enabled=false",
+                        "--jobbot.search.index-dir=" + indexDir,
+                        "--jobbot.dedup.near.enabled=false",
+                        "--logging.level.root=WARN");
+        index = ctx.getBean(JobSearchIndex.class);
+        awaitStartupLoads();
+        // the rebuild goes in id order, so finding the last posting means it finished
+        List<?> last = (List<?>) index.search("engineer " + postings, 1).get("items");
+        if(last.isEmpty() || !Long.valueOf(postings).equals(((Map<?, ?>) last.get(0)).get("id"))) {
+            throw new IllegalStateException("posting " + postings + " is not indexed");
+        }
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ctx.close();
+        FileSystemUtils.deleteRecursively(indexDir);
+    }
+    @Benchmark
+    public void search(Blackhole bh) throws IOException {
+        bh.consume(index.search(QUERIES[next++ % QUERIES.length], 20));
+    }
+    private static void awaitStartupLoads() throws InterruptedException {
+        for(Thread t : Thread.getAllStackTraces().keySet()) {
+            if(!STARTUP_LOADS.contains(t.getName())) continue;
+            t.join(TimeUnit.MINUTES.toMillis(30));
+            if(t.isAlive()) throw new IllegalStateException(t.getName() + " did not finish");
+        }
+    }
+    /** Skewed toward the low terms, so some words are common and most are rare, as in real text. */
+    private static String description(SplittableRandom random) {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < 40; i++) {
+            int k = (int) (WORDS.length * Math.pow(random.nextDouble(), 3));
+            sb.append(WORDS[k]).append(' ');
+        }
+        return sb.toString();
+    }
+    private static String[] words(int n) {
+        String[] words = new String[n];
+        for(int i = 0; i < n; i++) words[i] = "term" + Integer.toString(i, 36);
+        return words;
+    }
+}
@@ -19,6 +19,7 @@ interface Job {
   company: string;
   url: string;
 }
+interface JobPage { items: Job[]; nextCursor: number | null; }
 interface User { name: string; }
 interface Profile {
   name: string;
@@ -169,6 +170,9 @@ function JobList({ jobs }: { jobs: Job[] }) {
 // ---------- Main App ----------
 export default function App() {
   const [jobs, setJobs] = useState<Job[]>([]);
+  const [jobsCursor, setJobsCursor] = useState<number | null>(null);
+  const [streamAfter, setStreamAfter] = useState<number | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState<string | null>(null);
   const [user, setUser] = useState<User | null>(null);
@@ -214,8 +218,13 @@ export default function App() {
         } catch { /* no current profile yet */ }
 
         // Jobs
-        const jobsRes = await api.get<Job[]>("/jobs", { signal: controller.signal });
-        if (mounted) setJobs(Array.isArray(jobsRes.data) ? jobsRes.data : []);
+        const jobsRes = await api.get<JobPage>("/jobs", { signal: controller.signal });
+        if (mounted) {
+          const items = Array.isArray(jobsRes.data?.items) ? jobsRes.data.items : [];
+          setJobs(items);
+          setJobsCursor(jobsRes.data?.nextCursor ?? null);
+          setStreamAfter(items.length ? Number(items[0].id) : 0);
+        }
       } catch (err) {
         if (!mounted) return;
         const msg = (err as AxiosError)?.message || "Failed to load data";
@@ -228,6 +237,40 @@ export default function App() {
     return () => { mounted = false; controller.abort(); };
   }, [user]);
 
+  // Live new postings (SSE); the browser resumes with Last-Event-ID after a dropped connection
+  useEffect(() => {
+    if (!user || streamAfter == null) return;
+    const source = new EventSource(`/api/jobs/stream?after=${streamAfter}`);
+    source.addEventListener("posting", (e) => {
+      const job: Job = JSON.parse((e as MessageEvent).data);
+      setJobs((prev) => prev.some((j) => String(j.id) === String(job.id)) ? prev : [job, ...prev]);
+    });
+    // Missed more than the server buffers: reload the first page
+    source.addEventListener("reset", async () => {
+      try {
+        const { data } = await api.get<JobPage>("/jobs");
+        setJobs(Array.isArray(data?.items) ? data.items : []);
+        setJobsCursor(data?.nextCursor ?? null);
+      } catch { /* keep the current list */ }
+    });
+    return () => source.close();
+  }, [user, streamAfter]);
+
+  // Next page of jobs (keyset cursor)
+  const loadMoreJobs = useCallback(async () => {
+    if (jobsCursor == null) return;
+    try {
+      setLoadingMore(true);
+      const { data } = await api.get<JobPage>("/jobs", { params: { before: jobsCursor } });
+      setJobs((prev) => [...prev, ...(Array.isArray(data?.items) ? data.items : [])]);
+      setJobsCursor(data?.nextCursor ?? null);
+    } catch (err) {
+      alert((err as AxiosError)?.message || "Failed to load more jobs.");
+    } finally {
+      setLoadingMore(false);
+    }
+  }, [jobsCursor]);
+
   // Save profile -> POST or PUT
   const handleProfileSave = useCallback(async () => {
     try {
@@ -263,6 +306,8 @@ export default function App() {
     localStorage.removeItem("username");
     setUser(null);
     setJobs([]);
+    setJobsCursor(null);
+    setStreamAfter(null);
     setProfile({ name: "", resume: "", coverLetter: "", email: "", phone: "", location: "", links: [] });
     setProfileId(null);
   }, []);
@@ -297,6 +342,9 @@ export default function App() {
             <section aria-labelledby="jobs-heading" style={stackY(12)}>
               <h3 id="jobs-heading" style={{ margin: 0 }}>Available Jobs</h3>
               <JobList jobs={jobs} />
+              {jobsCursor != null && (
+                <button style={btnSecondary} onClick={loadMoreJobs} disabled={loadingMore}>{loadingMore ? "Loading…" : "Load more"}</button>
+              )}
             </section>
           </>
         ) : (
@@ -0,0 +1,146 @@
+package com.example.jobbot.loadtest;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+/**
+ * Closed-loop clients against the running backend: each one scrolls {@code /api/jobs} page by
+ * page like the job list does, and with probability {@code profileRatio} instead polls
+ * {@code /api/profiles/current} for one of the test users, revalidating with the ETag it last saw
+ * as the extension does. Latencies are kept per endpoint for the report.
+ */
+final class ApiLoad {
+    private static final Pattern NEXT_CURSOR = Pattern.compile("\"nextCursor\":(\\d+)");
+    private final String base;
+    private final List<String> tokens;
+    private final double profileRatio;
+    private final int pageSize;
+    private final HttpClient client = HttpClient.newBuilder()
+            .proxy(HttpClient.Builder.NO_PROXY)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+    ApiLoad(int port, List<String> tokens, double profileRatio, int pageSize) {
+        this.base = "http://127.0.0.1:" + port;
+        this.tokens = tokens;
+        this.profileRatio = profileRatio;
+        this.pageSize = pageSize;
+    }
+    /** Latencies of one endpoint, plus how many requests failed. */
+    static final class Series {
+        final String name;
+        long[] nanos = new long[1024];
+        int count;
+        long errors;
+        Series(String name) { this.name = name; }
+        void add(long n) {
+            if(count==nanos.length) nanos = Arrays.copyOf(nanos, count * 2);
+            nanos[count++] = n;
+        }
+        void addAll(Series other) {
+            for(int i = 0; i < other.count; i++) add(other.nanos[i]);
+            errors += other.errors;
+        }
+        Map<String, Object> summary(double seconds) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("requests", count);
+            m.put("errors", errors);
+            m.put("throughput_rps", round(count / seconds));
+            m.put("p50_ms", millis(percentile(sorted, 0.50)));
+            m.put("p90_ms", millis(percentile(sorted, 0.90)));
+            m.put("p99_ms", millis(percentile(sorted, 0.99)));
+            m.put("max_ms", millis(sorted.length==0 ? 0 : sorted[sorted.length - 1]));
+            return m;
+        }
+        private static long percentile(long[] sorted, double q) {
+            return sorted.length==0 ? 0 : sorted[Math.min(sorted.length - 1, (int) Math.ceil(q * sorted.length) - 1)];
+        }
+    }
+    /** Runs {@code clients} loops for {@code seconds}; returns the summary per endpoint. */
+    Map<String, Object> run(int clients, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Series[]> perClient = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        for(int c = 0; c < clients; c++) {
+            Thread t = new Thread(() -> {
+                try {
+                    perClient.add(loop(deadline));
+                } finally {
+                    done.countDown();
+                }
+            }, "api-client-" + c);
+            t.setDaemon(true);
+            t.start();
+        }
+        done.await();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        Series jobs = new Series("/api/jobs"), profile = new Series("/api/profiles/current");
+        for(Series[] s : perClient) {
+            jobs.addAll(s[0]);
+            profile.addAll(s[1]);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("clients", clients);
+        out.put("seconds", round(elapsed));
+        out.put(jobs.name, jobs.summary(elapsed));
+        out.put(profile.name, profile.summary(elapsed));
+        return out;
+    }
+    private Series[] loop(long deadline) {
+        Series jobs = new Series("jobs"), profile = new Series("profile");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long cursor = null;
+        while(System.nanoTime() < deadline) {
+            if(!tokens.isEmpty() && random.nextDouble() < profileRatio) {
+                String token = tokens.get(random.nextInt(tokens.size()));
+                HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(base + "/api/profiles/current")).header("Authorization", "Bearer " + token);
+                String etag = etags.get(token);
+                if(etag!=null) req.header("If-None-Match", etag);
+                long t0 = System.nanoTime();
+                try {
+                    HttpResponse<String> res = client.send(req.build(), HttpResponse.BodyHandlers.ofString());
+                    profile.add(System.nanoTime() - t0);
+                    if(res.statusCode()==200) res.headers().firstValue("ETag").ifPresent(e -> etags.put(token, e));
+                    else if(res.statusCode()!=304) profile.errors++;
+                } catch(Exception e) {
+                    profile.errors++;
+                }
+            } else {
+                String url = base + "/api/jobs?limit=" + pageSize + (cursor==null ? "" : "&before=" + cursor);
+                long t0 = System.nanoTime();
+                try {
+                    HttpResponse<String> res = client.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+                    jobs.add(System.nanoTime() - t0);
+                    if(res.statusCode()!=200) {
+                        jobs.errors++;
+                        cursor = null;
+                        continue;
+                    }
+                    Matcher m = NEXT_CURSOR.matcher(res.body());
+                    // scroll a few pages deep, then start over from the top as a new visitor would
+                    cursor = m.find() && random.nextInt(4)!=0 ? Long.valueOf(m.group(1)) : null;
+                } catch(Exception e) {
+                    jobs.errors++;
+                    cursor = null;
+                }
+            }
+        }
+        return new Series[]{jobs, profile};
+    }
+    static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+    static double round(double v) {
+        return Math.round(v * 10) / 10.0;
+    }
+}
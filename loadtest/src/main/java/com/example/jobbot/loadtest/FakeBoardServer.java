@@ -0,0 +1,370 @@
+package com.example.jobbot.loadtest;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+/**
+ * Every job board a scrape cycle visits, generated on the fly by one JDK {@link HttpServer}. The
+ * backend reaches it as its HTTP proxy (see {@link #proxySelector}), so each synthetic board has a
+ * host name of its own without DNS, and Greenhouse and Lever boards keep their real source URLs.
+ * <p>
+ * Board {@code i} lists {@code postings} jobs. Each {@link #nextCycle} moves a {@code churn}
+ * fraction of the boards on a generation: a fifth of their jobs close and as many new ones open.
+ * Responses carry an ETag and Last-Modified per generation and, with {@code conditional}, answer
+ * a matching revalidation with 304.
+ */
+final class FakeBoardServer implements AutoCloseable {
+    enum Kind { RSS, HTML, JSONLD, GREENHOUSE, LEVER }
+    static final String GREENHOUSE_API = "gh-api.boards.test";
+    static final String LEVER_API = "lever-api.boards.test";
+    private static final String DOMAIN = ".boards.test";
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final DateTimeFormatter RFC_1123 = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+    private static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+    private static final String[] LEVELS = {"Senior", "Staff", "Junior", "Principal", "Lead", ""};
+    private static final String[] ROLES = {"Backend", "Frontend", "Platform", "Full Stack", "DevOps", "Security", "Mobile", "Data", "Site Reliability", "Machine Learning"};
+    private static final String[] TITLES = {"Engineer", "Developer", "Architect", "Engineering Manager", "Scientist", "Analyst"};
+    private static final String[] PLACES = {"Remote", "Berlin, Germany", "London, UK", "New York, NY", "Toronto, Canada", "Remote, EMEA", "San Francisco, CA", "Anywhere in the World"};
+    private static final String[] WORDS = ("build scale own design improve distributed systems services reliability performance team product "
+            + "mentor collaborate experienced looking java kotlin go python rust typescript kafka postgres kubernetes aws observability "
+            + "customers platform data pipelines latency throughput on-call roadmap hiring growth").split(" ");
+    record Settings(int postings, int descriptionBytes, long latencyMs, boolean conditional, boolean gzip, double churn,
+                    String robots, int crawlDelaySeconds, double disallowFraction) {}
+    private final Settings settings;
+    private final int[] generation;
+    private final SplittableRandom churnRandom = new SplittableRandom(42);
+    private final HttpServer server;
+    private final ExecutorService executor;
+    final LongAdder requests = new LongAdder();
+    final LongAdder notModified = new LongAdder();
+    final LongAdder bytesSent = new LongAdder();
+    FakeBoardServer(int boards, Settings settings) throws IOException {
+        this.settings = settings;
+        this.generation = new int[boards];
+        AtomicInteger n = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "fake-board-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+    int port() {
+        return server.getAddress().getPort();
+    }
+    /** Routes every http request through this server; anything else fails to connect. */
+    ProxySelector proxySelector() {
+        Proxy proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress("127.0.0.1", port()));
+        return new ProxySelector() {
+            @Override public List<Proxy> select(URI uri) {
+                return "http".equalsIgnoreCase(uri.getScheme()) ? List.of(proxy) : List.of(Proxy.NO_PROXY);
+            }
+            @Override public void connectFailed(URI uri, SocketAddress sa, IOException e) {}
+        };
+    }
+    /** The source URL and type the backend is given for board {@code i}. */
+    static String url(Kind kind, int i) {
+        return switch(kind) {
+            case RSS -> "http://feed-" + i + DOMAIN + "/jobs.rss";
+            case HTML -> "http://hire-" + i + DOMAIN + "/board" + i;
+            case JSONLD -> "http://jobs-" + i + DOMAIN + "/openings";
+            case GREENHOUSE -> "http://boards.greenhouse.io/board" + i;
+            case LEVER -> "http://jobs.lever.co/board" + i;
+        };
+    }
+    static String type(Kind kind) {
+        return switch(kind) {
+            case RSS -> "rss";
+            case HTML -> "links";
+            case JSONLD -> "jsonld";
+            case GREENHOUSE, LEVER -> null;
+        };
+    }
+    /** Moves a {@code churn} fraction of the boards to their next generation; returns how many. */
+    synchronized int nextCycle() {
+        int changed = 0;
+        for(int i = 0; i < generation.length; i++) {
+            if(churnRandom.nextDouble() < settings.churn()) {
+                generation[i]++;
+                changed++;
+            }
+        }
+        return changed;
+    }
+    private synchronized int generationOf(int board) {
+        return generation[board];
+    }
+    @Override public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    private void handle(HttpExchange ex) throws IOException {
+        requests.increment();
+        try(ex) {
+            if(settings.latencyMs() > 0) Thread.sleep(settings.latencyMs());
+            URI uri = ex.getRequestURI();
+            String host = uri.getHost()!=null ? uri.getHost() : hostHeader(ex);
+            String path = uri.getRawPath()==null ? "/" : uri.getRawPath();
+            if(path.equals("/robots.txt")) {
+                robots(ex, host);
+                return;
+            }
+            Kind kind;
+            int board;
+            String[] parts = path.split("/");
+            if(host.equals(GREENHOUSE_API) && parts.length > 3 && parts[2].equals("boards")) {
+                kind = Kind.GREENHOUSE;
+                board = boardNumber(parts[3]);
+            } else if(host.equals(LEVER_API) && parts.length > 3 && parts[2].equals("postings")) {
+                kind = Kind.LEVER;
+                board = boardNumber(parts[3]);
+            } else if(host.endsWith(DOMAIN) && host.indexOf('-') > 0) {
+                String prefix = host.substring(0, host.indexOf('-'));
+                kind = prefix.equals("feed") ? Kind.RSS : prefix.equals("hire") ? Kind.HTML : prefix.equals("jobs") ? Kind.JSONLD : null;
+                board = parseInt(host.substring(host.indexOf('-') + 1, host.length() - DOMAIN.length()));
+            } else {
+                kind = null;
+                board = -1;
+            }
+            if(kind==null || board < 0 || board >= generation.length) {
+                send(ex, 404, "text/plain", "not found".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            int gen = generationOf(board);
+            String etag = "\"b" + board + "-g" + gen + "\"";
+            ex.getResponseHeaders().set("ETag", etag);
+            ex.getResponseHeaders().set("Last-Modified", RFC_1123.format(EPOCH.plusSeconds(3600L * gen)));
+            if(settings.conditional() && etag.equals(ex.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.increment();
+                ex.sendResponseHeaders(304, -1);
+                return;
+            }
+            byte[] body = switch(kind) {
+                case RSS -> rss(board, gen);
+                case HTML -> html(board, gen);
+                case JSONLD -> jsonLd(board, gen);
+                case GREENHOUSE -> greenhouse(board, gen);
+                case LEVER -> lever(board, gen);
+            };
+            String type = switch(kind) {
+                case RSS -> "application/rss+xml; charset=utf-8";
+                case HTML, JSONLD -> "text/html; charset=utf-8";
+                case GREENHOUSE, LEVER -> "application/json; charset=utf-8";
+            };
+            send(ex, 200, type, body);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(RuntimeException e) {
+            send(ex, 500, "text/plain", String.valueOf(e).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+    private void robots(HttpExchange ex, String host) throws IOException {
+        // a stable per-host draw, so the same hosts stay disallowed across cycles
+        boolean disallowed = settings.disallowFraction() > 0
+                && new SplittableRandom(host.hashCode()).nextDouble() < settings.disallowFraction();
+        switch(disallowed ? "disallow" : settings.robots()) {
+            case "missing" -> send(ex, 404, "text/plain", new byte[0]);
+            case "error" -> send(ex, 503, "text/plain", new byte[0]);
+            case "disallow" -> send(ex, 200, "text/plain", "User-agent: *\nDisallow: /\n".getBytes(StandardCharsets.UTF_8));
+            default -> {
+                String body = "User-agent: *\nAllow: /\n" + (settings.crawlDelaySeconds() > 0 ? "Crawl-delay: " + settings.crawlDelaySeconds() + "\n" : "");
+                send(ex, 200, "text/plain", body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+    private void send(HttpExchange ex, int status, String type, byte[] body) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", type);
+        String accept = ex.getRequestHeaders().getFirst("Accept-Encoding");
+        if(settings.gzip() && body.length > 512 && accept!=null && accept.contains("gzip")) {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(body.length / 4);
+            try(GZIPOutputStream gz = new GZIPOutputStream(buf)) {
+                gz.write(body);
+            }
+            body = buf.toByteArray();
+            ex.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        ex.sendResponseHeaders(status, body.length==0 ? -1 : body.length);
+        if(body.length > 0) {
+            try(OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        bytesSent.add(body.length);
+    }
+    /** A posting of board {@code board}, derived from its id alone so it reads the same every cycle. */
+    private record Job(long id, String title, String company, String location, String department, String description, Instant published) {}
+    private Job job(int board, int gen, int k) {
+        // each generation shifts the board's window of ids by a fifth
+        long id = (long) board * 1_000_000L + (long) gen * Math.max(1, settings.postings() / 5) + k;
+        SplittableRandom r = new SplittableRandom(id);
+        String level = LEVELS[r.nextInt(LEVELS.length)];
+        String title = (level.isEmpty() ? "" : level + " ") + ROLES[r.nextInt(ROLES.length)] + " " + TITLES[r.nextInt(TITLES.length)];
+        StringBuilder d = new StringBuilder(settings.descriptionBytes() + 64).append("<p>");
+        while(d.length() < settings.descriptionBytes()) {
+            d.append(WORDS[r.nextInt(WORDS.length)]).append(r.nextInt(12)==0 ? ".</p><p>" : " ");
+        }
+        d.append("</p>");
+        return new Job(id, title, "Board " + board, PLACES[r.nextInt(PLACES.length)], ROLES[r.nextInt(ROLES.length)],
+                d.toString(), EPOCH.plusSeconds(id % 10_000_000L));
+    }
+    private byte[] rss(int board, int gen) {
+        StringBuilder b = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<rss version=\"2.0\"><channel>")
+                .append("<title>Board ").append(board).append("</title><link>").append(url(Kind.RSS, board)).append("</link>");
+        for(int k = 0; k < settings.postings(); k++) {
+            Job j = job(board, gen, k);
+            String link = "http://feed-" + board + DOMAIN + "/jobs/" + j.id();
+            b.append("<item><title>").append(j.title()).append("</title><company>").append(j.company()).append("</company>")
+                    .append("<region>").append(j.location()).append("</region>")
+                    .append("<description><![CDATA[").append(j.description()).append("]]></description>")
+                    .append("<pubDate>").append(RFC_1123.format(j.published())).append("</pubDate>")
+                    .append("<guid>").append(link).append("</guid><link>").append(link).append("</link></item>");
+        }
+        return b.append("</channel></rss>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+    /** The markup of a hosted Greenhouse board: one {@code div.opening} link per job. */
+    private byte[] html(int board, int gen) {
+        StringBuilder b = new StringBuilder("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Jobs at Board ").append(board)
+                .append("</title></head><body><div id=\"wrapper\"><div id=\"header\"><nav><a href=\"/\">Home</a> <a href=\"/about\">About</a></nav></div>")
+                .append("<div id=\"main\"><h1>Current Job Openings</h1><section class=\"level-0\">");
+        for(int k = 0; k < settings.postings(); k++) {
+            Job j = job(board, gen, k);
+            b.append("<div class=\"opening\"><a data-mapped=\"true\" href=\"/board").append(board).append("/jobs/").append(j.id()).append("\">")
+                    .append(j.title()).append("</a><br><span class=\"location\">").append(j.location()).append("</span></div>");
+        }
+        return b.append("</section></div></div></body></html>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+    private byte[] jsonLd(int board, int gen) {
+        StringBuilder b = new StringBuilder("<!DOCTYPE html><html lang=\"en\"><head><meta charset=\"utf-8\"><title>Careers</title>");
+        for(int k = 0; k < settings.postings(); k++) {
+            Job j = job(board, gen, k);
+            b.append("<script type=\"application/ld+json\">").append(json(g -> {
+                g.writeStartObject();
+                g.writeStringField("@context", "https://schema.org/");
+                g.writeStringField("@type", "JobPosting");
+                g.writeStringField("title", j.title());
+                g.writeStringField("description", j.description());
+                g.writeStringField("datePosted", j.published().toString().substring(0, 10));
+                g.writeStringField("url", "http://jobs-" + board + DOMAIN + "/openings/" + j.id());
+                g.writeObjectFieldStart("hiringOrganization");
+                g.writeStringField("@type", "Organization");
+                g.writeStringField("name", j.company());
+                g.writeEndObject();
+                g.writeEndObject();
+            }).replace("</", "<\\/")).append("</script>");
+        }
+        return b.append("</head><body><h1>Careers</h1></body></html>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+    /** The Greenhouse Job Board API's {@code /jobs?content=true}, content HTML-escaped as the API does. */
+    private byte[] greenhouse(int board, int gen) {
+        return json(g -> {
+            g.writeStartObject();
+            g.writeArrayFieldStart("jobs");
+            for(int k = 0; k < settings.postings(); k++) {
+                Job j = job(board, gen, k);
+                g.writeStartObject();
+                g.writeNumberField("id", j.id());
+                g.writeStringField("title", j.title());
+                g.writeStringField("updated_at", j.published().toString());
+                g.writeStringField("first_published", j.published().toString());
+                g.writeStringField("absolute_url", "http://boards.greenhouse.io/board" + board + "/jobs/" + j.id());
+                g.writeStringField("company_name", j.company());
+                g.writeObjectFieldStart("location");
+                g.writeStringField("name", j.location());
+                g.writeEndObject();
+                g.writeArrayFieldStart("departments");
+                g.writeStartObject();
+                g.writeStringField("name", j.department());
+                g.writeEndObject();
+                g.writeEndArray();
+                g.writeStringField("content", j.description().replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"));
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+            g.writeObjectFieldStart("meta");
+            g.writeNumberField("total", settings.postings());
+            g.writeEndObject();
+            g.writeEndObject();
+        }).getBytes(StandardCharsets.UTF_8);
+    }
+    /** The Lever Postings API's {@code ?mode=json}; it has no update timestamp. */
+    private byte[] lever(int board, int gen) {
+        return json(g -> {
+            g.writeStartArray();
+            for(int k = 0; k < settings.postings(); k++) {
+                Job j = job(board, gen, k);
+                String hosted = "http://jobs.lever.co/board" + board + "/" + j.id();
+                g.writeStartObject();
+                g.writeStringField("id", Long.toHexString(j.id()));
+                g.writeStringField("text", j.title());
+                g.writeStringField("hostedUrl", hosted);
+                g.writeStringField("applyUrl", hosted + "/apply");
+                g.writeNumberField("createdAt", j.published().toEpochMilli());
+                g.writeObjectFieldStart("categories");
+                g.writeStringField("location", j.location());
+                g.writeStringField("department", "Engineering");
+                g.writeStringField("team", j.department());
+                g.writeEndObject();
+                g.writeStringField("description", j.description());
+                g.writeArrayFieldStart("lists");
+                g.writeStartObject();
+                g.writeStringField("text", "Requirements");
+                g.writeStringField("content", "<li>" + j.title() + " experience</li><li>Shipping to production</li>");
+                g.writeEndObject();
+                g.writeEndArray();
+                g.writeStringField("additional", "");
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+        }).getBytes(StandardCharsets.UTF_8);
+    }
+    private interface JsonBody { void write(JsonGenerator g) throws IOException; }
+    private static String json(JsonBody body) {
+        StringWriter w = new StringWriter();
+        try(JsonGenerator g = JSON.createGenerator(w)) {
+            body.write(g);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return w.toString();
+    }
+    private static String hostHeader(HttpExchange ex) {
+        String h = ex.getRequestHeaders().getFirst("Host");
+        if(h==null) return "";
+        int colon = h.indexOf(':');
+        return (colon < 0 ? h : h.substring(0, colon)).toLowerCase();
+    }
+    private static int boardNumber(String token) {
+        return token.startsWith("board") ? parseInt(token.substring(5)) : -1;
+    }
+    private static int parseInt(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch(NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.jobbot.loadtest;
+import com.example.jobbot.Application;
+import com.example.jobbot.model.JobSource;
+import com.example.jobbot.repository.JobPostingRepository;
+import com.example.jobbot.repository.JobSourceRepository;
+import com.example.jobbot.service.HostRateLimiter;
+import com.example.jobbot.service.ScraperService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+/**
+ * Offline end-to-end load test. Starts a {@link FakeBoardServer}, boots the backend in this JVM
+ * against an in-memory H2 with every outbound http request routed to the fake boards, registers
+ * {@code sources} synthetic sources, then:
+ * <ol>
+ * <li>runs {@code cycles} full scrape cycles through {@link ScraperService#scheduledScrape}, the
+ *     first against empty tables and later ones after {@code churn} of the boards changed;</li>
+ * <li>load-tests {@code /api/jobs} and {@code /api/profiles/current} with {@code api-clients}
+ *     concurrent clients, during one more scrape cycle when {@code api-during-scrape} is set.</li>
+ * </ol>
+ * Prints a report with cycle time, postings per second, latency percentiles and heap / GC use, and
+ * writes it as JSON to {@code report}. Options are {@code --name=value}; {@code --spring.*},
+ * {@code --jobbot.*}, {@code --server.*} and {@code --logging.*} go to the backend as given.
+ */
+public final class LoadTest {
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+    static {
+        DEFAULTS.put("sources", "1000");
+        DEFAULTS.put("mix", "rss:35,html:25,jsonld:25,greenhouse:10,lever:5");
+        DEFAULTS.put("postings", "25");
+        DEFAULTS.put("description-bytes", "2000");
+        DEFAULTS.put("latency-ms", "20");
+        DEFAULTS.put("conditional", "true");
+        DEFAULTS.put("gzip", "true");
+        DEFAULTS.put("churn", "0.1");
+        DEFAULTS.put("robots", "allow");
+        DEFAULTS.put("crawl-delay-s", "0");
+        DEFAULTS.put("disallow-fraction", "0");
+        DEFAULTS.put("cycles", "2");
+        DEFAULTS.put("cycle-timeout-s", "1800");
+        DEFAULTS.put("poll-ms", "500");
+        DEFAULTS.put("users", "50");
+        DEFAULTS.put("api-clients", "32");
+        DEFAULTS.put("api-seconds", "20");
+        DEFAULTS.put("api-profile-ratio", "0.3");
+        DEFAULTS.put("api-page-size", "50");
+        DEFAULTS.put("api-during-scrape", "false");
+        DEFAULTS.put("report", "target/loadtest-report.json");
+    }
+    private static final List<String> BACKEND_PREFIXES = List.of("spring.", "jobbot.", "server.", "logging.", "management.");
+    private LoadTest() {}
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opt = new LinkedHashMap<>(DEFAULTS);
+        List<String> backendArgs = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--server.port=0",
+                "--jobbot.search.index-dir=memory",
+                "--jobbot.retention.enabled=false",
+                // the harness drives the scheduler; every host is due once its lease row is reset
+                "--jobbot.scrape.poll-ms=86400000",
+                "--jobbot.scrape.interval-ms=3600000",
+                "--jobbot.connectors.greenhouse.api-base=http://" + FakeBoardServer.GREENHOUSE_API,
+                "--jobbot.connectors.lever.api-base=http://" + FakeBoardServer.LEVER_API,
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework=WARN",
+                "--logging.level.com.example.jobbot=WARN"));
+        for(String a : args) {
+            if(!a.startsWith("--") || a.indexOf('=') < 0) throw new IllegalArgumentException("Expected --name=value, got " + a);
+            String name = a.substring(2, a.indexOf('=')), value = a.substring(a.indexOf('=') + 1);
+            if(BACKEND_PREFIXES.stream().anyMatch(name::startsWith)) backendArgs.add(a);
+            else if(DEFAULTS.containsKey(name)) opt.put(name, value);
+            else throw new IllegalArgumentException("Unknown option --" + name + "; known: " + DEFAULTS.keySet());
+        }
+        int sourceCount = Integer.parseInt(opt.get("sources"));
+        FakeBoardServer.Settings settings = new FakeBoardServer.Settings(
+                Integer.parseInt(opt.get("postings")), Integer.parseInt(opt.get("description-bytes")),
+                Long.parseLong(opt.get("latency-ms")), Boolean.parseBoolean(opt.get("conditional")),
+                Boolean.parseBoolean(opt.get("gzip")), Double.parseDouble(opt.get("churn")), opt.get("robots"),
+                Integer.parseInt(opt.get("crawl-delay-s")), Double.parseDouble(opt.get("disallow-fraction")));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", opt);
+        report.put("backend_args", backendArgs);
+        report.put("jvm", Map.of("version", Runtime.version().toString(), "cpus", Runtime.getRuntime().availableProcessors(),
+                "max_heap_mb", Runtime.getRuntime().maxMemory() >> 20, "gc", gcNames()));
+        try(FakeBoardServer boards = new FakeBoardServer(sourceCount, settings)) {
+            ProxySelector.setDefault(boards.proxySelector());
+            long bootStart = System.nanoTime();
+            ConfigurableApplicationContext ctx = new SpringApplicationBuilder(Application.class).run(backendArgs.toArray(String[]::new));
+            try {
+                report.put("startup_ms", (System.nanoTime() - bootStart) / 1_000_000);
+                int port = Integer.parseInt(Objects.requireNonNull(ctx.getEnvironment().getProperty("local.server.port")));
+                Set<String> hosts = registerSources(ctx, sourceCount, opt.get("mix"));
+                System.out.printf("Fake boards on 127.0.0.1:%d, backend on %d, %d sources on %d hosts%n", boards.port(), port, sourceCount, hosts.size());
+                Harness h = new Harness(ctx, boards, hosts, Integer.parseInt(opt.get("poll-ms")), Long.parseLong(opt.get("cycle-timeout-s")));
+                List<Map<String, Object>> cycles = new ArrayList<>();
+                int cycleCount = Integer.parseInt(opt.get("cycles"));
+                for(int c = 1; c <= cycleCount; c++) {
+                    int changed = c==1 ? 0 : boards.nextCycle();
+                    cycles.add(print(h.cycle(c, changed)));
+                }
+                List<String> tokens = registerUsers(port, Integer.parseInt(opt.get("users")));
+                ApiLoad api = new ApiLoad(port, tokens, Double.parseDouble(opt.get("api-profile-ratio")), Integer.parseInt(opt.get("api-page-size")));
+                int clients = Integer.parseInt(opt.get("api-clients")), seconds = Integer.parseInt(opt.get("api-seconds"));
+                Map<String, Long> gc = gcSnapshot();
+                Map<String, Object> apiResult;
+                if(Boolean.parseBoolean(opt.get("api-during-scrape"))) {
+                    int changed = boards.nextCycle();
+                    CompletableFuture<Map<String, Object>> scrape = CompletableFuture.supplyAsync(() -> h.cycle(cycleCount + 1, changed));
+                    apiResult = api.run(clients, seconds);
+                    cycles.add(print(scrape.get()));
+                } else {
+                    apiResult = api.run(clients, seconds);
+                }
+                apiResult.put("gc", gcDelta(gc));
+                apiResult.put("heap_used_mb", heapUsedMb());
+                report.put("cycles", cycles);
+                report.put("api", print(apiResult));
+                report.put("heap_peak_mb", heapPeakMb());
+            } finally {
+                ctx.close();
+            }
+        }
+        Path out = Path.of(opt.get("report"));
+        if(out.getParent()!=null) Files.createDirectories(out.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+        System.out.println("Report written to " + out.toAbsolutePath());
+        System.exit(0);
+    }
+    /** Replaces whatever the backend seeded with {@code count} synthetic sources; returns their hosts. */
+    private static Set<String> registerSources(ConfigurableApplicationContext ctx, int count, String mix) throws InterruptedException {
+        // the seeder runs on its own thread and only seeds an empty table
+        for(Thread t : Thread.getAllStackTraces().keySet()) if(t.getName().equals("source-seeder")) t.join();
+        JobSourceRepository repo = ctx.getBean(JobSourceRepository.class);
+        repo.deleteAll();
+        List<FakeBoardServer.Kind> kinds = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for(String part : mix.split(",")) {
+            String[] kv = part.trim().split(":");
+            kinds.add(FakeBoardServer.Kind.valueOf(kv[0].trim().toUpperCase()));
+            weights.add(Integer.parseInt(kv[1].trim()));
+        }
+        int total = weights.stream().mapToInt(Integer::intValue).sum();
+        List<JobSource> sources = new ArrayList<>(count);
+        Set<String> hosts = new HashSet<>();
+        for(int i = 0; i < count; i++) {
+            // spread the kinds evenly over the index range rather than in blocks
+            int slot = (int) ((i * 2654435761L) % total), k = 0;
+            while(slot >= weights.get(k)) slot -= weights.get(k++);
+            JobSource s = new JobSource();
+            s.setName("load-" + kinds.get(k).name().toLowerCase() + "-" + i);
+            s.setUrl(FakeBoardServer.url(kinds.get(k), i));
+            s.setType(FakeBoardServer.type(kinds.get(k)));
+            sources.add(s);
+            hosts.add(HostRateLimiter.hostOf(s.getUrl()));
+        }
+        repo.saveAll(sources);
+        return hosts;
+    }
+    private static List<String> registerUsers(int port, int users) throws Exception {
+        HttpClient client = HttpClient.newBuilder().proxy(HttpClient.Builder.NO_PROXY).build();
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> tokens = new ArrayList<>();
+        for(int i = 0; i < users; i++) {
+            Map<?, ?> reg = mapper.readValue(post(client, port, "/api/auth/register", null,
+                    Map.of("username", "load" + i + "-" + System.nanoTime(), "password", "secret")), Map.class);
+            String token = (String) reg.get("token");
+            post(client, port, "/api/profiles", token, Map.of("name", "Load User " + i, "email", "load" + i + "@example.test",
+                    "location", "Remote", "resumeText", "Backend engineer with Java, Kotlin, Kafka and Kubernetes experience. ".repeat(20)));
+            tokens.add(token);
+        }
+        return tokens;
+    }
+    private static String post(HttpClient client, int port, String path, String token, Map<String, ?> body) throws Exception {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(new ObjectMapper().writeValueAsString(body)));
+        if(token!=null) req.header("Authorization", "Bearer " + token);
+        return client.send(req.build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+    /** Drives scrape cycles and measures them. */
+    private static final class Harness {
+        private final ScraperService scraper;
+        private final JobPostingRepository jobs;
+        private final JdbcTemplate jdbc;
+        private final MeterRegistry registry;
+        private final FakeBoardServer boards;
+        private final Set<String> hosts;
+        private final int pollMs;
+        private final long timeoutMs;
+        Harness(ConfigurableApplicationContext ctx, FakeBoardServer boards, Set<String> hosts, int pollMs, long timeoutSeconds) {
+            this.scraper = ctx.getBean(ScraperService.class);
+            this.jobs = ctx.getBean(JobPostingRepository.class);
+            this.jdbc = ctx.getBean(JdbcTemplate.class);
+            this.registry = ctx.getBean(MeterRegistry.class);
+            this.boards = boards;
+            this.hosts = hosts;
+            this.pollMs = pollMs;
+            this.timeoutMs = timeoutSeconds * 1000;
+        }
+        /** One full cycle: every host made due, then scheduler polls until all of them have run. */
+        Map<String, Object> cycle(int n, int changedBoards) {
+            jdbc.update("update host_lease set last_run_at = null");
+            Map<String, Double> postingsBefore = counters("jobbot.scrape.postings", "outcome");
+            Map<String, Double> errorsBefore = counters("jobbot.scrape.errors", "category");
+            Map<String, Long> gc = gcSnapshot();
+            long requests = boards.requests.sum(), notModified = boards.notModified.sum(), bytes = boards.bytesSent.sum();
+            long rows = jobs.count();
+            Instant start = Instant.now();
+            long t0 = System.nanoTime();
+            int done = 0;
+            try {
+                while(true) {
+                    scraper.scheduledScrape();
+                    Thread.sleep(pollMs);
+                    done = finishedHosts(start);
+                    if(done >= hosts.size() || System.nanoTime() - t0 > timeoutMs * 1_000_000) break;
+                }
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            double seconds = (System.nanoTime() - t0) / 1e9;
+            Map<String, Double> postings = delta(counters("jobbot.scrape.postings", "outcome"), postingsBefore);
+            double found = postings.getOrDefault("found", 0.0), stored = postings.getOrDefault("inserted", 0.0) + postings.getOrDefault("updated", 0.0);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("cycle", n);
+            m.put("changed_boards", changedBoards);
+            m.put("hosts_finished", done + "/" + hosts.size());
+            m.put("cycle_ms", Math.round(seconds * 1000));
+            m.put("found_per_s", ApiLoad.round(found / seconds));
+            m.put("stored_per_s", ApiLoad.round(stored / seconds));
+            m.put("postings", postings);
+            m.put("scrape_errors", delta(counters("jobbot.scrape.errors", "category"), errorsBefore));
+            m.put("board_requests", boards.requests.sum() - requests);
+            m.put("board_304s", boards.notModified.sum() - notModified);
+            m.put("board_mb_sent", ApiLoad.round((boards.bytesSent.sum() - bytes) / 1048576.0));
+            m.put("job_rows", Map.of("before", rows, "after", jobs.count()));
+            m.put("gc", gcDelta(gc));
+            m.put("heap_used_mb", heapUsedMb());
+            return m;
+        }
+        private int finishedHosts(Instant since) {
+            int n = 0;
+            for(String h : jdbc.queryForList("select host from host_lease where last_run_at >= ?", String.class, Timestamp.from(since))) {
+                if(hosts.contains(h)) n++;
+            }
+            return n;
+        }
+        private Map<String, Double> counters(String name, String tag) {
+            Map<String, Double> out = new TreeMap<>();
+            for(Counter c : registry.find(name).counters()) out.merge(c.getId().getTag(tag), c.count(), Double::sum);
+            return out;
+        }
+        private static Map<String, Double> delta(Map<String, Double> after, Map<String, Double> before) {
+            Map<String, Double> out = new TreeMap<>();
+            after.forEach((k, v) -> {
+                double d = v - before.getOrDefault(k, 0.0);
+                if(d!=0) out.put(k, d);
+            });
+            return out;
+        }
+    }
+    private static Map<String, Object> print(Map<String, Object> section) {
+        System.out.println(section);
+        return section;
+    }
+    private static List<String> gcNames() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().map(GarbageCollectorMXBean::getName).toList();
+    }
+    private static Map<String, Long> gcSnapshot() {
+        long count = 0, time = 0;
+        for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return Map.of("count", count, "time_ms", time);
+    }
+    private static Map<String, Long> gcDelta(Map<String, Long> before) {
+        Map<String, Long> now = gcSnapshot();
+        return Map.of("collections", now.get("count") - before.get("count"), "pause_ms", now.get("time_ms") - before.get("time_ms"));
+    }
+    private static long heapUsedMb() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20;
+    }
+    private static long heapPeakMb() {
+        long peak = 0;
+        for(MemoryPoolMXBean p : ManagementFactory.getMemoryPoolMXBeans()) if(p.getType()==MemoryType.HEAP) peak += p.getPeakUsage().getUsed();
+        return peak >> 20;
+    }
+}
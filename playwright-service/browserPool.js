@@ -0,0 +1,156 @@
+const { chromium } = require('playwright');
+
+// One long-lived browser shared by every request. Each slot is a context with a single page that
+// is reused across requests; slots are handed out through a FIFO queue so at most `size` pages
+// render at once, and a context is recycled after `maxUses` to keep memory from creeping.
+// Slots move between sites, so service workers are blocked outright and, between renders, every
+// origin the page visited has its storage wiped and the page is swapped for a fresh one (which
+// takes sessionStorage with it).
+const BLOCKED_TYPES = new Set(['image', 'font', 'media']);
+
+class BrowserPool {
+  constructor({ size = 4, maxQueue = 100, maxUses = 50, launch = () => chromium.launch({ headless: true }) } = {}){
+    this.size = size;
+    this.maxQueue = maxQueue;
+    this.maxUses = maxUses;
+    this.launch = launch;
+    this.browser = null;
+    this.launching = null;
+    this.idle = [];
+    this.busy = 0;
+    this.waiters = [];
+    this.stats = { renders: 0, blocked: 0, recycled: 0, launches: 0 };
+  }
+
+  async getBrowser(){
+    if(this.browser && this.browser.isConnected()) return this.browser;
+    if(!this.launching){
+      this.launching = this.launch().then(b => {
+        this.stats.launches++;
+        this.browser = b;
+        this.idle = [];
+        // slots of a dead browser are useless; idle ones go now, busy ones are dropped on release
+        b.on('disconnected', () => {
+          if(this.browser !== b) return;
+          this.browser = null;
+          this.idle = [];
+        });
+        return b;
+      }).finally(() => { this.launching = null; });
+    }
+    return this.launching;
+  }
+
+  async newSlot(){
+    const browser = await this.getBrowser();
+    const context = await browser.newContext({ userAgent: 'JobBot-Scraper/1.0', serviceWorkers: 'block' });
+    await context.route('**/*', route => {
+      if(BLOCKED_TYPES.has(route.request().resourceType())){
+        this.stats.blocked++;
+        return route.abort();
+      }
+      return route.continue();
+    });
+    const slot = { browser, context, page: null, origins: new Set(), uses: 0 };
+    await this.openPage(slot);
+    return slot;
+  }
+
+  async openPage(slot){
+    const page = await slot.context.newPage();
+    page.on('framenavigated', frame => {
+      try{
+        const origin = new URL(frame.url()).origin;
+        if(origin !== 'null') slot.origins.add(origin);
+      }catch(e){ /* about:blank and the like */ }
+    });
+    slot.page = page;
+  }
+
+  // Drops cookies, permissions and every kind of origin storage the last render could have left.
+  async clearState(slot){
+    const cdp = await slot.context.newCDPSession(slot.page);
+    try{
+      for(const origin of slot.origins){
+        await cdp.send('Storage.clearDataForOrigin', { origin, storageTypes: 'all' });
+      }
+    }finally{
+      await cdp.detach().catch(() => {});
+    }
+    slot.origins.clear();
+    await slot.context.clearCookies();
+    await slot.context.clearPermissions();
+    await slot.page.close();
+    await this.openPage(slot);
+  }
+
+  acquire(){
+    if(this.busy < this.size){
+      this.busy++;
+      return Promise.resolve();
+    }
+    if(this.waiters.length >= this.maxQueue){
+      const err = new Error('Render queue is full');
+      err.status = 503;
+      return Promise.reject(err);
+    }
+    return new Promise(resolve => this.waiters.push(resolve));
+  }
+
+  release(){
+    const next = this.waiters.shift();
+    if(next) next();
+    else this.busy--;
+  }
+
+  // Runs fn(page) on a pooled page once one is free.
+  async withPage(fn){
+    await this.acquire();
+    let slot = null;
+    try{
+      slot = this.takeIdle() || await this.newSlot();
+      slot.uses++;
+      this.stats.renders++;
+      return await fn(slot.page);
+    }finally{
+      if(slot) await this.recycle(slot);
+      this.release();
+    }
+  }
+
+  takeIdle(){
+    while(this.idle.length){
+      const slot = this.idle.pop();
+      if(slot.browser === this.browser && slot.browser.isConnected()) return slot;
+    }
+    return null;
+  }
+
+  async recycle(slot){
+    const stale = slot.browser !== this.browser || !slot.browser.isConnected() || slot.page.isClosed();
+    if(stale || slot.uses >= this.maxUses){
+      this.stats.recycled++;
+      await slot.context.close().catch(() => {});
+      return;
+    }
+    try{
+      await this.clearState(slot);
+      this.idle.push(slot);
+    }catch(e){
+      await slot.context.close().catch(() => {});
+    }
+  }
+
+  status(){
+    return { ...this.stats, size: this.size, busy: this.busy, idle: this.idle.length, queued: this.waiters.length };
+  }
+
+  async close(){
+    const b = this.browser;
+    this.browser = null;
+    this.idle = [];
+    if(b) await b.close().catch(() => {});
+  }
+}
+
+module.exports = { BrowserPool, BLOCKED_TYPES };
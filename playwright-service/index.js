@@ -1,9 +1,15 @@
 const express = require('express');
 const bodyParser = require('body-parser');
-const { scrubAndScrape } = require('./scraper');
+const { scrubAndScrape, render, pool } = require('./scraper');
 const app = express();
 app.use(bodyParser.json({limit:'5mb'}));
 
+const batchMax = parseInt(process.env.SCRAPE_BATCH_MAX || '50', 10);
+
+function errorStatus(err){
+  return err && err.status ? err.status : 500;
+}
+
 app.post('/scrape', async (req, res) => {
   const { url, type } = req.body;
   if(!url) return res.status(400).send({error:'url required'});
@@ -12,9 +18,50 @@ app.post('/scrape', async (req, res) => {
     res.json({ ok: true, jobs });
   }catch(err){
     console.error(err);
-    res.status(500).json({ error: String(err) });
+    res.status(errorStatus(err)).json({ error: String(err) });
   }
 });
 
+// { urls: [...], type? } or { items: [{ url, type? }] }; results come back in request order and
+// one failing URL doesn't fail the batch. Concurrency is bounded by the browser pool and the
+// per-host delay, not by the batch size.
+app.post('/scrape/batch', async (req, res) => {
+  const items = Array.isArray(req.body.items) ? req.body.items
+    : Array.isArray(req.body.urls) ? req.body.urls.map(url => ({ url, type: req.body.type })) : null;
+  if(!items || items.length === 0) return res.status(400).send({error:'urls or items required'});
+  if(items.length > batchMax) return res.status(413).send({error:`at most ${batchMax} urls per batch`});
+  const results = await Promise.all(items.map(async ({ url, type }) => {
+    if(!url) return { url, ok: false, error: 'url required' };
+    try{
+      return { url, ok: true, jobs: await scrubAndScrape(url, type || null) };
+    }catch(err){
+      return { url, ok: false, error: String(err) };
+    }
+  }));
+  res.json({ ok: true, results });
+});
+
+// Rendered HTML of a JS-heavy page, for the backend's own extractors.
+app.post('/render', async (req, res) => {
+  const { url, waitUntil, timeoutMs } = req.body;
+  if(!url) return res.status(400).send({error:'url required'});
+  try{
+    res.json({ ok: true, ...(await render(url, { waitUntil, timeoutMs })) });
+  }catch(err){
+    console.error(err);
+    res.status(errorStatus(err)).json({ error: String(err) });
+  }
+});
+
+app.get('/health', (req, res) => res.json({ ok: true, pool: pool.status() }));
+
 const port = process.env.PORT || 4000;
-app.listen(port, ()=> console.log('Playwright service listening on', port));
+const server = app.listen(port, ()=> console.log('Playwright service listening on', port));
+
+async function shutdown(){
+  server.close();
+  await pool.close();
+  process.exit(0);
+}
+process.on('SIGTERM', shutdown);
+process.on('SIGINT', shutdown);
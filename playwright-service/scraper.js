@@ -1,17 +1,36 @@
-const { chromium } = require('playwright');
-const fetch = require('node-fetch');
 const robotsParser = require('robots-parser');
 const { URL } = require('url');
+const { BrowserPool } = require('./browserPool');
 
-// in-memory per-host rate limit
-const lastAccess = {};
+const pool = new BrowserPool({
+  size: parseInt(process.env.RENDER_CONCURRENCY || '4', 10),
+  maxQueue: parseInt(process.env.RENDER_QUEUE_MAX || '100', 10),
+  maxUses: parseInt(process.env.RENDER_CONTEXT_MAX_USES || '50', 10)
+});
+
+// in-memory per-host rate limit: each host has a next free slot that callers reserve up front,
+// so concurrent requests for one host queue up behind each other instead of all firing at once
+const nextSlot = {};
 const minDelayMs = 2000; // 2s between requests per host
 
+// robots.txt per origin, kept for an hour
+const robotsCache = new Map();
+const robotsTtlMs = 60 * 60 * 1000;
+
 async function fetchRobots(hostUrl){
+  const u = new URL(hostUrl);
+  const origin = `${u.protocol}//${u.host}`;
+  const cached = robotsCache.get(origin);
+  if(cached && cached.expires > Date.now()) return cached.robots;
+  const robots = await loadRobots(origin);
+  robotsCache.set(origin, { robots, expires: Date.now() + robotsTtlMs });
+  return robots;
+}
+
+async function loadRobots(origin){
   try{
-    const u = new URL(hostUrl);
-    const robotsUrl = `${u.protocol}//${u.host}/robots.txt`;
-    const r = await fetch(robotsUrl, { headers: { 'User-Agent': 'JobBot-Scraper/1.0' }, timeout: 5000 });
+    const robotsUrl = `${origin}/robots.txt`;
+    const r = await fetch(robotsUrl, { headers: { 'User-Agent': 'JobBot-Scraper/1.0' }, signal: AbortSignal.timeout(5000) });
     if(!r.ok) return null;
     const txt = await r.text();
     return robotsParser(robotsUrl, txt);
@@ -22,25 +41,21 @@ async function fetchRobots(hostUrl){
 
 async function enforceRateLimit(url){
   try{
-    const u = new URL(url);
-    const host = u.host;
+    const host = new URL(url).host;
     const now = Date.now();
-    const last = lastAccess[host] || 0;
-    const wait = minDelayMs - (now - last);
-    if(wait > 0) await new Promise(r=>setTimeout(r, wait));
-    lastAccess[host] = Date.now();
+    const slot = Math.max(now, nextSlot[host] || 0);
+    nextSlot[host] = slot + minDelayMs;
+    if(slot > now) await new Promise(r=>setTimeout(r, slot - now));
   }catch(e){}
 }
 
-async function scrubAndScrape(url, suggestedType){
-  // Check robots
-  const u = new URL(url);
-  const host = `${u.protocol}//${u.host}`;
+async function checkAllowed(url){
   const robots = await fetchRobots(url);
-  if(robots){
-    const allowed = robots.isAllowed(url, 'JobBot-Scraper/1.0');
-    if(!allowed) throw new Error('Disallowed by robots.txt: ' + url);
-  }
+  if(robots && !robots.isAllowed(url, 'JobBot-Scraper/1.0')) throw new Error('Disallowed by robots.txt: ' + url);
+}
+
+async function scrubAndScrape(url, suggestedType){
+  await checkAllowed(url);
   await enforceRateLimit(url);
 
   // site-specific quick cases
@@ -59,7 +74,6 @@ async function scrubAndScrape(url, suggestedType){
 }
 
 async function scrapeRss(url){
-  await enforceRateLimit(url);
   const r = await fetch(url, { headers: { 'User-Agent': 'JobBot-Scraper/1.0' } });
   if(!r.ok) throw new Error('RSS fetch failed: ' + r.status);
   const txt = await r.text();
@@ -74,18 +88,15 @@ async function scrapeRss(url){
 }
 
 async function scrapeGreenhouse(url){
-  await enforceRateLimit(url);
   // Greenhouse pages are mostly static - fetch and parse anchor links via Playwright render
-  const browser = await chromium.launch({ headless: true });
-  const page = await browser.newPage();
-  await page.goto(url, { waitUntil: 'domcontentloaded' });
-  const jobs = await page.$$eval('a[href]', links => links.map(a=>({ href: a.href, text: a.textContent })).filter(x=>x.href && (x.href.includes('/jobs/')||x.href.toLowerCase().includes('jobs'))));
-  await browser.close();
+  const jobs = await pool.withPage(async page => {
+    await page.goto(url, { waitUntil: 'domcontentloaded' });
+    return page.$$eval('a[href]', links => links.map(a=>({ href: a.href, text: a.textContent })).filter(x=>x.href && (x.href.includes('/jobs/')||x.href.toLowerCase().includes('jobs'))));
+  });
   return jobs.map(j=>({ title: (j.text||'').trim(), url: j.href }));
 }
 
 async function scrapeLeverApi(url){
-  await enforceRateLimit(url);
   // If it's a Lever API endpoint returning JSON, fetch and parse
   const r = await fetch(url, { headers: { 'User-Agent': 'JobBot-Scraper/1.0' } });
   if(!r.ok) throw new Error('Lever fetch failed: ' + r.status);
@@ -100,12 +111,15 @@ async function scrapeLeverApi(url){
 }
 
 async function renderAndExtract(url){
-  await enforceRateLimit(url);
-  const browser = await chromium.launch({ headless: true });
-  const page = await browser.newPage();
-  await page.goto(url, { waitUntil: 'domcontentloaded' });
-  // extract JSON-LD job postings
-  const jsonld = await page.$$eval('script[type="application/ld+json"]', nodes => nodes.map(n=>n.innerText));
+  const { jsonld, links } = await pool.withPage(async page => {
+    await page.goto(url, { waitUntil: 'domcontentloaded' });
+    return {
+      // extract JSON-LD job postings
+      jsonld: await page.$$eval('script[type="application/ld+json"]', nodes => nodes.map(n=>n.innerText)),
+      // fallback: collect job-like links
+      links: await page.$$eval('a[href]', links => links.map(a=>({ href: a.href, text: a.textContent })).filter(x=>x.href && (x.href.toLowerCase().includes('job')||x.href.toLowerCase().includes('careers')||x.href.toLowerCase().includes('position'))))
+    };
+  });
   const results = [];
   for(const j of jsonld){
     try{
@@ -118,11 +132,18 @@ async function renderAndExtract(url){
       }
     }catch(e){ /* ignore */ }
   }
-  // fallback: collect job-like links
-  const links = await page.$$eval('a[href]', links => links.map(a=>({ href: a.href, text: a.textContent })).filter(x=>x.href && (x.href.toLowerCase().includes('job')||x.href.toLowerCase().includes('careers')||x.href.toLowerCase().includes('position'))));
   links.forEach(l=>results.push({ title: (l.text||'').trim(), url: l.href }));
-  await browser.close();
   return results;
 }
 
-module.exports = { scrubAndScrape };
+// Rendered HTML for callers that run their own extractors (the Java backend's render connector).
+async function render(url, { waitUntil = 'networkidle', timeoutMs = 30000 } = {}){
+  await checkAllowed(url);
+  await enforceRateLimit(url);
+  return pool.withPage(async page => {
+    const res = await page.goto(url, { waitUntil, timeout: timeoutMs });
+    return { url, finalUrl: page.url(), status: res ? res.status() : 0, html: await page.content() };
+  });
+}
+
+module.exports = { scrubAndScrape, render, pool };